@@ -3,60 +3,195 @@ package gov.usbr.wq.merlindataexchange;
 import gov.usbr.wq.dataaccess.model.MeasureWrapper;
 import gov.usbr.wq.dataaccess.model.QualityVersionWrapper;
 import gov.usbr.wq.dataaccess.model.TemplateWrapper;
+import gov.usbr.wq.merlindataexchange.configuration.DataStoreProfile;
+import gov.usbr.wq.merlindataexchange.io.wq.ProfileConstituentIndex;
+import gov.usbr.wq.merlindataexchange.io.wq.ProfileSegmentationPolicy;
 
-import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Metadata of one Merlin server used during an extract. Reads go against an immutable snapshot, so the per-measure lookups done while
+ * exchanging data neither copy collections nor take locks. Each cache call replaces the snapshot.
+ */
 public final class DataExchangeCache
 {
-    private final Set<TemplateWrapper> _cachedTemplates = new HashSet<>();
-    private final Set<QualityVersionWrapper> _cachedQualityVersions = new HashSet<>();
-    private final Map<TemplateWrapper, List<MeasureWrapper>> _cachedTemplateToMeasures = new HashMap<>();
+    private volatile Snapshot _snapshot = new Snapshot(Collections.emptySet(), Collections.emptySet(), Collections.emptyMap());
+    private final Map<DataStoreProfile, ProfileSegmentationPolicy> _profileSegmentationPolicies = new ConcurrentHashMap<>();
 
+    /**
+     * @return unmodifiable list of cached templates
+     */
     public List<TemplateWrapper> getCachedTemplates()
     {
-        return new ArrayList<>(_cachedTemplates);
+        return _snapshot._templates;
     }
 
+    /**
+     * @return unmodifiable list of cached quality versions
+     */
     public List<QualityVersionWrapper> getCachedQualityVersions()
     {
-        return new ArrayList<>(_cachedQualityVersions);
+        return _snapshot._qualityVersions;
     }
 
+    /**
+     * @return unmodifiable map of cached templates to their measures
+     */
     public Map<TemplateWrapper, List<MeasureWrapper>> getCachedTemplateToMeasures()
     {
-        return new HashMap<>(_cachedTemplateToMeasures);
+        return _snapshot._templateToMeasures;
     }
 
-    public void cacheTemplates(List<TemplateWrapper> templates)
+    /**
+     * @return unmodifiable list of measures cached for the template, empty if none are cached
+     */
+    public List<MeasureWrapper> getCachedMeasures(TemplateWrapper template)
     {
-        _cachedTemplates.addAll(templates);
+        return _snapshot._templateToMeasures.getOrDefault(template, Collections.emptyList());
+    }
+
+    /**
+     * @return index of the template's profile measures, built on first use and dropped when the template's measures are re-cached
+     */
+    public ProfileConstituentIndex getProfileConstituentIndex(TemplateWrapper template)
+    {
+        Snapshot snapshot = _snapshot;
+        return snapshot._profileConstituentIndexes.computeIfAbsent(template,
+                t -> new ProfileConstituentIndex(snapshot._templateToMeasures.getOrDefault(t, Collections.emptyList())));
+    }
+
+    /**
+     * @return profile segmentation thresholds for the datastore, resolved from System Properties and its overrides on first use
+     */
+    public ProfileSegmentationPolicy getProfileSegmentationPolicy(DataStoreProfile dataStore)
+    {
+        return _profileSegmentationPolicies.computeIfAbsent(dataStore, d -> ProfileSegmentationPolicy.fromSystemProperties().withOverrides(d));
+    }
+
+    /**
+     * Finds a template the way data exchange sets reference them: by name (ignoring case) first, then by id.
+     */
+    public Optional<TemplateWrapper> getCachedTemplate(String templateName, Integer templateId)
+    {
+        Snapshot snapshot = _snapshot;
+        TemplateWrapper retVal = null;
+        if(templateName != null)
+        {
+            retVal = snapshot._templatesByName.get(templateName.toLowerCase(Locale.ROOT));
+        }
+        if(retVal == null && templateId != null)
+        {
+            retVal = snapshot._templatesById.get(templateId);
+        }
+        return Optional.ofNullable(retVal);
+    }
+
+    /**
+     * Finds a quality version the way data exchange sets reference them: by name (ignoring case) first, then by id.
+     */
+    public Optional<QualityVersionWrapper> getCachedQualityVersion(String qualityVersionName, Integer qualityVersionId)
+    {
+        Snapshot snapshot = _snapshot;
+        QualityVersionWrapper retVal = null;
+        if(qualityVersionName != null)
+        {
+            retVal = snapshot._qualityVersionsByName.get(qualityVersionName.toLowerCase(Locale.ROOT));
+        }
+        if(retVal == null && qualityVersionId != null)
+        {
+            retVal = snapshot._qualityVersionsById.get(qualityVersionId);
+        }
+        return Optional.ofNullable(retVal);
+    }
+
+    public synchronized void cacheTemplates(List<TemplateWrapper> templates)
+    {
+        Snapshot snapshot = _snapshot;
+        Set<TemplateWrapper> cachedTemplates = new LinkedHashSet<>(snapshot._templates);
+        cachedTemplates.addAll(templates);
+        Map<TemplateWrapper, List<MeasureWrapper>> templateToMeasures = new HashMap<>(snapshot._templateToMeasures);
         for(TemplateWrapper template : templates)
         {
-            _cachedTemplateToMeasures.put(template, Collections.emptyList());
+            templateToMeasures.put(template, Collections.emptyList());
         }
+        _snapshot = new Snapshot(cachedTemplates, snapshot._qualityVersions, templateToMeasures);
     }
 
-    public void cacheQualityVersions(List<QualityVersionWrapper> qualityVersions)
+    public synchronized void cacheQualityVersions(List<QualityVersionWrapper> qualityVersions)
     {
-        _cachedQualityVersions.addAll(qualityVersions);
+        Snapshot snapshot = _snapshot;
+        Set<QualityVersionWrapper> cachedQualityVersions = new LinkedHashSet<>(snapshot._qualityVersions);
+        cachedQualityVersions.addAll(qualityVersions);
+        _snapshot = new Snapshot(snapshot._templates, cachedQualityVersions, snapshot._templateToMeasures);
     }
-    public void cacheMeasures(TemplateWrapper template, List<MeasureWrapper> measures)
+
+    public synchronized void cacheMeasures(TemplateWrapper template, List<MeasureWrapper> measures)
     {
-        _cachedTemplateToMeasures.put(template, measures);
+        Snapshot snapshot = _snapshot;
+        Map<TemplateWrapper, List<MeasureWrapper>> templateToMeasures = new HashMap<>(snapshot._templateToMeasures);
+        templateToMeasures.put(template, Collections.unmodifiableList(new ArrayList<>(measures)));
+        _snapshot = new Snapshot(snapshot._templates, snapshot._qualityVersions, templateToMeasures);
     }
 
-    public void clearCache()
+    public synchronized void clearCache()
     {
-        _cachedTemplates.clear();
-        _cachedQualityVersions.clear();
-        _cachedTemplateToMeasures.clear();
+        _snapshot = new Snapshot(Collections.emptySet(), Collections.emptySet(), Collections.emptyMap());
+        _profileSegmentationPolicies.clear();
     }
 
+    private static final class Snapshot
+    {
+        private final List<TemplateWrapper> _templates;
+        private final List<QualityVersionWrapper> _qualityVersions;
+        private final Map<TemplateWrapper, List<MeasureWrapper>> _templateToMeasures;
+        private final Map<String, TemplateWrapper> _templatesByName = new HashMap<>();
+        private final Map<Integer, TemplateWrapper> _templatesById = new HashMap<>();
+        private final Map<String, QualityVersionWrapper> _qualityVersionsByName = new HashMap<>();
+        private final Map<Integer, QualityVersionWrapper> _qualityVersionsById = new HashMap<>();
+        private final Map<TemplateWrapper, ProfileConstituentIndex> _profileConstituentIndexes = new ConcurrentHashMap<>();
+
+        private Snapshot(Iterable<TemplateWrapper> templates, Iterable<QualityVersionWrapper> qualityVersions,
+                         Map<TemplateWrapper, List<MeasureWrapper>> templateToMeasures)
+        {
+            List<TemplateWrapper> templateList = new ArrayList<>();
+            for(TemplateWrapper template : templates)
+            {
+                templateList.add(template);
+                if(template.getName() != null)
+                {
+                    _templatesByName.putIfAbsent(template.getName().toLowerCase(Locale.ROOT), template);
+                }
+                if(template.getDprId() != null)
+                {
+                    _templatesById.putIfAbsent(template.getDprId(), template);
+                }
+            }
+            List<QualityVersionWrapper> qualityVersionList = new ArrayList<>();
+            for(QualityVersionWrapper qualityVersion : qualityVersions)
+            {
+                qualityVersionList.add(qualityVersion);
+                if(qualityVersion.getQualityVersionName() != null)
+                {
+                    _qualityVersionsByName.putIfAbsent(qualityVersion.getQualityVersionName().toLowerCase(Locale.ROOT), qualityVersion);
+                }
+                if(qualityVersion.getQualityVersionID() != null)
+                {
+                    _qualityVersionsById.putIfAbsent(qualityVersion.getQualityVersionID(), qualityVersion);
+                }
+            }
+            _templates = Collections.unmodifiableList(templateList);
+            _qualityVersions = Collections.unmodifiableList(qualityVersionList);
+            _templateToMeasures = Collections.unmodifiableMap(new LinkedHashMap<>(templateToMeasures));
+        }
+    }
 }
@@ -14,10 +14,12 @@ import gov.usbr.wq.merlindataexchange.configuration.DataStore;
 import gov.usbr.wq.merlindataexchange.configuration.DataStoreRef;
 import gov.usbr.wq.merlindataexchange.io.DataExchangeIO;
 import gov.usbr.wq.merlindataexchange.io.DataExchangeLookupException;
+import gov.usbr.wq.merlindataexchange.io.DataExchangePipeline;
 import gov.usbr.wq.merlindataexchange.io.DataExchangeReader;
 import gov.usbr.wq.merlindataexchange.io.DataExchangeReaderFactory;
 import gov.usbr.wq.merlindataexchange.io.DataExchangeWriter;
 import gov.usbr.wq.merlindataexchange.io.DataExchangeWriterFactory;
+import gov.usbr.wq.merlindataexchange.io.MeasureCostEstimator;
 import gov.usbr.wq.merlindataexchange.io.MerlinDataExchangeReader;
 import gov.usbr.wq.merlindataexchange.io.QualityVersionFromSetUtil;
 import gov.usbr.wq.merlindataexchange.io.wq.MerlinDataExchangeProfileReader;
@@ -30,19 +32,23 @@ import hec.ui.ProgressListener.MessageType;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -62,14 +68,20 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
     private final ProgressListener _progressListener;
     private final MerlinExchangeCompletionTracker _completionTracker = new MerlinExchangeCompletionTracker(PERCENT_COMPLETE_ALLOCATED_FOR_INITIAL_SETUP);
     private final Map<Path, MerlinDataExchangeLogger> _fileLoggers = new HashMap<>();
+    private final Map<Path, MerlinExchangeJournal> _journals = new HashMap<>();
+    private final Map<Path, MerlinHighWaterMarks> _highWaterMarks = new HashMap<>();
+    private final boolean _resume;
+    private final boolean _incremental;
     private CompletableFuture<MerlinDataExchangeStatus> _extractFuture;
     private Instant _extractStart;
 
-    MerlinDataExchangeEngine(List<Path> configurationFiles, P runtimeParameters, ProgressListener progressListener)
+    MerlinDataExchangeEngine(List<Path> configurationFiles, P runtimeParameters, ProgressListener progressListener, boolean resume, boolean incremental)
     {
         _configurationFiles = configurationFiles;
         _runtimeParameters = runtimeParameters;
         _progressListener = progressListener;
+        _resume = resume;
+        _incremental = incremental;
     }
 
     @Override
@@ -146,9 +158,15 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
             {
                 Map<Path, DataExchangeConfiguration> parsedConfigurations = parseConfigurations();
                 List<ApiConnectionInfo> merlinRoots = getMerlinUrlPaths(parsedConfigurations.values());
+                //network requests for every server start together, the cache itself is then filled in server order
+                Map<ApiConnectionInfo, CompletableFuture<MerlinServerCatalog>> serverCatalogs = new LinkedHashMap<>();
                 for(ApiConnectionInfo connectionInfo : merlinRoots)
                 {
-                    initializeCacheForMerlinUrl(connectionInfo, parsedConfigurations);
+                    serverCatalogs.put(connectionInfo, retrieveServerCatalog(connectionInfo, parsedConfigurations));
+                }
+                for(Map.Entry<ApiConnectionInfo, CompletableFuture<MerlinServerCatalog>> entry : serverCatalogs.entrySet())
+                {
+                    initializeCacheForMerlinUrl(entry.getKey(), parsedConfigurations, entry.getValue());
                 }
                 if(!_isCancelled.get())
                 {
@@ -177,7 +195,8 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
             _fileLoggers.values().forEach(MerlinDataExchangeLogger::writeLog);
             finish();
             return retVal;
-        }, getExecutorService());
+        }, getOrchestrationExecutorService())
+                .whenComplete((status, e) -> shutdownExecutors());
     }
 
     private void logCompletion(MerlinDataExchangeStatus retVal)
@@ -206,6 +225,13 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
             fileLoggers.forEach(logger -> logger.logToFooter("Extract Failed! | " + finishedTimeMsg + " | " + formattedDurationMsg));
             logCompletionProgress("Extract Failed! | " + finishedTimeMsg + " | " + formattedDurationMsg);
         }
+        int unchangedWrites = _completionTracker.getUnchangedWriteCount();
+        if(unchangedWrites > 0)
+        {
+            String unchangedMsg = "Unchanged records skipped: " + unchangedWrites;
+            fileLoggers.forEach(logger -> logger.logToFooter(unchangedMsg));
+            logCompletionProgress(unchangedMsg);
+        }
     }
 
     private void logCompletionProgress(String completionMessage)
@@ -216,42 +242,208 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
         }
     }
 
-    private void initializeCacheForMerlinUrl(ApiConnectionInfo connectionInfo, Map<Path, DataExchangeConfiguration> parsedConfiguartions)
+    private void initializeCacheForMerlinUrl(ApiConnectionInfo connectionInfo, Map<Path, DataExchangeConfiguration> parsedConfiguartions,
+                                             CompletableFuture<MerlinServerCatalog> serverCatalogFuture)
             throws MerlinAuthorizationException, MerlinInitializationException
     {
+        MerlinServerCatalog serverCatalog;
         try
         {
-            UsernamePasswordHolder usernamePassword = _runtimeParameters.getUsernamePasswordForUrl(connectionInfo.getApiRoot());
-            initializeCacheForMerlinUrlWithAuthentication(connectionInfo, parsedConfiguartions, usernamePassword);
+            serverCatalog = serverCatalogFuture.join();
         }
-        catch (UsernamePasswordNotFoundException e)
+        catch (CompletionException e)
         {
-            throw new MerlinInitializationException(connectionInfo, e);
+            Throwable cause = e.getCause();
+            if(cause instanceof MerlinAuthorizationException)
+            {
+                throw (MerlinAuthorizationException) cause;
+            }
+            if(cause instanceof MerlinInitializationException)
+            {
+                throw (MerlinInitializationException) cause;
+            }
+            throw e;
         }
+        initializeCacheForMerlinWithCatalog(parsedConfiguartions, connectionInfo, serverCatalog);
     }
 
-    private void initializeCacheForMerlinUrlWithAuthentication(ApiConnectionInfo connectionInfo, Map<Path, DataExchangeConfiguration> parsedConfiguartions, UsernamePasswordHolder usernamePassword)
-            throws MerlinAuthorizationException, MerlinInitializationException
+    /**
+     * Authenticates against the server, then retrieves templates and quality versions in parallel, then the measure catalogs
+     * of all templates referenced by the configurations in parallel. Metadata found in the {@link MerlinMetadataCache} is used instead of
+     * being retrieved, and the combined metadata is stored back to it. Nothing is added to the {@link DataExchangeCache} here.
+     */
+    private CompletableFuture<MerlinServerCatalog> retrieveServerCatalog(ApiConnectionInfo connectionInfo, Map<Path, DataExchangeConfiguration> parsedConfigurations)
     {
-        TokenContainer token;
+        ExecutorService executorService = getExecutorService();
+        Optional<MerlinServerCatalog> persistedCatalog = MerlinMetadataCache.getInstance().load(connectionInfo)
+                .filter(catalog -> hasConfiguredMetadata(connectionInfo, catalog, parsedConfigurations));
+        CompletableFuture<TokenContainer> tokenFuture = CompletableFuture.supplyAsync(() -> authenticate(connectionInfo), executorService);
+        CompletableFuture<List<TemplateWrapper>> templatesFuture;
+        CompletableFuture<List<QualityVersionWrapper>> qualityVersionsFuture;
+        if(persistedCatalog.isPresent())
+        {
+            //still authenticate first so invalid credentials are reported the same way with or without cached metadata
+            templatesFuture = tokenFuture.thenApply(token -> persistedCatalog.get().getTemplates());
+            qualityVersionsFuture = tokenFuture.thenApply(token -> persistedCatalog.get().getQualityVersions());
+        }
+        else
+        {
+            templatesFuture = tokenFuture.thenApplyAsync(token ->
+                    retrieveMetadata(connectionInfo, () -> _merlinDataAccess.getTemplates(connectionInfo, token)), executorService);
+            qualityVersionsFuture = tokenFuture.thenApplyAsync(token ->
+                    retrieveMetadata(connectionInfo, () -> _merlinDataAccess.getQualityVersions(connectionInfo, token)), executorService);
+        }
+        Map<TemplateWrapper, List<MeasureWrapper>> persistedMeasures = persistedCatalog.map(MerlinServerCatalog::getTemplateToMeasures)
+                .orElse(new HashMap<>());
+        CompletableFuture<Map<TemplateWrapper, List<MeasureWrapper>>> measuresFuture = templatesFuture.thenCompose(templates ->
+                retrieveMeasuresForConfiguredTemplates(connectionInfo, tokenFuture.join(), templates, parsedConfigurations, persistedMeasures));
+        return CompletableFuture.allOf(qualityVersionsFuture, measuresFuture)
+                .thenApply(v ->
+                {
+                    MerlinServerCatalog retVal = new MerlinServerCatalog(templatesFuture.join(), qualityVersionsFuture.join(), measuresFuture.join());
+                    if(!_isCancelled.get())
+                    {
+                        //keep catalogs of templates this extract didn't need, so other configurations against the same server can use them
+                        Map<TemplateWrapper, List<MeasureWrapper>> allMeasures = new HashMap<>(persistedMeasures);
+                        allMeasures.putAll(retVal.getTemplateToMeasures());
+                        MerlinMetadataCache.getInstance().store(connectionInfo, new MerlinServerCatalog(retVal.getTemplates(), retVal.getQualityVersions(), allMeasures));
+                    }
+                    return retVal;
+                });
+    }
+
+    /**
+     * @return true if the catalog has every template and quality version the configurations read from the server,
+     * false if any were added to the server after the catalog was cached
+     */
+    private boolean hasConfiguredMetadata(ApiConnectionInfo connectionInfo, MerlinServerCatalog catalog, Map<Path, DataExchangeConfiguration> parsedConfigurations)
+    {
+        boolean retVal = true;
+        for(DataExchangeConfiguration dataExchangeConfig : parsedConfigurations.values())
+        {
+            for(DataExchangeSet set : dataExchangeConfig.getDataExchangeSets())
+            {
+                if(retVal && _runtimeParameters.supportsDataExchangeSet(set) && isSetForServer(dataExchangeConfig, set, connectionInfo))
+                {
+                    if(!catalog.hasTemplate(set.getTemplateName(), set.getTemplateId()))
+                    {
+                        retVal = false;
+                        LOGGER.log(Level.FINE, () -> "Cached Merlin metadata for " + connectionInfo.getApiRoot() + " has no template "
+                                + set.getTemplateName() + " (" + set.getTemplateId() + "). Metadata will be retrieved from the server.");
+                    }
+                    else if(!catalog.hasQualityVersion(set.getQualityVersionName(), set.getQualityVersionId()))
+                    {
+                        retVal = false;
+                        LOGGER.log(Level.FINE, () -> "Cached Merlin metadata for " + connectionInfo.getApiRoot() + " has no quality version "
+                                + set.getQualityVersionName() + " (" + set.getQualityVersionId() + "). Metadata will be retrieved from the server.");
+                    }
+                }
+            }
+        }
+        return retVal;
+    }
+
+    private static boolean isSetForServer(DataExchangeConfiguration config, DataExchangeSet set, ApiConnectionInfo connectionInfo)
+    {
+        return isDataStoreForServer(config.getDataStoreByRef(set.getDataStoreRefA()), connectionInfo)
+                || isDataStoreForServer(config.getDataStoreByRef(set.getDataStoreRefB()), connectionInfo);
+    }
+
+    private static boolean isDataStoreForServer(Optional<DataStore> dataStore, ApiConnectionInfo connectionInfo)
+    {
+        return dataStore.isPresent() && MerlinDataExchangeReader.MERLIN.equalsIgnoreCase(dataStore.get().getDataStoreType())
+                && connectionInfo.equals(new ApiConnectionInfo(dataStore.get().getPath()));
+    }
+
+    private TokenContainer authenticate(ApiConnectionInfo connectionInfo)
+    {
+        UsernamePasswordHolder usernamePassword;
+        try
+        {
+            usernamePassword = _runtimeParameters.getUsernamePasswordForUrl(connectionInfo.getApiRoot());
+        }
+        catch (UsernamePasswordNotFoundException e)
+        {
+            throw new CompletionException(new MerlinInitializationException(connectionInfo, e));
+        }
         try
         {
-            token = HttpAccessUtils.authenticate(connectionInfo, usernamePassword.getUsername(), usernamePassword.getPassword());
+            return HttpAccessUtils.authenticate(connectionInfo, usernamePassword.getUsername(), usernamePassword.getPassword());
         }
         catch (HttpAccessException e)
         {
-            throw new MerlinAuthorizationException(e, usernamePassword, connectionInfo);
+            throw new CompletionException(new MerlinAuthorizationException(e, usernamePassword, connectionInfo));
+        }
+    }
+
+    private CompletableFuture<Map<TemplateWrapper, List<MeasureWrapper>>> retrieveMeasuresForConfiguredTemplates(ApiConnectionInfo connectionInfo, TokenContainer token,
+                                                                                                                  List<TemplateWrapper> templates,
+                                                                                                                  Map<Path, DataExchangeConfiguration> parsedConfigurations,
+                                                                                                                  Map<TemplateWrapper, List<MeasureWrapper>> persistedMeasures)
+    {
+        Map<TemplateWrapper, CompletableFuture<List<MeasureWrapper>>> measureFutures = new HashMap<>();
+        if(!_isCancelled.get())
+        {
+            for(DataExchangeConfiguration dataExchangeConfig : parsedConfigurations.values())
+            {
+                for(DataExchangeSet set : dataExchangeConfig.getDataExchangeSets())
+                {
+                    Optional<TemplateWrapper> templateOpt = findTemplateForSet(templates, set);
+                    if(templateOpt.isPresent() && _runtimeParameters.supportsDataExchangeSet(set))
+                    {
+                        measureFutures.computeIfAbsent(templateOpt.get(), template ->
+                        {
+                            CompletableFuture<List<MeasureWrapper>> measuresFuture;
+                            List<MeasureWrapper> persisted = persistedMeasures.get(template);
+                            if(persisted != null)
+                            {
+                                measuresFuture = CompletableFuture.completedFuture(persisted);
+                            }
+                            else
+                            {
+                                measuresFuture = CompletableFuture.supplyAsync(() -> retrieveMetadata(connectionInfo,
+                                        () -> _merlinDataAccess.getMeasurementsByTemplate(connectionInfo, token, template)), getExecutorService());
+                            }
+                            return measuresFuture;
+                        });
+                    }
+                }
+            }
         }
+        return CompletableFuture.allOf(measureFutures.values().toArray(new CompletableFuture[0]))
+                .thenApply(v ->
+                {
+                    Map<TemplateWrapper, List<MeasureWrapper>> retVal = new HashMap<>();
+                    measureFutures.forEach((template, measures) -> retVal.put(template, measures.join()));
+                    return retVal;
+                });
+    }
+
+    private static <T> T retrieveMetadata(ApiConnectionInfo connectionInfo, MerlinMetadataRequest<T> request)
+    {
         try
         {
-            initializeCacheForMerlinWithToken(parsedConfiguartions, connectionInfo, token);
+            return request.retrieve();
         }
         catch (IOException | HttpAccessException e)
         {
-            throw new MerlinInitializationException(connectionInfo, e);
+            throw new CompletionException(new MerlinInitializationException(connectionInfo, e));
         }
     }
 
+    private static Optional<TemplateWrapper> findTemplateForSet(List<TemplateWrapper> templates, DataExchangeSet set)
+    {
+        return templates.stream()
+                .filter(t -> t.getName().equalsIgnoreCase(set.getTemplateName()) || t.getDprId().equals(set.getTemplateId()))
+                .findFirst();
+    }
+
+    @FunctionalInterface
+    private interface MerlinMetadataRequest<T>
+    {
+        T retrieve() throws IOException, HttpAccessException;
+    }
+
     private List<ApiConnectionInfo> getMerlinUrlPaths(Collection<DataExchangeConfiguration> configs)
     {
         List<String> retVal = new ArrayList<>();
@@ -292,25 +484,53 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
 
     private void extractUsingInitializedCache(Map<Path, DataExchangeConfiguration> parsedConfiguartions)
     {
+        MerlinExchangeScheduler scheduler = new MerlinExchangeScheduler(getThreadPoolCount(), _isCancelled);
+        DataExchangePipeline pipeline = new DataExchangePipeline(getDataExchangeExecutors(), getThreadPoolCount());
+        List<CompletableFuture<Void>> configurationFutures = new ArrayList<>();
         for(Map.Entry<Path, DataExchangeConfiguration> entry : parsedConfiguartions.entrySet())
         {
             Path configPath = entry.getKey();
             MerlinDataExchangeLogger logFileLogger = _fileLoggers.get(configPath);
+            MerlinExchangeJournal journal = _journals.get(configPath);
+            MerlinHighWaterMarks highWaterMarks = _highWaterMarks.get(configPath);
             String logMessage = "Running Extract for config: " + configPath;
             logImportantProgress(logMessage);
             String logFileMessage = "Logging extract to: " + logFileLogger.getLogFile();
             logImportantProgress(logFileMessage);
             MerlinDataExchangeLogBody logBody = new MerlinDataExchangeLogBody();
             logBody.log(logMessage);
+            if(_resume)
+            {
+                String resumeMessage = "Resuming extract from journal: " + journal.getJournalFile();
+                logImportantProgress(resumeMessage);
+                logBody.log(resumeMessage);
+            }
+            if(_incremental)
+            {
+                String incrementalMessage = "Incremental extract from last events written in: " + highWaterMarks.getHighWaterMarksFile()
+                        + " | Overlap: " + MerlinHighWaterMarks.getOverlap().toMinutes() + " minutes";
+                logImportantProgress(incrementalMessage);
+                logBody.log(incrementalMessage);
+            }
             logFileLogger.logBody(logBody);
             DataExchangeConfiguration dataExchangeConfiguration = entry.getValue();
-            extractConfiguration(dataExchangeConfiguration, logFileLogger);
-            String finishedMsg = "Finished extract for configuration file: " + configPath;
-            MerlinDataExchangeLogBody finishedBody = new MerlinDataExchangeLogBody();
-            finishedBody.log(finishedMsg);
-            logFileLogger.logBody(finishedBody);
-            logImportantProgress(finishedMsg);
+            CompletableFuture<Void> configurationFuture = extractConfiguration(dataExchangeConfiguration, logFileLogger, journal, highWaterMarks, scheduler, pipeline)
+                    .thenRun(() ->
+                    {
+                        String finishedMsg = "Finished extract for configuration file: " + configPath;
+                        MerlinDataExchangeLogBody finishedBody = new MerlinDataExchangeLogBody();
+                        finishedBody.log(finishedMsg);
+                        logFileLogger.logBody(finishedBody);
+                        logImportantProgress(finishedMsg);
+                    });
+            configurationFutures.add(configurationFuture);
         }
+        //every measure task of every configuration is queued at this point, so the scheduler can keep all slots busy across set boundaries
+        scheduler.start();
+        CompletableFuture.allOf(configurationFutures.toArray(new CompletableFuture[0])).join();
+        LOGGER.fine(() -> "Data exchange executors at end of extract: " + getDataExchangeExecutors().getMetricsSummary());
+        LOGGER.fine(() -> "Merlin exchange scheduler peak admitted heap estimate: " + scheduler.getPeakAdmittedBytes() + " bytes of "
+                + scheduler.getHeapBudgetBytes() + " bytes budgeted");
     }
 
     private void finish()
@@ -321,6 +541,10 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
         }
         _dataExchangeCache.clear();
         _fileLoggers.clear();
+        _journals.values().forEach(MerlinExchangeJournal::close);
+        _journals.clear();
+        _highWaterMarks.values().forEach(MerlinHighWaterMarks::save);
+        _highWaterMarks.clear();
         _completionTracker.reset();
     }
 
@@ -335,21 +559,29 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
         return retVal;
     }
 
-    private void extractConfiguration(DataExchangeConfiguration dataExchangeConfig, MerlinDataExchangeLogger logFileLogger)
+    private CompletableFuture<Void> extractConfiguration(DataExchangeConfiguration dataExchangeConfig, MerlinDataExchangeLogger logFileLogger, MerlinExchangeJournal journal,
+                                                         MerlinHighWaterMarks highWaterMarks, MerlinExchangeScheduler scheduler, DataExchangePipeline pipeline)
     {
+        CompletableFuture<Void> retVal = CompletableFuture.completedFuture(null);
         if (dataExchangeConfig != null)
         {
             List<DataExchangeSet> dataExchangeSets = dataExchangeConfig.getDataExchangeSets();
+            List<MerlinDataExchangeLogBody> setLogBodies = new ArrayList<>();
+            List<CompletableFuture<Void>> setFutures = new ArrayList<>();
             dataExchangeSets.forEach(dataExchangeSet ->
             {
                 if(!_isCancelled.get() && _runtimeParameters.supportsDataExchangeSet(dataExchangeSet))
                 {
                     MerlinDataExchangeLogBody logBody = new MerlinDataExchangeLogBody();
-                    exchangeDataForSet(dataExchangeSet, dataExchangeConfig, logBody);
-                    logFileLogger.logBody(logBody);
+                    setFutures.add(exchangeDataForSet(dataExchangeSet, dataExchangeConfig, logBody, journal, highWaterMarks, scheduler, pipeline));
+                    setLogBodies.add(logBody);
                 }
             });
+            //set bodies are added once the whole configuration is done so the log file keeps the configuration's set order
+            retVal = CompletableFuture.allOf(setFutures.toArray(new CompletableFuture[0]))
+                    .thenRun(() -> setLogBodies.forEach(logFileLogger::logBody));
         }
+        return retVal;
     }
 
     private void setUpLoggingForConfigs(List<Path> configurationPaths, Path logDirectory)
@@ -359,11 +591,18 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
             String configNameWithoutExtension = configPath.getFileName().toString().split("\\.")[0];
             Path logFile = logDirectory.resolve(configNameWithoutExtension + ".log");
             _fileLoggers.put(configPath, new MerlinDataExchangeLogger(logFile));
+            Path journalFile = logDirectory.resolve(configNameWithoutExtension + MerlinExchangeJournal.JOURNAL_EXTENSION);
+            _journals.put(configPath, MerlinExchangeJournal.open(journalFile, _resume));
+            Path highWaterMarksFile = logDirectory.resolve(configNameWithoutExtension + MerlinHighWaterMarks.HIGH_WATER_MARKS_EXTENSION);
+            _highWaterMarks.put(configPath, MerlinHighWaterMarks.open(highWaterMarksFile));
         }
     }
 
-    private void exchangeDataForSet(DataExchangeSet dataExchangeSet, DataExchangeConfiguration dataExchangeConfig, MerlinDataExchangeLogBody logBody)
+    private CompletableFuture<Void> exchangeDataForSet(DataExchangeSet dataExchangeSet, DataExchangeConfiguration dataExchangeConfig, MerlinDataExchangeLogBody logBody,
+                                                       MerlinExchangeJournal journal, MerlinHighWaterMarks highWaterMarks, MerlinExchangeScheduler scheduler,
+                                                       DataExchangePipeline pipeline)
     {
+        CompletableFuture<Void> retVal = CompletableFuture.completedFuture(null);
         DataStoreRef dataStoreRefB = dataExchangeSet.getDataStoreRefB();
         DataStoreRef dataStoreRefA = dataExchangeSet.getDataStoreRefA();
         DataStoreRef sourceRef = dataStoreRefA;
@@ -389,13 +628,18 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
         }
         if(dataStoreDestinationOpt.isPresent() && dataStoreSourceOpt.isPresent())
         {
-            exchangeData(dataExchangeSet, dataStoreSourceOpt.get(), dataStoreDestinationOpt.get(), dataExchangeConfig, logBody);
+            retVal = exchangeData(dataExchangeSet, dataStoreSourceOpt.get(), dataStoreDestinationOpt.get(), dataExchangeConfig, logBody, journal, highWaterMarks,
+                    scheduler, pipeline);
         }
+        return retVal;
     }
 
     @SuppressWarnings("unchecked")
-    private void exchangeData(DataExchangeSet dataExchangeSet, DataStore dataStoreSource, DataStore dataStoreDestination, DataExchangeConfiguration dataExchangeConfig, MerlinDataExchangeLogBody logBody)
+    private CompletableFuture<Void> exchangeData(DataExchangeSet dataExchangeSet, DataStore dataStoreSource, DataStore dataStoreDestination, DataExchangeConfiguration dataExchangeConfig,
+                                                 MerlinDataExchangeLogBody logBody, MerlinExchangeJournal journal, MerlinHighWaterMarks highWaterMarks,
+                                                 MerlinExchangeScheduler scheduler, DataExchangePipeline pipeline)
     {
+        CompletableFuture<Void> retVal = CompletableFuture.completedFuture(null);
         try
         {
             TemplateWrapper template = getTemplateFromDataExchangeSet(dataExchangeSet, dataStoreSource);
@@ -438,7 +682,7 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
                 {
                     throw new UnsupportedQualityVersionException(dataExchangeSet.getQualityVersionName(), dataExchangeSet.getQualityVersionId());
                 }
-                List<MeasureWrapper> unfilteredMeasures = cache.getCachedTemplateToMeasures().get(template);
+                List<MeasureWrapper> unfilteredMeasures = cache.getCachedMeasures(template);
                 List<MeasureWrapper> measures = reader.filterMeasuresToRead(dataExchangeConfig, dataExchangeSet, unfilteredMeasures);
                 List<String> filteredOutMeasureSeriesStrings = unfilteredMeasures.stream()
                         .filter(m -> !measures.contains(m))
@@ -451,10 +695,54 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
                     logGeneralProgress(filteredMeasuresString);
                 }
                 List<CompletableFuture<Void>> measurementFutures = new ArrayList<>();
-                measures.forEach(measure ->
-                        measurementFutures.add(DataExchangeIO.exchangeData(reader, writer, dataExchangeSet, _runtimeParameters, dataStoreSource, dataStoreDestination,
-                                cache, measure, _completionTracker, _progressListener, _isCancelled, logBody, getExecutorService())));
-                CompletableFuture.allOf(measurementFutures.toArray(new CompletableFuture[0])).join();
+                Instant start = _runtimeParameters.getStart();
+                Instant end = _runtimeParameters.getEnd();
+                String destinationPath = writer.getDestinationPath(dataStoreDestination, _runtimeParameters);
+                Duration overlap = MerlinHighWaterMarks.getOverlap();
+                AtomicInteger incrementalMeasures = new AtomicInteger();
+                writer.beginWrites(dataStoreDestination, _runtimeParameters);
+                try
+                {
+                    measures.forEach(measure ->
+                    {
+                        if(journal.isCompleted(dataExchangeSet, measure, start, end))
+                        {
+                            skipCompletedMeasure(reader, dataExchangeSet, cache, measure, logBody);
+                        }
+                        else
+                        {
+                            P measureParameters = getMeasureParameters(highWaterMarks.getHighWaterMark(sourcePath, dataExchangeSet, measure, destinationPath), overlap);
+                            if(measureParameters != _runtimeParameters)
+                            {
+                                incrementalMeasures.incrementAndGet();
+                            }
+                            measurementFutures.add(scheduler.submit(() -> DataExchangeIO.exchangeData(reader, writer, dataExchangeSet, measureParameters, dataStoreSource,
+                                            dataStoreDestination, cache, measure, _completionTracker, _progressListener, _isCancelled, logBody, pipeline,
+                                            lastEventTime -> highWaterMarks.recordWritten(sourcePath, dataExchangeSet, measure, destinationPath, lastEventTime))
+                                            .thenAccept(written ->
+                                            {
+                                                if(written)
+                                                {
+                                                    journal.recordCompleted(dataExchangeSet, measure, start, end);
+                                                }
+                                            }),
+                                    MeasureCostEstimator.estimateCost(measure, measureParameters),
+                                    estimateHeapBytes(reader, dataExchangeSet, cache, measure, measureParameters), dataExchangeSet));
+                        }
+                    });
+                }
+                finally
+                {
+                    //attached even if queueing a measure fails, so the destination is released once the measures already queued are done
+                    retVal = CompletableFuture.allOf(measurementFutures.toArray(new CompletableFuture[0]))
+                            .whenComplete((v, e) -> writer.endWrites(dataStoreDestination, _runtimeParameters));
+                }
+                if(_incremental)
+                {
+                    String incrementalMsg = "Measures read from their last written event: " + incrementalMeasures.get() + " of " + measures.size();
+                    logBody.log(incrementalMsg);
+                    logGeneralProgress(incrementalMsg);
+                }
             }
         }
         catch (DataExchangeLookupException | UnsupportedTemplateException | UnsupportedQualityVersionException e)
@@ -463,6 +751,61 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
             logError(e.getMessage(), e);
             logBody.log(e.getMessage());
         }
+        return retVal;
+    }
+
+    /**
+     * @return estimated heap held while exchanging the measure: one streamed window at a time when the reader streams it,
+     * for each of the measures read with it
+     */
+    @SuppressWarnings("unchecked")
+    private long estimateHeapBytes(DataExchangeReader<P, ?> reader, DataExchangeSet dataExchangeSet, DataExchangeCache cache, MeasureWrapper measure,
+                                   P measureParameters)
+    {
+        P heldParameters = measureParameters;
+        List<Instant[]> streamedWindows = reader.getStreamedWindows(measureParameters, measure);
+        if(streamedWindows.size() > 1)
+        {
+            heldParameters = (P) measureParameters.withTimeWindow(streamedWindows.get(0)[0], streamedWindows.get(0)[1]);
+        }
+        return MeasureCostEstimator.estimateHeapBytes(measure, heldParameters) * reader.getNumberOfMeasuresRead(dataExchangeSet, cache, measure);
+    }
+
+    /**
+     * @return runtime parameters starting at the measure's high water mark less the overlap when extracting incrementally,
+     * otherwise, or if that doesn't narrow the time window, the engine's runtime parameters
+     */
+    @SuppressWarnings("unchecked")
+    private P getMeasureParameters(Instant highWaterMark, Duration overlap)
+    {
+        P retVal = _runtimeParameters;
+        if(_incremental && highWaterMark != null)
+        {
+            Instant incrementalStart = highWaterMark.minus(overlap);
+            Instant start = _runtimeParameters.getStart();
+            Instant end = _runtimeParameters.getEnd();
+            if((start == null || incrementalStart.isAfter(start)) && (end == null || incrementalStart.isBefore(end)))
+            {
+                retVal = (P) _runtimeParameters.withStart(incrementalStart);
+            }
+        }
+        return retVal;
+    }
+
+    private void skipCompletedMeasure(DataExchangeReader<P, ?> reader, DataExchangeSet dataExchangeSet, DataExchangeCache cache, MeasureWrapper measure,
+                                      MerlinDataExchangeLogBody logBody)
+    {
+        //the measure counts as read and written so a resumed extract can still finish as a complete success
+        int numberOfMeasuresRead = reader.getNumberOfMeasuresRead(dataExchangeSet, cache, measure);
+        for(int i = 0; i < numberOfMeasuresRead; i++)
+        {
+            _completionTracker.readWriteTaskCompleted();
+            _completionTracker.readWriteTaskCompleted();
+        }
+        _completionTracker.writeTaskCompleted();
+        String skipMsg = "Skipped " + measure.getSeriesString() + ". Already written by a previous extract.";
+        logBody.log(skipMsg);
+        logGeneralProgress(skipMsg);
     }
 
     private void logImportantProgress(String message)
@@ -528,24 +871,10 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
         if(dataStore != null)
         {
             String dataStorePath = dataStore.getPath();
-            String templateNameFromSet = dataExchangeSet.getTemplateName();
-            Integer templateIdFromSet = dataExchangeSet.getTemplateId();
             DataExchangeCache cache = _dataExchangeCache.get(new ApiConnectionInfo(dataStorePath));
-
             if (cache != null)
             {
-                List<TemplateWrapper> cachedTemplates = cache.getCachedTemplates();
-                retVal = cachedTemplates.stream()
-                        .filter(template -> template.getName().equalsIgnoreCase(templateNameFromSet))
-                        .findFirst()
-                        .orElse(null);
-                if (retVal == null)
-                {
-                    retVal = cachedTemplates.stream()
-                            .filter(template -> Objects.equals(template.getDprId(), templateIdFromSet))
-                            .findFirst()
-                            .orElse(null);
-                }
+                retVal = cache.getCachedTemplate(dataExchangeSet.getTemplateName(), dataExchangeSet.getTemplateId()).orElse(null);
             }
         }
         return retVal;
@@ -558,8 +887,8 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
         return retVal;
     }
 
-    private void initializeCacheForMerlinWithToken(Map<Path, DataExchangeConfiguration> parsedConfigurations, ApiConnectionInfo connectionInfo, TokenContainer token)
-            throws IOException, HttpAccessException, MerlinInitializationException
+    private void initializeCacheForMerlinWithCatalog(Map<Path, DataExchangeConfiguration> parsedConfigurations, ApiConnectionInfo connectionInfo,
+                                                     MerlinServerCatalog serverCatalog) throws MerlinInitializationException
     {
 
         DataExchangeCache cache = _dataExchangeCache.get(connectionInfo);
@@ -567,20 +896,20 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
         {
             cache = new DataExchangeCache();
             _dataExchangeCache.put(connectionInfo, cache);
-            List<TemplateWrapper> templates = _merlinDataAccess.getTemplates(connectionInfo, token);
+            List<TemplateWrapper> templates = serverCatalog.getTemplates();
             cache.cacheTemplates(templates);
             logGeneralProgress("Retrieved " + templates.size() + " templates", (int) (PERCENT_COMPLETE_ALLOCATED_FOR_INITIAL_SETUP * 0.4));
-            List<QualityVersionWrapper> qualityVersions = _merlinDataAccess.getQualityVersions(connectionInfo, token);
+            List<QualityVersionWrapper> qualityVersions = serverCatalog.getQualityVersions();
             cache.cacheQualityVersions(qualityVersions);
             logGeneralProgress("Retrieved " + qualityVersions.size() + " quality versions", (int) (PERCENT_COMPLETE_ALLOCATED_FOR_INITIAL_SETUP * 0.6));
             if(!_isCancelled.get())
             {
-                initializeCachedMeasurementsForMerlin(cache, parsedConfigurations, connectionInfo, token);
+                initializeCachedMeasurementsForMerlin(cache, parsedConfigurations, serverCatalog);
             }
         }
         else
         {
-            initializeCachedMeasurementsForMerlin(cache, parsedConfigurations, connectionInfo, token);
+            initializeCachedMeasurementsForMerlin(cache, parsedConfigurations, serverCatalog);
         }
         for(DataExchangeConfiguration config : parsedConfigurations.values())
         {
@@ -608,8 +937,8 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
     {
         for(TemplateWrapper template : templatesFromConfig)
         {
-            List<MeasureWrapper> measures = cache.getCachedTemplateToMeasures().get(template);
-            if(measures != null && !measures.isEmpty())
+            List<MeasureWrapper> measures = cache.getCachedMeasures(template);
+            if(!measures.isEmpty())
             {
                 String projSiteSensor = measures.get(0).getProjectAndSiteAndSensor();
                 String proj = parseProject(projSiteSensor);
@@ -676,7 +1005,7 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
     }
 
     private void initializeCachedMeasurementsForMerlin(DataExchangeCache cache, Map<Path, DataExchangeConfiguration> parsedConfigurations,
-                                                       ApiConnectionInfo connectionInfo, TokenContainer token) throws IOException, HttpAccessException
+                                                       MerlinServerCatalog serverCatalog)
     {
         for(Map.Entry<Path, DataExchangeConfiguration> entry : parsedConfigurations.entrySet())
         {
@@ -685,22 +1014,20 @@ public final class MerlinDataExchangeEngine<P extends MerlinParameters> extends
             List<DataExchangeSet> exchangeSets = dataExchangeConfig.getDataExchangeSets();
             for(DataExchangeSet set : exchangeSets)
             {
-                Optional<TemplateWrapper> templateOpt = cache.getCachedTemplates().stream()
-                        .filter(t -> t.getName().equalsIgnoreCase(set.getTemplateName()) || t.getDprId().equals(set.getTemplateId()))
-                        .findFirst();
+                Optional<TemplateWrapper> templateOpt = findTemplateForSet(cache.getCachedTemplates(), set);
                 if(templateOpt.isPresent() && _runtimeParameters.supportsDataExchangeSet(set))
                 {
                     TemplateWrapper template = templateOpt.get();
-                    boolean alreadyCached = !cache.getCachedTemplateToMeasures().get(template).isEmpty();
+                    boolean alreadyCached = !cache.getCachedMeasures(template).isEmpty();
                     List<MeasureWrapper> measures;
                     if(!alreadyCached)
                     {
-                        measures = _merlinDataAccess.getMeasurementsByTemplate(connectionInfo, token, template);
+                        measures = serverCatalog.getMeasures(template);
                         cache.cacheMeasures(template, measures);
                     }
                     else
                     {
-                        measures = cache.getCachedTemplateToMeasures().get(template);
+                        measures = cache.getCachedMeasures(template);
                     }
                     _completionTracker.addNumberOfMeasuresToComplete(measures.size());
                 }
@@ -17,6 +17,8 @@ public final class MerlinDataExchangeEngineBuilder implements FluentBuilderDataE
     private List<Path> _configurationFiles = new ArrayList<>();
     private MerlinParameters _runtimeParameters;
     private ProgressListener _progressListener;
+    private boolean _resume;
+    private boolean _incremental;
 
     @Override
     public FluentBuilderDataExchangeParameters withConfigurationFiles(List<Path> configurationFiles)
@@ -52,10 +54,24 @@ public final class MerlinDataExchangeEngineBuilder implements FluentBuilderDataE
 
     private class FluentMerlinBuilderImpl implements FluentEngineBuilder
     {
+        @Override
+        public FluentEngineBuilder withResume(boolean resume)
+        {
+            _resume = resume;
+            return this;
+        }
+
+        @Override
+        public FluentEngineBuilder withIncremental(boolean incremental)
+        {
+            _incremental = incremental;
+            return this;
+        }
+
         @Override
         public DataExchangeEngine build()
         {
-            return new MerlinDataExchangeEngine(_configurationFiles, _runtimeParameters, _progressListener);
+            return new MerlinDataExchangeEngine(_configurationFiles, _runtimeParameters, _progressListener, _resume, _incremental);
         }
     }
 }
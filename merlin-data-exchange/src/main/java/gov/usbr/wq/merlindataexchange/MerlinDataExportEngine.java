@@ -69,7 +69,8 @@ public class MerlinDataExportEngine extends MerlinEngine implements DataExportEn
                 LOGGER.log(Level.SEVERE, "Error exporting data", e);
                 return MerlinDataExchangeStatus.FAILURE;
             }
-        });
+        }, getOrchestrationExecutorService())
+                .whenComplete((status, e) -> shutdownExecutors());
 
     }
 
@@ -1,32 +1,73 @@
 package gov.usbr.wq.merlindataexchange;
 
+import gov.usbr.wq.merlindataexchange.io.DataExchangeExecutors;
+
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public abstract class MerlinEngine
+/**
+ * Base of the engines, owning the executors their extracts and exports run on. The executors are created when a run first needs them
+ * and shut down when that run finishes, so an engine holds no threads between runs. Closing the engine shuts down the executors of a run
+ * still in progress.
+ */
+public abstract class MerlinEngine implements AutoCloseable
 {
     private static Logger LOGGER = Logger.getLogger(MerlinEngine.class.getName());
     private static final int THREAD_COUNT = 5;
     private static final String THREAD_PROPERTY_KEY = "merlin.engine.threadpool.size";
-    private final ExecutorService _executorService = Executors.newFixedThreadPool(MerlinEngine.getThreadPoolSize(), new MerlinThreadFactory());
+    public static final String FETCH_THREAD_PROPERTY_KEY = "merlin.engine.threadpool.fetch.size";
+    public static final String CONVERT_THREAD_PROPERTY_KEY = "merlin.engine.threadpool.convert.size";
+    public static final String WRITE_THREAD_PROPERTY_KEY = "merlin.engine.threadpool.write.size";
+    //runs the engine's own run/export futures, which block while they wait on the data exchange pools
+    private ExecutorService _orchestrationExecutorService;
+    private DataExchangeExecutors _dataExchangeExecutors;
 
-    private static int getThreadPoolSize()
+    private static int getFetchThreadPoolSize()
     {
         int retVal;
         //availableProcessors gives us logical cores, which includes hyperthreading stuff.  We can't determine if hyperthreading is on, so let's always halve the available processors.
         //Let's make sure we don't go lower than 1 by using Math.max.  1 / 2 = 0 in integer values, so this could be bad...
-        String threadPoolSize = System.getProperty(THREAD_PROPERTY_KEY);
+        String threadPoolSize = System.getProperty(FETCH_THREAD_PROPERTY_KEY, System.getProperty(THREAD_PROPERTY_KEY));
         if (threadPoolSize != null)
         {
             retVal = Math.max(Integer.parseInt(threadPoolSize), 1);
-            LOGGER.log(Level.FINE, () -> "Merlin executor service created using System Property " + THREAD_PROPERTY_KEY + " with thread pool size of: " + retVal);
+            LOGGER.log(Level.FINE, () -> "Merlin fetch executor service created using System Property " + FETCH_THREAD_PROPERTY_KEY + " (or " + THREAD_PROPERTY_KEY
+                    + ") with thread pool size of: " + retVal);
         } else
         {
             int coreCount = Math.max(MerlinEngine.getCoreCount(), 1);
             retVal = THREAD_COUNT * coreCount; //5 should cover bases for concurrent merlin web data retrieval?
-            LOGGER.log(Level.FINE, () -> "System Property " + THREAD_PROPERTY_KEY + " not set. Merlin executor service created using default thread pool size of: " + retVal);
+            LOGGER.log(Level.FINE, () -> "System Properties " + FETCH_THREAD_PROPERTY_KEY + " and " + THREAD_PROPERTY_KEY
+                    + " not set. Merlin fetch executor service created using default thread pool size of: " + retVal);
+        }
+        return retVal;
+    }
+
+    private static int getConvertThreadPoolSize()
+    {
+        //conversion is CPU bound, so one thread per logical core
+        return getThreadPoolSize(CONVERT_THREAD_PROPERTY_KEY, Math.max(Runtime.getRuntime().availableProcessors(), 1), "convert");
+    }
+
+    private static int getWriteThreadPoolSize()
+    {
+        return getThreadPoolSize(WRITE_THREAD_PROPERTY_KEY, Math.max(MerlinEngine.getCoreCount(), 1), "write");
+    }
+
+    private static int getThreadPoolSize(String propertyKey, int defaultSize, String poolName)
+    {
+        int retVal;
+        String threadPoolSize = System.getProperty(propertyKey);
+        if (threadPoolSize != null)
+        {
+            retVal = Math.max(Integer.parseInt(threadPoolSize), 1);
+            LOGGER.log(Level.FINE, () -> "Merlin " + poolName + " executor service created using System Property " + propertyKey + " with thread pool size of: " + retVal);
+        } else
+        {
+            retVal = defaultSize;
+            LOGGER.log(Level.FINE, () -> "System Property " + propertyKey + " not set. Merlin " + poolName + " executor service created using default thread pool size of: " + retVal);
         }
         return retVal;
     }
@@ -36,8 +77,59 @@ public abstract class MerlinEngine
         return Runtime.getRuntime().availableProcessors() / 2;
     }
 
+    /**
+     * @return executor for network (Merlin) I/O
+     */
     protected ExecutorService getExecutorService()
     {
-        return _executorService;
+        return getDataExchangeExecutors().getFetchExecutor();
+    }
+
+    protected synchronized ExecutorService getOrchestrationExecutorService()
+    {
+        if(_orchestrationExecutorService == null)
+        {
+            //runs are one at a time per engine, so a single thread is all the orchestration needs
+            _orchestrationExecutorService = Executors.newSingleThreadExecutor(new MerlinThreadFactory("engine"));
+        }
+        return _orchestrationExecutorService;
+    }
+
+    protected synchronized DataExchangeExecutors getDataExchangeExecutors()
+    {
+        if(_dataExchangeExecutors == null)
+        {
+            _dataExchangeExecutors = new DataExchangeExecutors(getFetchThreadPoolSize(), getConvertThreadPoolSize(), getWriteThreadPoolSize(),
+                    new MerlinThreadFactory("fetch"), new MerlinThreadFactory("convert"), new MerlinThreadFactory("write"));
+        }
+        return _dataExchangeExecutors;
+    }
+
+    protected int getThreadPoolCount()
+    {
+        return getDataExchangeExecutors().getFetchPoolSize();
+    }
+
+    /**
+     * Shuts down the executors of the current run. Tasks already submitted still finish, and the next run creates new executors.
+     */
+    protected synchronized void shutdownExecutors()
+    {
+        if(_dataExchangeExecutors != null)
+        {
+            _dataExchangeExecutors.shutdown();
+            _dataExchangeExecutors = null;
+        }
+        if(_orchestrationExecutorService != null)
+        {
+            _orchestrationExecutorService.shutdown();
+            _orchestrationExecutorService = null;
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        shutdownExecutors();
     }
 }
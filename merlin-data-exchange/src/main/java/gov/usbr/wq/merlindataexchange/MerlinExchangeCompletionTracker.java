@@ -7,10 +7,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 public final class MerlinExchangeCompletionTracker
 {
     private static final int TASKS_TO_PERFORM_PER_MEASURE = 2; //1 for read and 1 for write
-    private int _numberOfMeasuresToComplete;
+    private final AtomicInteger _numberOfMeasuresToComplete = new AtomicInteger(0);
     private final int _percentCompleteBeforeReadAndWrite;
     private final AtomicInteger _totalCompleted = new AtomicInteger(0);
     private int _writesCompleted = 0;
+    private final AtomicInteger _writesUnchanged = new AtomicInteger(0);
     private final CloseableReentrantLock _lock = new CloseableReentrantLock();
 
     public MerlinExchangeCompletionTracker(int percentCompleteBeforeReadAndWrite)
@@ -20,7 +21,7 @@ public final class MerlinExchangeCompletionTracker
 
     public void addNumberOfMeasuresToComplete(int numberToAdd)
     {
-        _numberOfMeasuresToComplete += numberToAdd;
+        _numberOfMeasuresToComplete.addAndGet(numberToAdd);
     }
 
     public int readWriteTaskCompleted()
@@ -28,7 +29,7 @@ public final class MerlinExchangeCompletionTracker
         try(CloseableReentrantLock lock = _lock.lockIt())
         {
             int total = _totalCompleted.incrementAndGet();
-            int totalNumOfTasksToBeCompleted = _numberOfMeasuresToComplete * TASKS_TO_PERFORM_PER_MEASURE;
+            int totalNumOfTasksToBeCompleted = _numberOfMeasuresToComplete.get() * TASKS_TO_PERFORM_PER_MEASURE;
             int weightForReadWriteTasks = 100 - _percentCompleteBeforeReadAndWrite;
             int weightedCompletedPercentage = (int) (weightForReadWriteTasks * ((double) total /totalNumOfTasksToBeCompleted)); //convert to percentage int
             return weightedCompletedPercentage + _percentCompleteBeforeReadAndWrite;
@@ -40,10 +41,23 @@ public final class MerlinExchangeCompletionTracker
         _writesCompleted ++;
     }
 
+    /**
+     * Counts a write that was skipped because the destination already holds the same data. Skipped writes are also counted as completed.
+     */
+    public void writeTaskUnchanged()
+    {
+        _writesUnchanged.incrementAndGet();
+    }
+
+    public int getUnchangedWriteCount()
+    {
+        return _writesUnchanged.get();
+    }
+
     public MerlinDataExchangeStatus getCompletionStatus()
     {
         MerlinDataExchangeStatus retVal = MerlinDataExchangeStatus.FAILURE;
-        int totalNumOfTasksToBeCompleted= _numberOfMeasuresToComplete * TASKS_TO_PERFORM_PER_MEASURE;
+        int totalNumOfTasksToBeCompleted= _numberOfMeasuresToComplete.get() * TASKS_TO_PERFORM_PER_MEASURE;
         if(_totalCompleted.get() == totalNumOfTasksToBeCompleted)
         {
             retVal = MerlinDataExchangeStatus.COMPLETE_SUCCESS;
@@ -57,8 +71,9 @@ public final class MerlinExchangeCompletionTracker
 
     public void reset()
     {
-        _numberOfMeasuresToComplete = 0;
+        _numberOfMeasuresToComplete.set(0);
         _writesCompleted = 0;
+        _writesUnchanged.set(0);
         _totalCompleted.set(0);
     }
 
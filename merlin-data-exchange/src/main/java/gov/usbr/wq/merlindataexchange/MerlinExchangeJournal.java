@@ -0,0 +1,123 @@
+package gov.usbr.wq.merlindataexchange;
+
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+import gov.usbr.wq.merlindataexchange.configuration.DataExchangeSet;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent record of the (set, measure, time window) units of a configuration that were written to their destination.
+ * The journal sits next to the configuration's log file. A resumed extract skips the units recorded here,
+ * while a regular extract starts a new journal.
+ */
+final class MerlinExchangeJournal
+{
+    private static final Logger LOGGER = Logger.getLogger(MerlinExchangeJournal.class.getName());
+    static final String JOURNAL_EXTENSION = ".journal";
+    private static final String DELIMITER = "\t";
+    private static final String NO_TIME = "NULL";
+    private final Path _journalFile;
+    private final Set<String> _completedUnits = new HashSet<>();
+    private BufferedWriter _writer;
+
+    private MerlinExchangeJournal(Path journalFile)
+    {
+        _journalFile = journalFile;
+    }
+
+    /**
+     * Opens the journal for a configuration.
+     * @param journalFile - file backing the journal
+     * @param resume - true to keep the units recorded by earlier runs, false to start a new journal
+     * @return opened journal. If the file can't be opened the journal still works for this run, it just isn't persisted.
+     */
+    static MerlinExchangeJournal open(Path journalFile, boolean resume)
+    {
+        MerlinExchangeJournal retVal = new MerlinExchangeJournal(journalFile);
+        try
+        {
+            if(resume && Files.exists(journalFile))
+            {
+                List<String> lines = Files.readAllLines(journalFile, StandardCharsets.UTF_8);
+                retVal._completedUnits.addAll(lines);
+                LOGGER.log(Level.FINE, () -> "Resuming with " + lines.size() + " completed units from journal: " + journalFile);
+                retVal._writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            }
+            else
+            {
+                retVal._writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8);
+            }
+        }
+        catch (IOException e)
+        {
+            LOGGER.log(Level.WARNING, e, () -> "Failed to open journal file: " + journalFile + ". Progress of this extract will not be resumable.");
+        }
+        return retVal;
+    }
+
+    synchronized boolean isCompleted(DataExchangeSet set, MeasureWrapper measure, Instant start, Instant end)
+    {
+        return _completedUnits.contains(buildUnitKey(set, measure, start, end));
+    }
+
+    synchronized void recordCompleted(DataExchangeSet set, MeasureWrapper measure, Instant start, Instant end)
+    {
+        String unitKey = buildUnitKey(set, measure, start, end);
+        if(_completedUnits.add(unitKey) && _writer != null)
+        {
+            try
+            {
+                _writer.write(unitKey);
+                _writer.newLine();
+                //flushed per unit so an abrupt exit loses at most the unit being written
+                _writer.flush();
+            }
+            catch (IOException e)
+            {
+                LOGGER.log(Level.WARNING, e, () -> "Failed to record " + measure.getSeriesString() + " in journal file: " + _journalFile);
+            }
+        }
+    }
+
+    synchronized void close()
+    {
+        if(_writer != null)
+        {
+            try
+            {
+                _writer.close();
+            }
+            catch (IOException e)
+            {
+                LOGGER.log(Level.WARNING, e, () -> "Failed to close journal file: " + _journalFile);
+            }
+            _writer = null;
+        }
+    }
+
+    Path getJournalFile()
+    {
+        return _journalFile;
+    }
+
+    private static String buildUnitKey(DataExchangeSet set, MeasureWrapper measure, Instant start, Instant end)
+    {
+        return set.getId() + DELIMITER + measure.getSeriesString() + DELIMITER + formatTime(start) + DELIMITER + formatTime(end);
+    }
+
+    private static String formatTime(Instant time)
+    {
+        return time == null ? NO_TIME : time.toString();
+    }
+}
@@ -0,0 +1,364 @@
+package gov.usbr.wq.merlindataexchange;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Run-wide scheduler for measure exchange tasks. Every (configuration, set, measure) task of a run is submitted up front,
+ * and tasks are dispatched as soon as a slot frees up, so a slow measure in one set never holds back the sets behind it.
+ * Dispatching is non-blocking: a task occupies a slot from the moment its future is created until that future completes.
+ * The order pending tasks are dispatched in is set by a {@link SchedulingPolicy}. By default the most expensive tasks go first,
+ * so a long series queued near the end of a run doesn't set the run's total time.
+ * Tasks are also admitted against a heap budget: a task is only dispatched while the estimated bytes of the running tasks plus its own
+ * fit in the budget, so many long series in flight at once don't exhaust the heap. A task is always dispatched when nothing else is running,
+ * even if it alone exceeds the budget.
+ */
+final class MerlinExchangeScheduler
+{
+    private static final Logger LOGGER = Logger.getLogger(MerlinExchangeScheduler.class.getName());
+    static final String MAX_CONCURRENT_TASKS_PROPERTY_KEY = "merlin.dataexchange.scheduler.maxconcurrent";
+    static final String POLICY_PROPERTY_KEY = "merlin.dataexchange.scheduler.policy";
+    static final String HEAP_BUDGET_MB_PROPERTY_KEY = "merlin.dataexchange.scheduler.heapbudget.mb";
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final Object DEFAULT_GROUP = new Object();
+    private final int _maxConcurrentTasks;
+    private final SchedulingPolicy _policy;
+    private final long _heapBudgetBytes;
+    private final AtomicBoolean _isCancelled;
+    //groups are only used by FAIR_SHARE, the other policies keep every task in DEFAULT_GROUP
+    private final Map<Object, PriorityQueue<ScheduledTask>> _pendingTasksByGroup = new LinkedHashMap<>();
+    private final Map<Object, Long> _dispatchedCostByGroup = new HashMap<>();
+    private final AtomicInteger _dispatchRequests = new AtomicInteger(0);
+    private int _runningTasks;
+    private long _admittedBytes;
+    private long _peakAdmittedBytes;
+    private long _submittedTasks;
+    private boolean _started;
+
+    /**
+     * Order in which pending tasks are dispatched.
+     */
+    enum SchedulingPolicy
+    {
+        /**
+         * Tasks run in the order they were submitted.
+         */
+        SUBMISSION_ORDER,
+        /**
+         * Tasks with the highest estimated cost run first.
+         */
+        LONGEST_FIRST,
+        /**
+         * Tasks are grouped (one group per data exchange set) and the next task comes from the group that has had the least cost dispatched so far.
+         * Within a group, tasks with the highest estimated cost run first.
+         */
+        FAIR_SHARE
+    }
+
+    MerlinExchangeScheduler(int defaultMaxConcurrentTasks, AtomicBoolean isCancelled)
+    {
+        _maxConcurrentTasks = getMaxConcurrentTasks(defaultMaxConcurrentTasks);
+        _policy = getSchedulingPolicy();
+        _heapBudgetBytes = getConfiguredHeapBudgetBytes();
+        _isCancelled = isCancelled;
+    }
+
+    private static long getConfiguredHeapBudgetBytes()
+    {
+        long retVal;
+        String heapBudget = System.getProperty(HEAP_BUDGET_MB_PROPERTY_KEY);
+        long defaultHeapBudget = Runtime.getRuntime().maxMemory() / 2;
+        if(heapBudget != null)
+        {
+            try
+            {
+                retVal = Math.max(Long.parseLong(heapBudget.trim()), 1) * BYTES_PER_MB;
+                long usedBudget = retVal;
+                LOGGER.log(Level.FINE, () -> "Merlin exchange scheduler created using System Property " + HEAP_BUDGET_MB_PROPERTY_KEY
+                        + " with heap budget of: " + usedBudget / BYTES_PER_MB + " MB");
+            }
+            catch (NumberFormatException e)
+            {
+                retVal = defaultHeapBudget;
+                LOGGER.log(Level.WARNING, e, () -> "Invalid value for System Property " + HEAP_BUDGET_MB_PROPERTY_KEY + ": " + heapBudget
+                        + ". Merlin exchange scheduler created using default heap budget of: " + defaultHeapBudget / BYTES_PER_MB + " MB");
+            }
+        }
+        else
+        {
+            retVal = defaultHeapBudget;
+            LOGGER.log(Level.FINE, () -> "System Property " + HEAP_BUDGET_MB_PROPERTY_KEY
+                    + " not set. Merlin exchange scheduler created using default heap budget of: " + defaultHeapBudget / BYTES_PER_MB + " MB");
+        }
+        return retVal;
+    }
+
+    private static SchedulingPolicy getSchedulingPolicy()
+    {
+        SchedulingPolicy retVal = SchedulingPolicy.LONGEST_FIRST;
+        String policy = System.getProperty(POLICY_PROPERTY_KEY);
+        if(policy != null)
+        {
+            try
+            {
+                retVal = SchedulingPolicy.valueOf(policy.trim().toUpperCase());
+                SchedulingPolicy usedPolicy = retVal;
+                LOGGER.log(Level.FINE, () -> "Merlin exchange scheduler created using System Property " + POLICY_PROPERTY_KEY
+                        + " with scheduling policy of: " + usedPolicy);
+            }
+            catch (IllegalArgumentException e)
+            {
+                LOGGER.log(Level.WARNING, e, () -> "Invalid value for System Property " + POLICY_PROPERTY_KEY + ": " + policy
+                        + ". Merlin exchange scheduler created using default scheduling policy of: " + SchedulingPolicy.LONGEST_FIRST);
+            }
+        }
+        else
+        {
+            LOGGER.log(Level.FINE, () -> "System Property " + POLICY_PROPERTY_KEY
+                    + " not set. Merlin exchange scheduler created using default scheduling policy of: " + SchedulingPolicy.LONGEST_FIRST);
+        }
+        return retVal;
+    }
+
+    private static int getMaxConcurrentTasks(int defaultMaxConcurrentTasks)
+    {
+        int retVal;
+        String maxConcurrentTasks = System.getProperty(MAX_CONCURRENT_TASKS_PROPERTY_KEY);
+        if(maxConcurrentTasks != null)
+        {
+            retVal = Math.max(Integer.parseInt(maxConcurrentTasks), 1);
+            LOGGER.log(Level.FINE, () -> "Merlin exchange scheduler created using System Property " + MAX_CONCURRENT_TASKS_PROPERTY_KEY
+                    + " with max concurrent tasks of: " + retVal);
+        }
+        else
+        {
+            retVal = Math.max(defaultMaxConcurrentTasks, 1);
+            LOGGER.log(Level.FINE, () -> "System Property " + MAX_CONCURRENT_TASKS_PROPERTY_KEY
+                    + " not set. Merlin exchange scheduler created using default max concurrent tasks of: " + retVal);
+        }
+        return retVal;
+    }
+
+    /**
+     * Queues a task with no cost estimate. The supplier is not invoked until the scheduler has been started and a slot is available.
+     * @param task creates the future for the exchange work; invoked at most once
+     * @return future completed when the task's own future completes, or immediately if the run is cancelled before dispatch
+     */
+    CompletableFuture<Void> submit(Supplier<CompletableFuture<Void>> task)
+    {
+        return submit(task, 0L, 0L, DEFAULT_GROUP);
+    }
+
+    /**
+     * Queues a task with no heap estimate. The supplier is not invoked until the scheduler has been started and a slot is available.
+     * @see #submit(Supplier, long, long, Object)
+     */
+    CompletableFuture<Void> submit(Supplier<CompletableFuture<Void>> task, long estimatedCost, Object group)
+    {
+        return submit(task, estimatedCost, 0L, group);
+    }
+
+    /**
+     * Queues a task. The supplier is not invoked until the scheduler has been started and a slot is available.
+     * @param task creates the future for the exchange work; invoked at most once
+     * @param estimatedCost relative cost of the task, used to order dispatch
+     * @param estimatedBytes heap the task is estimated to hold while it runs, counted against the heap budget
+     * @param group tasks sharing a group share a slice of the scheduler under {@link SchedulingPolicy#FAIR_SHARE}
+     * @return future completed when the task's own future completes, or immediately if the run is cancelled before dispatch
+     */
+    CompletableFuture<Void> submit(Supplier<CompletableFuture<Void>> task, long estimatedCost, long estimatedBytes, Object group)
+    {
+        Object groupKey = _policy == SchedulingPolicy.FAIR_SHARE ? group : DEFAULT_GROUP;
+        CompletableFuture<Void> retVal;
+        synchronized (this)
+        {
+            ScheduledTask scheduledTask = new ScheduledTask(task, estimatedCost, estimatedBytes, _submittedTasks++);
+            _pendingTasksByGroup.computeIfAbsent(groupKey, k -> new PriorityQueue<>(getTaskComparator())).add(scheduledTask);
+            retVal = scheduledTask._result;
+        }
+        dispatch();
+        return retVal;
+    }
+
+    private Comparator<ScheduledTask> getTaskComparator()
+    {
+        Comparator<ScheduledTask> submissionOrder = Comparator.comparingLong(t -> t._sequence);
+        Comparator<ScheduledTask> retVal = submissionOrder;
+        if(_policy != SchedulingPolicy.SUBMISSION_ORDER)
+        {
+            retVal = Comparator.<ScheduledTask>comparingLong(t -> t._estimatedCost).reversed().thenComparing(submissionOrder);
+        }
+        return retVal;
+    }
+
+    void start()
+    {
+        synchronized (this)
+        {
+            _started = true;
+        }
+        dispatch();
+    }
+
+    //used by tests to check the configured policy
+    SchedulingPolicy getPolicy()
+    {
+        return _policy;
+    }
+
+    long getHeapBudgetBytes()
+    {
+        return _heapBudgetBytes;
+    }
+
+    /**
+     * Used by tests to check admission against the heap budget.
+     * @return estimated heap held by the tasks currently running
+     */
+    synchronized long getAdmittedBytes()
+    {
+        return _admittedBytes;
+    }
+
+    synchronized long getPeakAdmittedBytes()
+    {
+        return _peakAdmittedBytes;
+    }
+
+    /**
+     * Dispatches as many pending tasks as there are free slots. Re-entrant calls (e.g. a task whose future is already complete
+     * releasing its slot during dispatch) are folded into the outer loop instead of recursing.
+     */
+    private void dispatch()
+    {
+        if(_dispatchRequests.getAndIncrement() != 0)
+        {
+            return;
+        }
+        int missed = 1;
+        do
+        {
+            ScheduledTask next = nextTaskToRun();
+            while(next != null)
+            {
+                next.run();
+                next = nextTaskToRun();
+            }
+            missed = _dispatchRequests.addAndGet(-missed);
+        }
+        while(missed != 0);
+    }
+
+    /**
+     * The next task in policy order waits for running tasks to free up heap rather than being passed over by smaller tasks,
+     * so a large measure is never starved.
+     */
+    private synchronized ScheduledTask nextTaskToRun()
+    {
+        ScheduledTask retVal = null;
+        if(_started && _runningTasks < _maxConcurrentTasks && !_pendingTasksByGroup.isEmpty())
+        {
+            Object group = nextGroupToRun();
+            PriorityQueue<ScheduledTask> groupTasks = _pendingTasksByGroup.get(group);
+            if(_runningTasks == 0 || _admittedBytes + groupTasks.peek()._estimatedBytes <= _heapBudgetBytes)
+            {
+                retVal = groupTasks.poll();
+                if(groupTasks.isEmpty())
+                {
+                    _pendingTasksByGroup.remove(group);
+                }
+                _dispatchedCostByGroup.merge(group, retVal._estimatedCost, Long::sum);
+                _runningTasks++;
+                _admittedBytes += retVal._estimatedBytes;
+                _peakAdmittedBytes = Math.max(_peakAdmittedBytes, _admittedBytes);
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return group with the least cost dispatched so far, ties going to the group whose next task was submitted first
+     */
+    private Object nextGroupToRun()
+    {
+        Object retVal = null;
+        long retValCost = Long.MAX_VALUE;
+        long retValSequence = Long.MAX_VALUE;
+        for(Map.Entry<Object, PriorityQueue<ScheduledTask>> entry : _pendingTasksByGroup.entrySet())
+        {
+            long dispatchedCost = _dispatchedCostByGroup.getOrDefault(entry.getKey(), 0L);
+            long sequence = entry.getValue().peek()._sequence;
+            if(dispatchedCost < retValCost || (dispatchedCost == retValCost && sequence < retValSequence))
+            {
+                retVal = entry.getKey();
+                retValCost = dispatchedCost;
+                retValSequence = sequence;
+            }
+        }
+        return retVal;
+    }
+
+    private void taskFinished(long estimatedBytes)
+    {
+        synchronized (this)
+        {
+            _runningTasks--;
+            _admittedBytes -= estimatedBytes;
+        }
+        dispatch();
+    }
+
+    private final class ScheduledTask
+    {
+        private final Supplier<CompletableFuture<Void>> _task;
+        private final long _estimatedCost;
+        private final long _estimatedBytes;
+        private final long _sequence;
+        private final CompletableFuture<Void> _result = new CompletableFuture<>();
+
+        private ScheduledTask(Supplier<CompletableFuture<Void>> task, long estimatedCost, long estimatedBytes, long sequence)
+        {
+            _task = task;
+            _estimatedCost = Math.max(estimatedCost, 0L);
+            _estimatedBytes = Math.max(estimatedBytes, 0L);
+            _sequence = sequence;
+        }
+
+        private void run()
+        {
+            CompletableFuture<Void> taskFuture;
+            try
+            {
+                taskFuture = _isCancelled.get() ? CompletableFuture.completedFuture(null) : _task.get();
+            }
+            catch (RuntimeException e)
+            {
+                taskFuture = new CompletableFuture<>();
+                taskFuture.completeExceptionally(e);
+            }
+            taskFuture.whenComplete(this::complete);
+        }
+
+        private void complete(Void result, Throwable error)
+        {
+            taskFinished(_estimatedBytes);
+            if(error != null)
+            {
+                _result.completeExceptionally(error);
+            }
+            else
+            {
+                _result.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package gov.usbr.wq.merlindataexchange;
+
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+import gov.usbr.wq.merlindataexchange.configuration.DataExchangeSet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent record of the time of the last event written for each (source, series, quality version, destination) of a configuration.
+ * The file sits next to the configuration's log file and is updated by every extract, so an incremental extract can start each measure
+ * from its last written event instead of the start of the run's time window.
+ */
+final class MerlinHighWaterMarks
+{
+    private static final Logger LOGGER = Logger.getLogger(MerlinHighWaterMarks.class.getName());
+    static final String HIGH_WATER_MARKS_EXTENSION = ".highwatermarks";
+    static final String OVERLAP_MINUTES_PROPERTY_KEY = "merlin.dataexchange.incremental.overlap.minutes";
+    private static final long DEFAULT_OVERLAP_MINUTES = Duration.ofDays(1).toMinutes();
+    private static final String DELIMITER = "|";
+    private final Path _highWaterMarksFile;
+    private final Properties _highWaterMarks = new Properties();
+    private boolean _modified;
+
+    private MerlinHighWaterMarks(Path highWaterMarksFile)
+    {
+        _highWaterMarksFile = highWaterMarksFile;
+    }
+
+    static MerlinHighWaterMarks open(Path highWaterMarksFile)
+    {
+        MerlinHighWaterMarks retVal = new MerlinHighWaterMarks(highWaterMarksFile);
+        if(Files.isRegularFile(highWaterMarksFile))
+        {
+            try(InputStream inputStream = Files.newInputStream(highWaterMarksFile))
+            {
+                retVal._highWaterMarks.load(inputStream);
+            }
+            catch (IOException e)
+            {
+                LOGGER.log(Level.WARNING, e, () -> "Failed to read high water marks file: " + highWaterMarksFile + ". Measures will be extracted from the start of the time window.");
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return time of the last event written for the measure, or null if nothing has been written for it
+     */
+    synchronized Instant getHighWaterMark(String sourcePath, DataExchangeSet set, MeasureWrapper measure, String destinationPath)
+    {
+        Instant retVal = null;
+        String highWaterMark = _highWaterMarks.getProperty(buildKey(sourcePath, set, measure, destinationPath));
+        if(highWaterMark != null)
+        {
+            try
+            {
+                retVal = Instant.parse(highWaterMark);
+            }
+            catch (DateTimeParseException e)
+            {
+                LOGGER.log(Level.WARNING, e, () -> "Invalid high water mark for " + measure.getSeriesString() + " in: " + _highWaterMarksFile);
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Moves the measure's high water mark forward to the given event time. Earlier times are ignored, so rewriting old data never moves it back.
+     */
+    synchronized void recordWritten(String sourcePath, DataExchangeSet set, MeasureWrapper measure, String destinationPath, Instant lastEventTime)
+    {
+        if(lastEventTime != null)
+        {
+            String key = buildKey(sourcePath, set, measure, destinationPath);
+            String highWaterMark = _highWaterMarks.getProperty(key);
+            if(highWaterMark == null || isAfter(lastEventTime, highWaterMark))
+            {
+                _highWaterMarks.setProperty(key, lastEventTime.toString());
+                _modified = true;
+            }
+        }
+    }
+
+    synchronized void save()
+    {
+        if(_modified)
+        {
+            try
+            {
+                Path tempFile = Files.createTempFile(_highWaterMarksFile.toAbsolutePath().getParent(), _highWaterMarksFile.getFileName().toString(), ".tmp");
+                try
+                {
+                    try(OutputStream outputStream = Files.newOutputStream(tempFile))
+                    {
+                        _highWaterMarks.store(outputStream, "Last event written per source, series, quality version and destination");
+                    }
+                    moveIntoPlace(tempFile, _highWaterMarksFile);
+                }
+                finally
+                {
+                    Files.deleteIfExists(tempFile);
+                }
+                _modified = false;
+            }
+            catch (IOException e)
+            {
+                LOGGER.log(Level.WARNING, e, () -> "Failed to save high water marks file: " + _highWaterMarksFile);
+            }
+        }
+    }
+
+    Path getHighWaterMarksFile()
+    {
+        return _highWaterMarksFile;
+    }
+
+    private static boolean isAfter(Instant lastEventTime, String highWaterMark)
+    {
+        boolean retVal = true;
+        try
+        {
+            retVal = lastEventTime.isAfter(Instant.parse(highWaterMark));
+        }
+        catch (DateTimeParseException e)
+        {
+            LOGGER.log(Level.FINE, e, () -> "Replacing invalid high water mark: " + highWaterMark);
+        }
+        return retVal;
+    }
+
+    private static void moveIntoPlace(Path tempFile, Path highWaterMarksFile) throws IOException
+    {
+        try
+        {
+            Files.move(tempFile, highWaterMarksFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(tempFile, highWaterMarksFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String buildKey(String sourcePath, DataExchangeSet set, MeasureWrapper measure, String destinationPath)
+    {
+        String qualityVersion = set.getQualityVersionName() == null ? String.valueOf(set.getQualityVersionId()) : set.getQualityVersionName();
+        return sourcePath + DELIMITER + measure.getSeriesString() + DELIMITER + qualityVersion + DELIMITER + destinationPath;
+    }
+
+    /**
+     * @return how far before the high water mark an incremental extract starts, so revisions of recent data are picked up
+     */
+    static Duration getOverlap()
+    {
+        String overlapString = System.getProperty(OVERLAP_MINUTES_PROPERTY_KEY);
+        long overlapMinutes = DEFAULT_OVERLAP_MINUTES;
+        if(overlapString != null)
+        {
+            try
+            {
+                overlapMinutes = Math.max(Long.parseLong(overlapString.trim()), 0);
+                LOGGER.log(Level.FINE, () -> "Incremental extract overlap using System Property " + OVERLAP_MINUTES_PROPERTY_KEY + " with " + overlapString + " minutes");
+            }
+            catch (NumberFormatException e)
+            {
+                LOGGER.log(Level.WARNING, e, () -> "Invalid value for System Property " + OVERLAP_MINUTES_PROPERTY_KEY + ": " + overlapString
+                        + ". Defaulting to " + DEFAULT_OVERLAP_MINUTES + " minutes");
+            }
+        }
+        else
+        {
+            LOGGER.log(Level.FINE, () -> "System Property " + OVERLAP_MINUTES_PROPERTY_KEY + " not set. Incremental extract overlap defaulting to "
+                    + DEFAULT_OVERLAP_MINUTES + " minutes");
+        }
+        return Duration.ofMinutes(overlapMinutes);
+    }
+}
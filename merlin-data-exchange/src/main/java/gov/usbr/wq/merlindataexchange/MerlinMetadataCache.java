@@ -0,0 +1,413 @@
+package gov.usbr.wq.merlindataexchange;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import gov.usbr.wq.dataaccess.http.ApiConnectionInfo;
+import gov.usbr.wq.dataaccess.json.Measure;
+import gov.usbr.wq.dataaccess.json.QualityVersions;
+import gov.usbr.wq.dataaccess.json.Template;
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+import gov.usbr.wq.dataaccess.model.QualityVersionWrapper;
+import gov.usbr.wq.dataaccess.model.TemplateWrapper;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Disk-backed cache of the metadata retrieved from each Merlin server (templates, quality versions and template measure catalogs).
+ * Entries are stored as one JSON file per server in the directory given by System Property {@value #CACHE_DIRECTORY_PROPERTY_KEY},
+ * and expire after a configurable time to live. Nothing is cached unless the directory is set.
+ * Measure catalogs are only stored for the templates that have been extracted, other templates are fetched from the server when first needed.
+ * Entries hold what the exchange reads from each wrapper's getters, under the property names of the Merlin json object the wrapper is built from,
+ * so they read back into the same wrappers. Servers whose metadata doesn't read back the same are not cached.
+ */
+public final class MerlinMetadataCache
+{
+    private static final Logger LOGGER = Logger.getLogger(MerlinMetadataCache.class.getName());
+    public static final String CACHE_DIRECTORY_PROPERTY_KEY = "merlin.dataexchange.metadata.cache.directory";
+    public static final String CACHE_TTL_MINUTES_PROPERTY_KEY = "merlin.dataexchange.metadata.cache.ttl.minutes";
+    private static final long DEFAULT_TTL_MINUTES = 60;
+    private static final String CACHE_FILE_EXTENSION = ".json";
+    //entries written in any other format are treated as expired
+    private static final int FORMAT_VERSION = 3;
+    private static final String FORMAT = "format";
+    static final String SAVED_AT = "savedAt";
+    private static final String API_ROOT = "apiRoot";
+    private static final String TEMPLATES = "templates";
+    private static final String QUALITY_VERSIONS = "qualityVersions";
+    private static final String TEMPLATE_MEASURES = "templateMeasures";
+    private static final String TEMPLATE_ID = "templateId";
+    private static final String MEASURES = "measures";
+    //names of the Merlin json properties each wrapper is built from
+    private static final String TEMPLATE_NAME = "name";
+    private static final String TEMPLATE_DPR_ID = "dprID";
+    private static final String QUALITY_VERSION_NAME = "qualityVersionName";
+    private static final String QUALITY_VERSION_ID = "qualityVersionID";
+    private static final String MEASURE_SERIES_STRING = "seriesString";
+    private static final String MEASURE_TYPE = "type";
+    private static final String MEASURE_TYPE_ID = "typeId";
+    private static final String MEASURE_IS_PROCESSED = "isProcessed";
+    private static final String MEASURE_PARAMETER = "parameter";
+    private static final String MEASURE_TIME_ZONE = "timeZone";
+    private final ObjectMapper _mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+
+    private MerlinMetadataCache()
+    {
+    }
+
+    public static MerlinMetadataCache getInstance()
+    {
+        return SingletonHelper.INSTANCE;
+    }
+
+    /**
+     * Removes the cached metadata of a single server, so the next extract retrieves it from the server.
+     */
+    public synchronized void invalidate(ApiConnectionInfo connectionInfo)
+    {
+        Path cacheDirectory = getCacheDirectory();
+        if(cacheDirectory != null)
+        {
+            Path cacheFile = getCacheFile(cacheDirectory, connectionInfo);
+            try
+            {
+                Files.deleteIfExists(cacheFile);
+            }
+            catch (IOException e)
+            {
+                LOGGER.log(Level.WARNING, e, () -> "Failed to invalidate Merlin metadata cache file: " + cacheFile);
+            }
+        }
+    }
+
+    /**
+     * Removes the cached metadata of all servers.
+     */
+    public synchronized void invalidateAll()
+    {
+        Path cacheDirectory = getCacheDirectory();
+        if(cacheDirectory != null && Files.isDirectory(cacheDirectory))
+        {
+            try(DirectoryStream<Path> cacheFiles = Files.newDirectoryStream(cacheDirectory, "*" + CACHE_FILE_EXTENSION))
+            {
+                for(Path cacheFile : cacheFiles)
+                {
+                    Files.deleteIfExists(cacheFile);
+                }
+            }
+            catch (IOException e)
+            {
+                LOGGER.log(Level.WARNING, e, () -> "Failed to invalidate Merlin metadata cache directory: " + cacheDirectory);
+            }
+        }
+    }
+
+    /**
+     * @return cached metadata for the server, or empty if caching is disabled or nothing unexpired is cached
+     */
+    synchronized Optional<MerlinServerCatalog> load(ApiConnectionInfo connectionInfo)
+    {
+        Optional<MerlinServerCatalog> retVal = Optional.empty();
+        Path cacheDirectory = getCacheDirectory();
+        Duration timeToLive = getTimeToLive();
+        if(cacheDirectory == null || timeToLive.isZero())
+        {
+            return retVal;
+        }
+        Path cacheFile = getCacheFile(cacheDirectory, connectionInfo);
+        if(Files.isRegularFile(cacheFile))
+        {
+            try
+            {
+                JsonNode root = _mapper.readTree(cacheFile.toFile());
+                Instant savedAt = Instant.ofEpochMilli(root.path(SAVED_AT).asLong());
+                if(root.path(FORMAT).asInt() != FORMAT_VERSION)
+                {
+                    LOGGER.log(Level.FINE, () -> "Merlin metadata cached for " + connectionInfo.getApiRoot() + " is in an older format and will be replaced");
+                }
+                else if(savedAt.plus(timeToLive).isAfter(Instant.now()))
+                {
+                    retVal = Optional.of(readCatalog(root));
+                    LOGGER.log(Level.FINE, () -> "Using Merlin metadata for " + connectionInfo.getApiRoot() + " cached at " + savedAt + " from: " + cacheFile);
+                }
+                else
+                {
+                    LOGGER.log(Level.FINE, () -> "Merlin metadata cached for " + connectionInfo.getApiRoot() + " at " + savedAt + " has expired");
+                }
+            }
+            catch (IOException | IllegalStateException e)
+            {
+                LOGGER.log(Level.WARNING, e, () -> "Failed to read Merlin metadata cache file: " + cacheFile + ". Metadata will be retrieved from the server.");
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Stores the server's metadata, unless caching is disabled or the metadata doesn't read back the same as it was stored.
+     */
+    synchronized void store(ApiConnectionInfo connectionInfo, MerlinServerCatalog serverCatalog)
+    {
+        Path cacheDirectory = getCacheDirectory();
+        if(cacheDirectory == null || getTimeToLive().isZero())
+        {
+            return;
+        }
+        Path cacheFile = getCacheFile(cacheDirectory, connectionInfo);
+        try
+        {
+            ObjectNode root = writeCatalog(connectionInfo, serverCatalog);
+            verifyRoundTrip(serverCatalog, readCatalog(root));
+            Files.createDirectories(cacheFile.getParent());
+            Path tempFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+            try
+            {
+                _mapper.writeValue(tempFile.toFile(), root);
+                moveIntoPlace(tempFile, cacheFile);
+            }
+            finally
+            {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            //caching is only an optimization, it never fails the extract
+            LOGGER.log(Level.WARNING, e, () -> "Failed to write Merlin metadata cache file: " + cacheFile);
+        }
+    }
+
+    private static void moveIntoPlace(Path tempFile, Path cacheFile) throws IOException
+    {
+        try
+        {
+            Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private ObjectNode writeCatalog(ApiConnectionInfo connectionInfo, MerlinServerCatalog serverCatalog)
+    {
+        ObjectNode retVal = _mapper.createObjectNode();
+        retVal.put(FORMAT, FORMAT_VERSION);
+        retVal.put(SAVED_AT, Instant.now().toEpochMilli());
+        retVal.put(API_ROOT, connectionInfo.getApiRoot());
+        ArrayNode templates = retVal.putArray(TEMPLATES);
+        for(TemplateWrapper template : serverCatalog.getTemplates())
+        {
+            templates.add(writeTemplate(template));
+        }
+        ArrayNode qualityVersions = retVal.putArray(QUALITY_VERSIONS);
+        for(QualityVersionWrapper qualityVersion : serverCatalog.getQualityVersions())
+        {
+            qualityVersions.add(writeQualityVersion(qualityVersion));
+        }
+        ArrayNode templateMeasures = retVal.putArray(TEMPLATE_MEASURES);
+        for(Map.Entry<TemplateWrapper, List<MeasureWrapper>> entry : serverCatalog.getTemplateToMeasures().entrySet())
+        {
+            ObjectNode templateMeasuresNode = templateMeasures.addObject();
+            templateMeasuresNode.put(TEMPLATE_ID, entry.getKey().getDprId());
+            ArrayNode measures = templateMeasuresNode.putArray(MEASURES);
+            for(MeasureWrapper measure : entry.getValue())
+            {
+                measures.add(writeMeasure(measure));
+            }
+        }
+        return retVal;
+    }
+
+    private ObjectNode writeTemplate(TemplateWrapper template)
+    {
+        ObjectNode retVal = _mapper.createObjectNode();
+        retVal.put(TEMPLATE_NAME, template.getName());
+        retVal.put(TEMPLATE_DPR_ID, template.getDprId());
+        return retVal;
+    }
+
+    private ObjectNode writeQualityVersion(QualityVersionWrapper qualityVersion)
+    {
+        ObjectNode retVal = _mapper.createObjectNode();
+        retVal.put(QUALITY_VERSION_NAME, qualityVersion.getQualityVersionName());
+        retVal.put(QUALITY_VERSION_ID, qualityVersion.getQualityVersionID());
+        return retVal;
+    }
+
+    private ObjectNode writeMeasure(MeasureWrapper measure)
+    {
+        ObjectNode retVal = _mapper.createObjectNode();
+        retVal.put(MEASURE_SERIES_STRING, measure.getSeriesString());
+        retVal.put(MEASURE_TYPE, measure.getType());
+        retVal.put(MEASURE_TYPE_ID, measure.getTypeId());
+        retVal.put(MEASURE_IS_PROCESSED, measure.isProcessed());
+        retVal.put(MEASURE_PARAMETER, measure.getParameter());
+        ZoneId zoneId = measure.getZoneId();
+        retVal.put(MEASURE_TIME_ZONE, zoneId == null ? null : zoneId.getId());
+        return retVal;
+    }
+
+    /**
+     * @throws IllegalStateException if the cached entries can't be mapped back to usable wrappers, e.g. after a Merlin client upgrade
+     */
+    private MerlinServerCatalog readCatalog(JsonNode root) throws JsonProcessingException
+    {
+        List<TemplateWrapper> templates = new ArrayList<>();
+        for(JsonNode templateNode : root.path(TEMPLATES))
+        {
+            TemplateWrapper template = new TemplateWrapper(_mapper.treeToValue(templateNode, Template.class));
+            if(template.getDprId() == null)
+            {
+                throw new IllegalStateException("Cached template is missing its id: " + templateNode);
+            }
+            templates.add(template);
+        }
+        List<QualityVersionWrapper> qualityVersions = new ArrayList<>();
+        for(JsonNode qualityVersionNode : root.path(QUALITY_VERSIONS))
+        {
+            QualityVersionWrapper qualityVersion = new QualityVersionWrapper(_mapper.treeToValue(qualityVersionNode, QualityVersions.class));
+            if(qualityVersion.getQualityVersionID() == null)
+            {
+                throw new IllegalStateException("Cached quality version is missing its id: " + qualityVersionNode);
+            }
+            qualityVersions.add(qualityVersion);
+        }
+        Map<TemplateWrapper, List<MeasureWrapper>> templateToMeasures = new HashMap<>();
+        for(JsonNode templateMeasuresNode : root.path(TEMPLATE_MEASURES))
+        {
+            int templateId = templateMeasuresNode.path(TEMPLATE_ID).asInt();
+            Optional<TemplateWrapper> template = templates.stream()
+                    .filter(t -> Objects.equals(t.getDprId(), templateId))
+                    .findFirst();
+            if(template.isPresent())
+            {
+                List<MeasureWrapper> measures = new ArrayList<>();
+                for(JsonNode measureNode : templateMeasuresNode.path(MEASURES))
+                {
+                    MeasureWrapper measure = new MeasureWrapper(_mapper.treeToValue(measureNode, Measure.class));
+                    if(measure.getSeriesString() == null)
+                    {
+                        throw new IllegalStateException("Cached measure is missing its series string: " + measureNode);
+                    }
+                    measures.add(measure);
+                }
+                templateToMeasures.put(template.get(), measures);
+            }
+        }
+        return new MerlinServerCatalog(templates, qualityVersions, templateToMeasures);
+    }
+
+    /**
+     * @throws IllegalStateException if what the exchange reads from a wrapper differs once the wrapper is read back from the cache
+     */
+    private static void verifyRoundTrip(MerlinServerCatalog stored, MerlinServerCatalog readBack)
+    {
+        List<List<Object>> storedTemplates = new ArrayList<>();
+        stored.getTemplates().forEach(t -> storedTemplates.add(describe(t)));
+        List<List<Object>> readTemplates = new ArrayList<>();
+        readBack.getTemplates().forEach(t -> readTemplates.add(describe(t)));
+        List<List<Object>> storedQualityVersions = new ArrayList<>();
+        stored.getQualityVersions().forEach(q -> storedQualityVersions.add(describe(q)));
+        List<List<Object>> readQualityVersions = new ArrayList<>();
+        readBack.getQualityVersions().forEach(q -> readQualityVersions.add(describe(q)));
+        if(!storedTemplates.equals(readTemplates) || !storedQualityVersions.equals(readQualityVersions)
+                || !describe(stored.getTemplateToMeasures()).equals(describe(readBack.getTemplateToMeasures())))
+        {
+            throw new IllegalStateException("Merlin metadata doesn't read back from the cache as it was retrieved");
+        }
+    }
+
+    private static List<Object> describe(TemplateWrapper template)
+    {
+        return Arrays.asList(template.getName(), template.getDprId());
+    }
+
+    private static List<Object> describe(QualityVersionWrapper qualityVersion)
+    {
+        return Arrays.asList(qualityVersion.getQualityVersionName(), qualityVersion.getQualityVersionID());
+    }
+
+    private static Map<List<Object>, List<List<Object>>> describe(Map<TemplateWrapper, List<MeasureWrapper>> templateToMeasures)
+    {
+        Map<List<Object>, List<List<Object>>> retVal = new HashMap<>();
+        for(Map.Entry<TemplateWrapper, List<MeasureWrapper>> entry : templateToMeasures.entrySet())
+        {
+            List<List<Object>> measures = new ArrayList<>();
+            for(MeasureWrapper measure : entry.getValue())
+            {
+                measures.add(Arrays.asList(measure.getSeriesString(), measure.getType(), measure.getTypeId(), measure.isProcessed(),
+                        measure.getParameter(), measure.getZoneId(), measure.getProjectAndSiteAndSensor()));
+            }
+            retVal.put(describe(entry.getKey()), measures);
+        }
+        return retVal;
+    }
+
+    private static Duration getTimeToLive()
+    {
+        long ttlMinutes = Long.getLong(CACHE_TTL_MINUTES_PROPERTY_KEY, DEFAULT_TTL_MINUTES);
+        return Duration.ofMinutes(Math.max(ttlMinutes, 0));
+    }
+
+    /**
+     * @return directory set by System Property, or null if none is set and nothing is cached
+     */
+    private static Path getCacheDirectory()
+    {
+        String cacheDirectory = System.getProperty(CACHE_DIRECTORY_PROPERTY_KEY);
+        Path retVal = null;
+        if(cacheDirectory != null && !cacheDirectory.trim().isEmpty())
+        {
+            retVal = Paths.get(cacheDirectory.trim());
+        }
+        return retVal;
+    }
+
+    static Path getCacheFile(Path cacheDirectory, ApiConnectionInfo connectionInfo)
+    {
+        try
+        {
+            return cacheDirectory.resolve(URLEncoder.encode(connectionInfo.getApiRoot(), StandardCharsets.UTF_8.name()) + CACHE_FILE_EXTENSION);
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class SingletonHelper
+    {
+        private static final MerlinMetadataCache INSTANCE = new MerlinMetadataCache();
+    }
+}
@@ -0,0 +1,66 @@
+package gov.usbr.wq.merlindataexchange;
+
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+import gov.usbr.wq.dataaccess.model.QualityVersionWrapper;
+import gov.usbr.wq.dataaccess.model.TemplateWrapper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Metadata fetched from one Merlin server while the engine initializes: templates, quality versions,
+ * and the measure catalogs of the templates referenced by the data exchange configurations.
+ */
+final class MerlinServerCatalog
+{
+    private final List<TemplateWrapper> _templates;
+    private final List<QualityVersionWrapper> _qualityVersions;
+    private final Map<TemplateWrapper, List<MeasureWrapper>> _templateToMeasures;
+
+    MerlinServerCatalog(List<TemplateWrapper> templates, List<QualityVersionWrapper> qualityVersions, Map<TemplateWrapper, List<MeasureWrapper>> templateToMeasures)
+    {
+        _templates = templates;
+        _qualityVersions = qualityVersions;
+        _templateToMeasures = templateToMeasures;
+    }
+
+    List<TemplateWrapper> getTemplates()
+    {
+        return _templates;
+    }
+
+    List<QualityVersionWrapper> getQualityVersions()
+    {
+        return _qualityVersions;
+    }
+
+    List<MeasureWrapper> getMeasures(TemplateWrapper template)
+    {
+        return _templateToMeasures.getOrDefault(template, Collections.emptyList());
+    }
+
+    /**
+     * @return true if the catalog has a template with the given name, ignoring case, or id
+     */
+    boolean hasTemplate(String templateName, Integer templateId)
+    {
+        return _templates.stream()
+                .anyMatch(t -> (templateName != null && templateName.equalsIgnoreCase(t.getName())) || (templateId != null && templateId.equals(t.getDprId())));
+    }
+
+    /**
+     * @return true if the catalog has a quality version with the given name, ignoring case, or id
+     */
+    boolean hasQualityVersion(String qualityVersionName, Integer qualityVersionId)
+    {
+        return _qualityVersions.stream()
+                .anyMatch(q -> (qualityVersionName != null && qualityVersionName.equalsIgnoreCase(q.getQualityVersionName()))
+                        || (qualityVersionId != null && qualityVersionId.equals(q.getQualityVersionID())));
+    }
+
+    Map<TemplateWrapper, List<MeasureWrapper>> getTemplateToMeasures()
+    {
+        return _templateToMeasures;
+    }
+}
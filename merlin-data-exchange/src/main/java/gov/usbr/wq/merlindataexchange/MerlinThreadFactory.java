@@ -12,9 +12,15 @@ public final class MerlinThreadFactory implements ThreadFactory
     private final String _namePrefix;
 
     public MerlinThreadFactory()
+    {
+        this(null);
+    }
+
+    public MerlinThreadFactory(String poolName)
     {
         _group = Thread.currentThread().getThreadGroup();
         _namePrefix = "merlin-" +
+                (poolName == null ? "" : poolName + "-") +
                 POOL_NUMBER.getAndIncrement() +
                 "-thread-";
     }
@@ -14,6 +14,10 @@ public final class DataStoreProfile extends DataStore
     public static final String DEPTH = "Depth";
     @JacksonXmlProperty(localName = "constituents")
     private final Constituents _constituents = new Constituents();
+    @JacksonXmlProperty(isAttribute = true, localName = "significant-time-change-minutes")
+    private Integer _significantTimeChangeMinutes;
+    @JacksonXmlProperty(isAttribute = true, localName = "significant-change-depth-percent")
+    private Double _significantChangeDepthPercent;
 
     public List<Constituent> getConstituents()
     {
@@ -34,6 +38,22 @@ public final class DataStoreProfile extends DataStore
         return retVal;
     }
 
+    /**
+     * @return minutes between readings that start a new profile, or null to use the System Property or default
+     */
+    public Integer getSignificantTimeChangeMinutes()
+    {
+        return _significantTimeChangeMinutes;
+    }
+
+    /**
+     * @return percent of the depth range a change in depth must exceed to start a new profile, or null to use the System Property or default
+     */
+    public Double getSignificantChangeDepthPercent()
+    {
+        return _significantChangeDepthPercent;
+    }
+
     @Override
     public void validate(Path configFilepath) throws MerlinConfigParseException
     {
@@ -45,5 +65,13 @@ public final class DataStoreProfile extends DataStore
                 throw new MerlinConfigParseException(configFilepath, "Constituent in data-store " + getId() + " missing parameter name");
             }
         }
+        if(_significantTimeChangeMinutes != null && _significantTimeChangeMinutes <= 0)
+        {
+            throw new MerlinConfigParseException(configFilepath, "Significant time change for data-store " + getId() + " must be greater than 0 minutes");
+        }
+        if(_significantChangeDepthPercent != null && (_significantChangeDepthPercent < 0 || _significantChangeDepthPercent.isNaN()))
+        {
+            throw new MerlinConfigParseException(configFilepath, "Significant depth change for data-store " + getId() + " must not be negative");
+        }
     }
 }
@@ -4,5 +4,19 @@ import gov.usbr.wq.merlindataexchange.DataExchangeEngine;
 
 public interface FluentEngineBuilder
 {
+    /**
+     * @param resume - true to skip the measures a previous, interrupted extract of the same configurations and time window already wrote.
+     *               Completed measures are tracked in a journal file per configuration in the log file directory.
+     */
+    FluentEngineBuilder withResume(boolean resume);
+
+    /**
+     * @param incremental - true to extract each measure from the last event written to its destination by a previous extract, less an overlap
+     *                    set by System Property merlin.dataexchange.incremental.overlap.minutes (default 1 day) so revised data is picked up.
+     *                    Measures with nothing written yet use the start of the time window. Last events are tracked in a file per
+     *                    configuration in the log file directory.
+     */
+    FluentEngineBuilder withIncremental(boolean incremental);
+
     DataExchangeEngine build();
 }
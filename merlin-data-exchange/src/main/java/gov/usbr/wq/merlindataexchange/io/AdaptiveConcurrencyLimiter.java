@@ -0,0 +1,166 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD (additive increase, multiplicative decrease) limit on concurrent requests to one Merlin server.
+ * While the limit is saturated and latency stays near the best latency seen, the limit grows by roughly one per round trip.
+ * On overload errors the limit is halved, and when latency grows well past the baseline it is reduced by 10%.
+ * Latency is normalized by response size so that large series don't read as server congestion.
+ */
+final class AdaptiveConcurrencyLimiter
+{
+    private static final int MIN_LIMIT = 1;
+    private static final double OVERLOAD_BACKOFF_RATIO = 0.5;
+    private static final double LATENCY_BACKOFF_RATIO = 0.9;
+    //latency above this multiple of the baseline is treated as queueing on the server
+    private static final double LATENCY_TOLERANCE = 2.0;
+    //baseline creeps up slowly so it can follow a server whose normal latency changes
+    private static final double BASELINE_DRIFT = 1.01;
+    private static final int EVENTS_PER_LATENCY_UNIT = 1000;
+    private final int _maxLimit;
+    private final ReentrantLock _lock = new ReentrantLock();
+    private final Condition _slotAvailable = _lock.newCondition();
+    private double _limit;
+    private int _inFlight;
+    private double _baselineLatency;
+    private int _completionsSinceDecrease;
+    private int _completionsBeforeNextDecrease = -1;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int maxLimit)
+    {
+        _maxLimit = Math.max(maxLimit, MIN_LIMIT);
+        _limit = Math.min(Math.max(initialLimit, MIN_LIMIT), _maxLimit);
+    }
+
+    void acquire() throws InterruptedException
+    {
+        _lock.lockInterruptibly();
+        try
+        {
+            while(_inFlight >= (int) _limit)
+            {
+                _slotAvailable.await();
+            }
+            _inFlight++;
+        }
+        finally
+        {
+            _lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot for a request that completed normally.
+     * @param latencyNanos time the request took
+     * @param eventCount number of events returned, used to normalize latency
+     */
+    void onSuccess(long latencyNanos, int eventCount)
+    {
+        _lock.lock();
+        try
+        {
+            double normalizedLatency = (double) latencyNanos / Math.max(1, eventCount / EVENTS_PER_LATENCY_UNIT);
+            boolean saturated = _inFlight >= (int) _limit;
+            if(_baselineLatency <= 0 || normalizedLatency < _baselineLatency)
+            {
+                _baselineLatency = normalizedLatency;
+            }
+            else
+            {
+                _baselineLatency *= BASELINE_DRIFT;
+            }
+            if(normalizedLatency > _baselineLatency * LATENCY_TOLERANCE)
+            {
+                decrease(LATENCY_BACKOFF_RATIO);
+            }
+            else if(saturated)
+            {
+                _limit = Math.min(_limit + 1.0 / _limit, _maxLimit);
+            }
+            release();
+        }
+        finally
+        {
+            _lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot for a request that failed in a way that indicates the server is overloaded (timeouts, 429, 5xx).
+     */
+    void onOverload()
+    {
+        _lock.lock();
+        try
+        {
+            decrease(OVERLOAD_BACKOFF_RATIO);
+            release();
+        }
+        finally
+        {
+            _lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot without adjusting the limit.
+     */
+    void onIgnore()
+    {
+        _lock.lock();
+        try
+        {
+            release();
+        }
+        finally
+        {
+            _lock.unlock();
+        }
+    }
+
+    private void decrease(double ratio)
+    {
+        //requests already in flight when we backed off will report the same congestion, only back off once per round of completions
+        if(_completionsSinceDecrease > _completionsBeforeNextDecrease)
+        {
+            _limit = Math.max(_limit * ratio, MIN_LIMIT);
+            _completionsSinceDecrease = 0;
+            _completionsBeforeNextDecrease = _inFlight - 1;
+        }
+    }
+
+    private void release()
+    {
+        _inFlight--;
+        _completionsSinceDecrease++;
+        _slotAvailable.signalAll();
+    }
+
+    int getLimit()
+    {
+        _lock.lock();
+        try
+        {
+            return (int) _limit;
+        }
+        finally
+        {
+            _lock.unlock();
+        }
+    }
+
+    int getInFlight()
+    {
+        _lock.lock();
+        try
+        {
+            return _inFlight;
+        }
+        finally
+        {
+            _lock.unlock();
+        }
+    }
+}
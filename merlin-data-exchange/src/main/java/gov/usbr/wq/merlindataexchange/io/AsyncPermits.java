@@ -0,0 +1,74 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Counting semaphore whose acquire never blocks a thread. Waiters are handed a future that completes, in FIFO order,
+ * when a permit is released to them.
+ */
+final class AsyncPermits
+{
+    private final int _capacity;
+    private final Queue<CompletableFuture<Void>> _waiters = new ArrayDeque<>();
+    private int _available;
+
+    AsyncPermits(int capacity)
+    {
+        _capacity = Math.max(capacity, 1);
+        _available = _capacity;
+    }
+
+    CompletableFuture<Void> acquire()
+    {
+        CompletableFuture<Void> retVal;
+        synchronized (this)
+        {
+            if(_available > 0)
+            {
+                _available--;
+                retVal = CompletableFuture.completedFuture(null);
+            }
+            else
+            {
+                retVal = new CompletableFuture<>();
+                _waiters.add(retVal);
+            }
+        }
+        return retVal;
+    }
+
+    void release()
+    {
+        CompletableFuture<Void> nextWaiter;
+        synchronized (this)
+        {
+            nextWaiter = _waiters.poll();
+            if(nextWaiter == null)
+            {
+                _available = Math.min(_available + 1, _capacity);
+            }
+        }
+        //complete outside the lock, dependents of the waiter may run inline
+        if(nextWaiter != null)
+        {
+            nextWaiter.complete(null);
+        }
+    }
+
+    int getCapacity()
+    {
+        return _capacity;
+    }
+
+    synchronized int getPermitsInUse()
+    {
+        return _capacity - _available;
+    }
+
+    synchronized int getWaitingCount()
+    {
+        return _waiters.size();
+    }
+}
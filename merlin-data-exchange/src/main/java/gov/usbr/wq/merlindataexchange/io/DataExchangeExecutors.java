@@ -0,0 +1,94 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executors for each resource class used during a data exchange.
+ * Blocking Merlin HTTP calls, CPU-bound conversion and DSS/CSV writes each get their own pool so that a backlog in one
+ * never starves the others.
+ */
+public final class DataExchangeExecutors
+{
+    private final ThreadPoolExecutor _fetchExecutor;
+    private final ThreadPoolExecutor _convertExecutor;
+    private final ThreadPoolExecutor _writeExecutor;
+
+    public DataExchangeExecutors(int fetchPoolSize, int convertPoolSize, int writePoolSize, ThreadFactory fetchThreadFactory,
+                                 ThreadFactory convertThreadFactory, ThreadFactory writeThreadFactory)
+    {
+        _fetchExecutor = createFixedPool(fetchPoolSize, fetchThreadFactory);
+        _convertExecutor = createFixedPool(convertPoolSize, convertThreadFactory);
+        _writeExecutor = createFixedPool(writePoolSize, writeThreadFactory);
+    }
+
+    private static ThreadPoolExecutor createFixedPool(int poolSize, ThreadFactory threadFactory)
+    {
+        int size = Math.max(poolSize, 1);
+        return new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+    }
+
+    public ExecutorService getFetchExecutor()
+    {
+        return _fetchExecutor;
+    }
+
+    public ExecutorService getConvertExecutor()
+    {
+        return _convertExecutor;
+    }
+
+    public ExecutorService getWriteExecutor()
+    {
+        return _writeExecutor;
+    }
+
+    public int getFetchPoolSize()
+    {
+        return _fetchExecutor.getMaximumPoolSize();
+    }
+
+    public int getFetchQueueSize()
+    {
+        return _fetchExecutor.getQueue().size();
+    }
+
+    public int getConvertQueueSize()
+    {
+        return _convertExecutor.getQueue().size();
+    }
+
+    public int getWriteQueueSize()
+    {
+        return _writeExecutor.getQueue().size();
+    }
+
+    /**
+     * Shuts down every pool. Tasks already submitted still run.
+     */
+    public void shutdown()
+    {
+        _fetchExecutor.shutdown();
+        _convertExecutor.shutdown();
+        _writeExecutor.shutdown();
+    }
+
+    public String getMetricsSummary()
+    {
+        return "Fetch pool " + describe(_fetchExecutor)
+                + " | Convert pool " + describe(_convertExecutor)
+                + " | Write pool " + describe(_writeExecutor);
+    }
+
+    private static String describe(ThreadPoolExecutor executor)
+    {
+        return "[size: " + executor.getMaximumPoolSize()
+                + ", active: " + executor.getActiveCount()
+                + ", queued: " + executor.getQueue().size()
+                + ", largest: " + executor.getLargestPoolSize()
+                + ", completed: " + executor.getCompletedTaskCount() + "]";
+    }
+}
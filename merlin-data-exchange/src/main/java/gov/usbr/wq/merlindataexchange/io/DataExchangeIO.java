@@ -10,10 +10,11 @@ import gov.usbr.wq.merlindataexchange.configuration.DataExchangeSet;
 import hec.ui.ProgressListener;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 public final class DataExchangeIO
 {
@@ -22,22 +23,89 @@ public final class DataExchangeIO
         throw new AssertionError("Utility class for reading and writing data. Don't instantiate");
     }
 
-    @SuppressWarnings("unchecked")
-    public static <P extends MerlinParameters, T> CompletableFuture<Void> exchangeData(DataExchangeReader<P, ?> reader, DataExchangeWriter<P,T> writer, DataExchangeSet dataExchangeSet,
+    /**
+     * Reads a measure and writes it to the destination.
+     * If the reader streams the measure, see {@link DataExchangeReader#getStreamedWindows}, each window is read and written before the next is read.
+     * @param lastEventTimeConsumer - given the time of the last event written, see {@link DataExchangeWriter#getLastEventTime}, once the measure is written
+     * @return future completed with true if the writer confirmed the measure was written to the destination, see {@link DataExchangeWriter#writeDataAndConfirm}
+     */
+    public static <P extends MerlinParameters, T> CompletableFuture<Boolean> exchangeData(DataExchangeReader<P, ?> reader, DataExchangeWriter<P,T> writer, DataExchangeSet dataExchangeSet,
                                                        P runtimeParameters, DataStore source, DataStore destination, DataExchangeCache cache, MeasureWrapper measure,
                                                        MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener,
-                                                       AtomicBoolean isCancelled, MerlinDataExchangeLogBody logger, ExecutorService executorService)
+                                                       AtomicBoolean isCancelled, MerlinDataExchangeLogBody logger, DataExchangePipeline pipeline,
+                                                       Consumer<Instant> lastEventTimeConsumer)
+    {
+        CompletableFuture<Boolean> retVal;
+        List<Instant[]> streamedWindows = reader.getStreamedWindows(runtimeParameters, measure);
+        if(streamedWindows.size() > 1)
+        {
+            retVal = exchangeStreamedWindows(streamedWindows, reader, writer, dataExchangeSet, runtimeParameters, source, destination, cache, measure,
+                    completionTracker, progressListener, isCancelled, logger, pipeline, lastEventTimeConsumer);
+        }
+        else
+        {
+            retVal = exchangeWindow(reader, writer, dataExchangeSet, runtimeParameters, WindowRead.WHOLE, source, destination, cache, measure, completionTracker,
+                    progressListener, isCancelled, logger, pipeline, lastEventTimeConsumer);
+        }
+        return retVal;
+    }
+
+    /**
+     * Each window is counted by the completion tracker as a measure of its own.
+     * Last event times are only passed on while every earlier window has been written, so a failed window is read again by the next incremental extract.
+     */
+    @SuppressWarnings("unchecked")
+    private static <P extends MerlinParameters, T> CompletableFuture<Boolean> exchangeStreamedWindows(List<Instant[]> streamedWindows, DataExchangeReader<P, ?> reader,
+                                                       DataExchangeWriter<P,T> writer, DataExchangeSet dataExchangeSet, P runtimeParameters, DataStore source,
+                                                       DataStore destination, DataExchangeCache cache, MeasureWrapper measure, MerlinExchangeCompletionTracker completionTracker,
+                                                       ProgressListener progressListener, AtomicBoolean isCancelled, MerlinDataExchangeLogBody logger,
+                                                       DataExchangePipeline pipeline, Consumer<Instant> lastEventTimeConsumer)
+    {
+        completionTracker.addNumberOfMeasuresToComplete(streamedWindows.size() - 1);
+        CompletableFuture<Boolean> retVal = CompletableFuture.completedFuture(true);
+        WindowRead windowRead = WindowRead.streamed(runtimeParameters.getStart(), runtimeParameters.getEnd());
+        for(Instant[] window : streamedWindows)
+        {
+            P windowParameters = (P) runtimeParameters.withTimeWindow(window[0], window[1]);
+            retVal = retVal.thenCompose(previousWritten -> exchangeWindow(reader, writer, dataExchangeSet, windowParameters, windowRead, source, destination, cache,
+                            measure, completionTracker, progressListener, isCancelled, logger, pipeline, previousWritten ? lastEventTimeConsumer : lastEventTime -> {})
+                    .thenApply(written -> previousWritten && written));
+        }
+        return retVal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <P extends MerlinParameters, T> CompletableFuture<Boolean> exchangeWindow(DataExchangeReader<P, ?> reader, DataExchangeWriter<P,T> writer, DataExchangeSet dataExchangeSet,
+                                                       P runtimeParameters, WindowRead windowRead, DataStore source, DataStore destination, DataExchangeCache cache, MeasureWrapper measure,
+                                                       MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener,
+                                                       AtomicBoolean isCancelled, MerlinDataExchangeLogBody logger, DataExchangePipeline pipeline,
+                                                       Consumer<Instant> lastEventTimeConsumer)
     {
         Instant readStart = Instant.now();
-        CompletableFuture<Void> retVal = new CompletableFuture<>();
+        CompletableFuture<Boolean> retVal = CompletableFuture.completedFuture(false);
         if(!isCancelled.get())
         {
             AtomicReference<String> readDurationString = new AtomicReference<>("");
-            retVal = reader.readData(dataExchangeSet, runtimeParameters, source, destination, cache, measure,
-                            completionTracker, progressListener, isCancelled, logger, executorService, readDurationString)
-                    .thenAcceptAsync(objectRead ->
+            AtomicBoolean written = new AtomicBoolean(false);
+            CompletableFuture<T> readFuture;
+            if(!windowRead.isStreamed())
+            {
+                readFuture = (CompletableFuture<T>) reader.readData(dataExchangeSet, runtimeParameters, source, destination, cache, measure,
+                        completionTracker, progressListener, isCancelled, logger, pipeline, readDurationString);
+            }
+            else
+            {
+                readFuture = (CompletableFuture<T>) reader.readStreamedWindow(dataExchangeSet, runtimeParameters, windowRead, source,
+                        destination, cache, measure, completionTracker, progressListener, isCancelled, logger, pipeline, readDurationString);
+            }
+            retVal = pipeline.write(readFuture, objectRead ->
                     {
-                        writer.writeData((T) objectRead, measure, dataExchangeSet, runtimeParameters, cache, destination, completionTracker, progressListener, logger, isCancelled, readDurationString);
+                        written.set(writer.writeDataAndConfirm(objectRead, measure, dataExchangeSet, runtimeParameters, cache, destination, completionTracker, progressListener, logger,
+                                isCancelled, readDurationString));
+                        if(written.get())
+                        {
+                            lastEventTimeConsumer.accept(writer.getLastEventTime(objectRead));
+                        }
                         Instant writeEnd = Instant.now();
                         String totalDuration = ReadWriteTimestampUtil.getDuration(readStart, writeEnd);
                         if(!totalDuration.isEmpty())
@@ -49,10 +117,7 @@ public final class DataExchangeIO
                                 progressListener.progress(msg, ProgressListener.MessageType.GENERAL);
                             }
                         }
-                    }, executorService);
-
-
-
+                    }).thenApply(v -> written.get());
         }
         return retVal;
     }
@@ -0,0 +1,164 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Staged fetch -> convert -> write pipeline for a single data exchange run. Each stage runs on its own pool of {@link DataExchangeExecutors}.
+ * Stages are bounded: a fetched item keeps its fetch permit until it has a slot in the convert queue, and a converted
+ * item keeps its convert slot until it has a slot in the write queue. When DSS/CSV writing falls behind, conversion and
+ * then fetching stall instead of piling up fetched and converted data in the heap. Waiting for a slot never blocks a thread.
+ */
+public final class DataExchangePipeline
+{
+    private static final Logger LOGGER = Logger.getLogger(DataExchangePipeline.class.getName());
+    public static final String FETCH_LIMIT_PROPERTY_KEY = "merlin.dataexchange.pipeline.fetch.max";
+    public static final String CONVERT_QUEUE_SIZE_PROPERTY_KEY = "merlin.dataexchange.pipeline.convert.queuesize";
+    public static final String WRITE_QUEUE_SIZE_PROPERTY_KEY = "merlin.dataexchange.pipeline.write.queuesize";
+    private final DataExchangeExecutors _executors;
+    private final AsyncPermits _fetchPermits;
+    private final AsyncPermits _convertSlots;
+    private final AsyncPermits _writeSlots;
+
+    public DataExchangePipeline(DataExchangeExecutors executors, int defaultFetchLimit)
+    {
+        _executors = executors;
+        int coreCount = Math.max(Runtime.getRuntime().availableProcessors(), 1);
+        _fetchPermits = new AsyncPermits(getLimit(FETCH_LIMIT_PROPERTY_KEY, defaultFetchLimit));
+        _convertSlots = new AsyncPermits(getLimit(CONVERT_QUEUE_SIZE_PROPERTY_KEY, coreCount));
+        _writeSlots = new AsyncPermits(getLimit(WRITE_QUEUE_SIZE_PROPERTY_KEY, coreCount));
+    }
+
+    private static int getLimit(String propertyKey, int defaultLimit)
+    {
+        int retVal;
+        String limit = System.getProperty(propertyKey);
+        if(limit != null)
+        {
+            retVal = Math.max(Integer.parseInt(limit), 1);
+            LOGGER.log(Level.FINE, () -> "Data exchange pipeline using System Property " + propertyKey + " with limit of: " + retVal);
+        }
+        else
+        {
+            retVal = Math.max(defaultLimit, 1);
+            LOGGER.log(Level.FINE, () -> "System Property " + propertyKey + " not set. Data exchange pipeline using default limit of: " + retVal);
+        }
+        return retVal;
+    }
+
+    /**
+     * Runs the fetch and convert stages of one measure.
+     * The returned future completes once the converted value holds a write slot, which must then be handed to {@link #write}.
+     * If it completes exceptionally, no slot is held.
+     */
+    <S, T> CompletableFuture<T> read(Supplier<S> fetchTask, Function<S, T> convertTask)
+    {
+        CompletableFuture<S> fetched = _fetchPermits.acquire()
+                .thenComposeAsync(v -> runStage(fetchTask, _fetchPermits, _convertSlots), _executors.getFetchExecutor());
+        return fetched.thenComposeAsync(data -> runStage(() -> convertTask.apply(data), _convertSlots, _writeSlots), _executors.getConvertExecutor());
+    }
+
+    /**
+     * Runs a read that fetches and converts on its own, started with the fetch executor, in place of the fetch and convert stages of {@link #read}.
+     * The read holds a fetch permit until it completes, then the result holds a write slot like one from {@link #read}.
+     * @param readTask - starts the read without blocking, given the fetch executor
+     */
+    <T> CompletableFuture<T> readAsync(Function<ExecutorService, CompletableFuture<T>> readTask)
+    {
+        return _fetchPermits.acquire().thenCompose(v ->
+        {
+            CompletableFuture<T> read;
+            try
+            {
+                read = readTask.apply(_executors.getFetchExecutor());
+            }
+            catch (RuntimeException e)
+            {
+                _fetchPermits.release();
+                throw e;
+            }
+            return read.whenComplete((data, e) ->
+                    {
+                        if(e != null)
+                        {
+                            _fetchPermits.release();
+                        }
+                    })
+                    .thenCompose(data -> _writeSlots.acquire()
+                            .thenApply(slot ->
+                            {
+                                _fetchPermits.release();
+                                return data;
+                            }));
+        });
+    }
+
+    /**
+     * Runs the write stage of one measure and releases the write slot obtained by {@link #read}.
+     */
+    <T> CompletableFuture<Void> write(CompletableFuture<T> readFuture, Consumer<T> writeTask)
+    {
+        return readFuture.thenAcceptAsync(data ->
+        {
+            try
+            {
+                writeTask.accept(data);
+            }
+            finally
+            {
+                _writeSlots.release();
+            }
+        }, _executors.getWriteExecutor());
+    }
+
+    private static <R> CompletableFuture<R> runStage(Supplier<R> stageTask, AsyncPermits heldPermits, AsyncPermits nextStagePermits)
+    {
+        R result;
+        try
+        {
+            result = stageTask.get();
+        }
+        catch (RuntimeException e)
+        {
+            heldPermits.release();
+            throw e;
+        }
+        //keep this stage's permit until the next stage has room, this is what pushes back on upstream stages
+        return nextStagePermits.acquire()
+                .thenApply(v ->
+                {
+                    heldPermits.release();
+                    return result;
+                });
+    }
+
+    public int getFetchesInProgress()
+    {
+        return _fetchPermits.getPermitsInUse();
+    }
+
+    public int getFetchesWaiting()
+    {
+        return _fetchPermits.getWaitingCount();
+    }
+
+    public int getConvertQueueDepth()
+    {
+        return _convertSlots.getPermitsInUse();
+    }
+
+    public int getWriteQueueDepth()
+    {
+        return _writeSlots.getPermitsInUse();
+    }
+
+    public DataExchangeExecutors getExecutors()
+    {
+        return _executors;
+    }
+}
@@ -10,6 +10,8 @@ import gov.usbr.wq.merlindataexchange.MerlinExchangeCompletionTracker;
 import gov.usbr.wq.merlindataexchange.configuration.DataExchangeSet;
 import hec.ui.ProgressListener;
 
+import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -20,13 +22,61 @@ import java.util.concurrent.atomic.AtomicReference;
 public interface DataExchangeReader<P extends MerlinParameters, T> extends DataExchanger
 {
     String LOOKUP_PATH = "dataexchange/reader";
+
     CompletableFuture<T> readData(DataExchangeSet configuration, P runtimeParameters, DataStore sourceDataStore, DataStore destDataStore,
                                   DataExchangeCache cache, MeasureWrapper seriesPath, MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener,
                                   AtomicBoolean isCancelled, MerlinDataExchangeLogBody logger, ExecutorService executorService,
                                   AtomicReference<String> readStart);
+
+    /**
+     * Fetches and converts a single measure through the given pipeline's read stages. This is how the engine reads measures.
+     * The returned future is handed to {@link DataExchangePipeline#write}, so overrides must produce it with the pipeline.
+     * By default the read above is run on the pipeline's fetch executor, holding a fetch permit until it completes.
+     */
+    default CompletableFuture<T> readData(DataExchangeSet configuration, P runtimeParameters, DataStore sourceDataStore, DataStore destDataStore,
+                                          DataExchangeCache cache, MeasureWrapper seriesPath, MerlinExchangeCompletionTracker completionTracker,
+                                          ProgressListener progressListener, AtomicBoolean isCancelled, MerlinDataExchangeLogBody logger,
+                                          DataExchangePipeline pipeline, AtomicReference<String> readStart)
+    {
+        return pipeline.readAsync(executorService -> readData(configuration, runtimeParameters, sourceDataStore, destDataStore, cache, seriesPath,
+                completionTracker, progressListener, isCancelled, logger, executorService, readStart));
+    }
+
+
+    /**
+     * Reads one of the windows from {@link #getStreamedWindows}, the same way as {@link #readData}.
+     * Consecutive windows share their boundary, so what is read for every window but the last leaves out its end, which is read with the next window,
+     * see {@link WindowRead#isLastWindow}. Streamed windows are read straight from the source, they aren't kept to be shared with other reads.
+     * @param windowRead - streamed read of the time window being exchanged the window is part of
+     */
+    default CompletableFuture<T> readStreamedWindow(DataExchangeSet configuration, P windowParameters, WindowRead windowRead, DataStore sourceDataStore,
+                                                    DataStore destDataStore, DataExchangeCache cache, MeasureWrapper seriesPath,
+                                                    MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener, AtomicBoolean isCancelled,
+                                                    MerlinDataExchangeLogBody logger, DataExchangePipeline pipeline, AtomicReference<String> readStart)
+    {
+        return readData(configuration, windowParameters, sourceDataStore, destDataStore, cache, seriesPath, completionTracker, progressListener, isCancelled, logger,
+                pipeline, readStart);
+    }
     String getSourcePath(DataStore sourceDataStore, MerlinParameters parameters);
 
     List<MeasureWrapper> filterMeasuresToRead(DataExchangeConfiguration dataExchangeConfig, DataExchangeSet dataExchangeSet, List<MeasureWrapper> measures);
 
     Set<String> getDefaultSupportedTypes();
+
+    /**
+     * @return number of measures the completion tracker counts for reading the given measure
+     */
+    default int getNumberOfMeasuresRead(DataExchangeSet dataExchangeSet, DataExchangeCache cache, MeasureWrapper measure)
+    {
+        return 1;
+    }
+
+    /**
+     * @return consecutive {start, end} windows the measure is read and written in, one after the other, so only one window's data is held at a time.
+     * Empty if the measure is read in one piece.
+     */
+    default List<Instant[]> getStreamedWindows(P runtimeParameters, MeasureWrapper measure)
+    {
+        return Collections.emptyList();
+    }
 }
@@ -11,6 +11,7 @@ import hec.ui.ProgressListener;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -23,6 +24,41 @@ public interface DataExchangeWriter<P extends MerlinParameters, T> extends DataE
                    MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener, MerlinDataExchangeLogBody logger,
                    AtomicBoolean isCancelled, AtomicReference<String> readStart);
 
+    /**
+     * Writes data read for a measure to the destination data store and reports whether it got there, so only measures actually written are
+     * recorded in the journal and high water marks. Writers that don't override this report nothing as written, so resumed and incremental
+     * extracts read their measures again.
+     * @return true if the data was written to the destination, false if there was nothing to write, the write failed or the exchange was cancelled
+     */
+    default boolean writeDataAndConfirm(T dataObject, MeasureWrapper seriesPath, DataExchangeSet set, P runtimeParameters, DataExchangeCache cache,
+                                        DataStore destinationDataStore, MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener,
+                                        MerlinDataExchangeLogBody logger, AtomicBoolean isCancelled, AtomicReference<String> readStart)
+    {
+        writeData(dataObject, seriesPath, set, runtimeParameters, cache, destinationDataStore, completionTracker, progressListener, logger, isCancelled, readStart);
+        return false;
+    }
+
+    /**
+     * Called before any measure of a data exchange set is written, so the writer can keep the destination open for the whole set.
+     * Every call is followed by {@link #endWrites(DataStore, MerlinParameters)} once the set's writes are done, failed or cancelled.
+     */
+    default void beginWrites(DataStore destinationDataStore, P runtimeParameters)
+    {
+    }
+
+    default void endWrites(DataStore destinationDataStore, P runtimeParameters)
+    {
+    }
+
+    /**
+     * @return time of the last event in the data object, or null if it has none or the writer doesn't track it.
+     * Incremental extracts start the measure's next read from this time.
+     */
+    default Instant getLastEventTime(T dataObject)
+    {
+        return null;
+    }
+
     default String getDestinationPath(DataStore destinationDataStore, MerlinParameters parameters)
     {
         String filepath = destinationDataStore.getPath();
@@ -20,6 +20,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
@@ -32,60 +33,153 @@ public final class DssDataExchangeWriter implements DataExchangeWriter<MerlinTim
     public static final String DSS = "dss";
     private static final Logger LOGGER = Logger.getLogger(DssDataExchangeWriter.class.getName());
     public static final String MERLIN_TO_DSS_WRITE_SINGLE_THREAD_PROPERTY_KEY = "merlin.dataexchange.writer.dss.singlethread";
+    public static final String MERLIN_TO_DSS_SKIP_UNCHANGED_PROPERTY_KEY = "merlin.dataexchange.writer.dss.skipunchanged";
     private final AtomicBoolean _loggedThreadProperty = new AtomicBoolean(false);
+    private final AtomicBoolean _loggedSkipUnchangedProperty = new AtomicBoolean(false);
     private final int DSS_WRITE_TYPE_MISMATCH_ERROR_CODE = -534304000;
     @Override
     public void writeData(TimeSeriesContainer timeSeriesContainer, MeasureWrapper measure, DataExchangeSet set, MerlinTimeSeriesParameters runtimeParameters, DataExchangeCache cache,
                           DataStore destinationDataStore, MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener, MerlinDataExchangeLogBody logFileLogger,
                           AtomicBoolean isCancelled, AtomicReference<String> readDurationString)
     {
+        writeDataAndConfirm(timeSeriesContainer, measure, set, runtimeParameters, cache, destinationDataStore, completionTracker, progressListener, logFileLogger,
+                isCancelled, readDurationString);
+    }
+
+    @Override
+    public boolean writeDataAndConfirm(TimeSeriesContainer timeSeriesContainer, MeasureWrapper measure, DataExchangeSet set, MerlinTimeSeriesParameters runtimeParameters,
+                                       DataExchangeCache cache, DataStore destinationDataStore, MerlinExchangeCompletionTracker completionTracker,
+                                       ProgressListener progressListener, MerlinDataExchangeLogBody logFileLogger, AtomicBoolean isCancelled,
+                                       AtomicReference<String> readDurationString)
+    {
+        boolean retVal = false;
         Path dssWritePath = Paths.get(getDestinationPath(destinationDataStore, runtimeParameters));
         String seriesString = measure.getSeriesString();
         if(timeSeriesContainer != null && !isCancelled.get())
         {
             timeSeriesContainer.fileName = dssWritePath.toString();
-            boolean useSingleThreading = isSingleThreaded();
-            int success;
-            Instant writeStart;
-            Instant writeEnd;
-            if(useSingleThreading)
+            logRead(timeSeriesContainer, runtimeParameters, measure, completionTracker, logFileLogger, progressListener, readDurationString);
+            String digest = null;
+            if(isSkipUnchanged())
             {
-                writeStart = Instant.now();
-                try(CloseableReentrantLock lock = ReadWriteLockManager.getInstance().getCloseableLock().lockIt())
-                {
-                    success = writeDss(timeSeriesContainer, dssWritePath, runtimeParameters, measure, completionTracker, logFileLogger, progressListener, readDurationString);
-                    writeEnd = Instant.now();
-                }
+                digest = DssRecordDigests.computeDigest(timeSeriesContainer, set.getQualityVersionName() + "|" + set.getQualityVersionId(),
+                        runtimeParameters.getStoreOption().getRegular());
+            }
+            if(digest != null && DssFileHandles.getInstance().isUnchanged(dssWritePath.toString(), timeSeriesContainer.fullName, runtimeParameters.getStart(),
+                    runtimeParameters.getEnd(), digest))
+            {
+                skipUnchangedRecord(timeSeriesContainer, seriesString, completionTracker, progressListener, logFileLogger);
+                retVal = true;
             }
             else
             {
-                writeStart = Instant.now();
-                success = writeDss(timeSeriesContainer, dssWritePath, runtimeParameters, measure, completionTracker, logFileLogger, progressListener, readDurationString);
+                retVal = writeRecord(timeSeriesContainer, dssWritePath, digest, runtimeParameters, seriesString, completionTracker, progressListener, logFileLogger);
+            }
+        }
+        return retVal;
+    }
+
+    private void skipUnchangedRecord(TimeSeriesContainer timeSeriesContainer, String seriesString, MerlinExchangeCompletionTracker completionTracker,
+                                     ProgressListener progressListener, MerlinDataExchangeLogBody logFileLogger)
+    {
+        String unchangedMsg = "Unchanged " + timeSeriesContainer.fullName + " from " + seriesString + ". Skipped write.";
+        int percentCompleteAfterWrite = completionTracker.readWriteTaskCompleted();
+        completionTracker.writeTaskCompleted();
+        completionTracker.writeTaskUnchanged();
+        if(progressListener != null)
+        {
+            progressListener.progress(unchangedMsg, MessageType.GENERAL, percentCompleteAfterWrite);
+        }
+        logFileLogger.log(unchangedMsg);
+        LOGGER.config(() -> unchangedMsg);
+    }
+
+    private boolean writeRecord(TimeSeriesContainer timeSeriesContainer, Path dssWritePath, String digest, MerlinTimeSeriesParameters runtimeParameters,
+                                String seriesString, MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener,
+                                MerlinDataExchangeLogBody logFileLogger)
+    {
+        boolean retVal = false;
+        //forget the previous digest until this write succeeds, in case a failed write leaves the record partially written
+        DssFileHandles.getInstance().updateDigest(dssWritePath.toString(), timeSeriesContainer.fullName, runtimeParameters.getStart(),
+                runtimeParameters.getEnd(), null);
+        boolean useSingleThreading = isSingleThreaded();
+        int success;
+        Instant writeStart;
+        Instant writeEnd;
+        if(useSingleThreading)
+        {
+            writeStart = Instant.now();
+            try(CloseableReentrantLock lock = ReadWriteLockManager.getInstance().getCloseableLock(dssWritePath).lockIt())
+            {
+                success = writeDss(timeSeriesContainer, dssWritePath, runtimeParameters);
                 writeEnd = Instant.now();
             }
-            if(success == 0)
+        }
+        else
+        {
+            writeStart = Instant.now();
+            success = writeDss(timeSeriesContainer, dssWritePath, runtimeParameters);
+            writeEnd = Instant.now();
+        }
+        if(success == 0)
+        {
+            DssFileHandles.getInstance().updateDigest(dssWritePath.toString(), timeSeriesContainer.fullName, runtimeParameters.getStart(),
+                    runtimeParameters.getEnd(), digest);
+            String successMsg = "Write to " + timeSeriesContainer.fullName + " from " + seriesString + ReadWriteTimestampUtil.getDuration(writeStart, writeEnd);
+            int percentCompleteAfterWrite = completionTracker.readWriteTaskCompleted();
+            completionTracker.writeTaskCompleted();
+            if(progressListener != null)
             {
-                String successMsg = "Write to " + timeSeriesContainer.fullName + " from " + seriesString + ReadWriteTimestampUtil.getDuration(writeStart, writeEnd);
-                int percentCompleteAfterWrite = completionTracker.readWriteTaskCompleted();
-                completionTracker.writeTaskCompleted();
-                if(progressListener != null)
-                {
-                    progressListener.progress(successMsg, MessageType.GENERAL, percentCompleteAfterWrite);
-                }
-                logFileLogger.log(successMsg);
-                LOGGER.config(() -> successMsg);
+                progressListener.progress(successMsg, MessageType.GENERAL, percentCompleteAfterWrite);
             }
-            else
+            logFileLogger.log(successMsg);
+            LOGGER.config(() -> successMsg);
+            retVal = true;
+        }
+        else
+        {
+            String failMsg = "Failed to write " +  seriesString + " to DSS! Error status code: " + success;
+            if(progressListener != null)
+            {
+                progressListener.progress(failMsg, MessageType.ERROR);
+            }
+            logFileLogger.log(failMsg);
+            LOGGER.config(() -> failMsg);
+        }
+        return retVal;
+    }
+
+    @Override
+    public Instant getLastEventTime(TimeSeriesContainer timeSeriesContainer)
+    {
+        Instant retVal = null;
+        if(timeSeriesContainer != null && timeSeriesContainer.times != null && timeSeriesContainer.values != null)
+        {
+            int lastIndex = Math.min(timeSeriesContainer.times.length, timeSeriesContainer.values.length) - 1;
+            while(lastIndex >= 0 && timeSeriesContainer.values[lastIndex] == Const.UNDEFINED_DOUBLE)
             {
-                String failMsg = "Failed to write " +  seriesString + " to DSS! Error status code: " + success;
-                if(progressListener != null)
-                {
-                    progressListener.progress(failMsg, MessageType.ERROR);
-                }
-                logFileLogger.log(failMsg);
-                LOGGER.config(() -> failMsg);
+                lastIndex--;
+            }
+            if(lastIndex >= 0)
+            {
+                String timeZoneId = timeSeriesContainer.getTimeZoneID();
+                ZoneId zoneId = timeZoneId == null ? ZoneOffset.UTC : ZoneId.of(timeZoneId);
+                retVal = HecMinutesConverter.HEC_TIME_BASE.plusMinutes(timeSeriesContainer.times[lastIndex]).atZone(zoneId).toInstant();
             }
         }
+        return retVal;
+    }
+
+    @Override
+    public void beginWrites(DataStore destinationDataStore, MerlinTimeSeriesParameters runtimeParameters)
+    {
+        DssFileHandles.getInstance().retain(Paths.get(getDestinationPath(destinationDataStore, runtimeParameters)).toString());
+    }
+
+    @Override
+    public void endWrites(DataStore destinationDataStore, MerlinTimeSeriesParameters runtimeParameters)
+    {
+        DssFileHandles.getInstance().release(Paths.get(getDestinationPath(destinationDataStore, runtimeParameters)).toString());
     }
 
     private boolean isSingleThreaded()
@@ -111,11 +205,31 @@ public final class DssDataExchangeWriter implements DataExchangeWriter<MerlinTim
         return useSingleThreading;
     }
 
-    private int writeDss(TimeSeriesContainer timeSeriesContainer, Path dssWritePath, MerlinTimeSeriesParameters runtimeParameters, MeasureWrapper measure,
+    private boolean isSkipUnchanged()
+    {
+        String skipUnchangedString = System.getProperty(MERLIN_TO_DSS_SKIP_UNCHANGED_PROPERTY_KEY);
+        boolean skipUnchanged = false;
+        if(skipUnchangedString != null)
+        {
+            skipUnchanged = Boolean.parseBoolean(skipUnchangedString);
+            if(!_loggedSkipUnchangedProperty.getAndSet(true))
+            {
+                boolean actualValue = skipUnchanged;
+                LOGGER.log(Level.CONFIG, () -> "Merlin to dss skip unchanged records using System Property " + MERLIN_TO_DSS_SKIP_UNCHANGED_PROPERTY_KEY + " set to: "
+                        + skipUnchangedString + ". Parsed value: " + actualValue);
+            }
+        }
+        else if(!_loggedSkipUnchangedProperty.getAndSet(true))
+        {
+            LOGGER.log(Level.INFO, () -> "Merlin to dss skip unchanged records using System Property " + MERLIN_TO_DSS_SKIP_UNCHANGED_PROPERTY_KEY
+                    + " is not set. Defaulting to : False");
+        }
+        return skipUnchanged;
+    }
+
+    private void logRead(TimeSeriesContainer timeSeriesContainer, MerlinTimeSeriesParameters runtimeParameters, MeasureWrapper measure,
                          MerlinExchangeCompletionTracker completionTracker, MerlinDataExchangeLogBody logFileLogger, ProgressListener progressListener, AtomicReference<String> readDurationString)
     {
-        int success;
-        StoreOption storeOption = runtimeParameters.getStoreOption();
         DSSPathname pathname = new DSSPathname(timeSeriesContainer.fullName);
         int numTrimmedValues = getNumTrimmedValues(timeSeriesContainer);
         int numExpected = ExpectedNumberValuesCalculator.getExpectedNumValues(runtimeParameters.getStart(), runtimeParameters.getEnd(), pathname.ePart(),
@@ -125,6 +239,12 @@ public final class DssDataExchangeWriter implements DataExchangeWriter<MerlinTim
         logFileLogger.log(progressMsg);
         int percentComplete = completionTracker.readWriteTaskCompleted();
         logProgress(progressListener, progressMsg, percentComplete);
+    }
+
+    private int writeDss(TimeSeriesContainer timeSeriesContainer, Path dssWritePath, MerlinTimeSeriesParameters runtimeParameters)
+    {
+        int success;
+        StoreOption storeOption = runtimeParameters.getStoreOption();
         //write(timeseriesContainer) uses store option zero, so this ensures correct functionality for regular store flag 0
         //writeTS has a bug in its current state that can cause dss to write to wrong file. Once fixed, this conditional check won't be needed
         try
@@ -145,7 +265,8 @@ public final class DssDataExchangeWriter implements DataExchangeWriter<MerlinTim
         }
         finally
         {
-            DssFileManagerImpl.getDssFileManager().close(dssWritePath.toString());
+            //only closes the file if no data exchange set is keeping it open
+            DssFileHandles.getInstance().recordWritten(dssWritePath.toString());
         }
         return success;
     }
@@ -0,0 +1,101 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import com.rma.io.DssFileManagerImpl;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reference counts the DSS files being written by data exchange sets, so a file stays open across all the records written to it
+ * and is closed once, when the last set writing to it is done.
+ * While a file is open, the {@link DssRecordDigests} of its records are kept so unchanged records can be skipped. They are saved when the file is closed.
+ */
+final class DssFileHandles
+{
+    private static final Logger LOGGER = Logger.getLogger(DssFileHandles.class.getName());
+    private final Map<String, OpenFile> _openFiles = new HashMap<>();
+
+    private DssFileHandles()
+    {
+    }
+
+    static DssFileHandles getInstance()
+    {
+        return SingletonHelper.INSTANCE;
+    }
+
+    synchronized void retain(String dssFilePath)
+    {
+        _openFiles.computeIfAbsent(dssFilePath, path -> new OpenFile(DssRecordDigests.load(path)))._references++;
+    }
+
+    synchronized void release(String dssFilePath)
+    {
+        OpenFile openFile = _openFiles.get(dssFilePath);
+        if(openFile != null && --openFile._references <= 0)
+        {
+            _openFiles.remove(dssFilePath);
+            DssFileManagerImpl.getDssFileManager().close(dssFilePath);
+            openFile._digests.save();
+            int recordsWritten = openFile._recordsWritten;
+            LOGGER.log(Level.FINE, () -> "Closed DSS file: " + dssFilePath + " after writing " + recordsWritten + " records");
+        }
+    }
+
+    /**
+     * Called after each record is written. Files that no set has retained are closed right away.
+     */
+    synchronized void recordWritten(String dssFilePath)
+    {
+        OpenFile openFile = _openFiles.get(dssFilePath);
+        if(openFile == null)
+        {
+            DssFileManagerImpl.getDssFileManager().close(dssFilePath);
+        }
+        else
+        {
+            openFile._recordsWritten++;
+        }
+    }
+
+    /**
+     * @return true if the file is open and the record was last written in the time window with the same digest
+     */
+    synchronized boolean isUnchanged(String dssFilePath, String pathname, Instant start, Instant end, String digest)
+    {
+        OpenFile openFile = _openFiles.get(dssFilePath);
+        return openFile != null && openFile._digests.isUnchanged(pathname, start, end, digest);
+    }
+
+    /**
+     * @param digest - digest of the record as written in the time window, or null before the record is written
+     */
+    synchronized void updateDigest(String dssFilePath, String pathname, Instant start, Instant end, String digest)
+    {
+        OpenFile openFile = _openFiles.get(dssFilePath);
+        if(openFile != null)
+        {
+            openFile._digests.updateDigest(pathname, start, end, digest);
+        }
+    }
+
+    private static final class OpenFile
+    {
+        private final DssRecordDigests _digests;
+        private int _references;
+        private int _recordsWritten;
+
+        private OpenFile(DssRecordDigests digests)
+        {
+            _digests = digests;
+        }
+    }
+
+    private static class SingletonHelper
+    {
+        private static final DssFileHandles INSTANCE = new DssFileHandles();
+    }
+}
@@ -0,0 +1,276 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import hec.io.TimeSeriesContainer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Content digests of the records written to a DSS file, kept in a sidecar file next to it, so a rerun can skip records whose content
+ * hasn't changed. The sidecar also holds the DSS file's last modified time when the digests were saved; if the DSS file has been
+ * changed or removed since, the digests are discarded and every record is written.
+ * Digests are kept per record and time window written, so a measure written in streamed windows has a digest for each window.
+ */
+final class DssRecordDigests
+{
+    private static final Logger LOGGER = Logger.getLogger(DssRecordDigests.class.getName());
+    static final String DIGEST_FILE_EXTENSION = ".digests";
+    private static final String DSS_LAST_MODIFIED_KEY = "dssLastModified";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final int DIGEST_BUFFER_SIZE = 8192;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final char KEY_SEPARATOR = '|';
+    private final Path _dssFile;
+    private final Properties _digests = new Properties();
+
+    private DssRecordDigests(Path dssFile)
+    {
+        _dssFile = dssFile;
+    }
+
+    static DssRecordDigests load(String dssFilePath)
+    {
+        Path dssFile = Paths.get(dssFilePath);
+        DssRecordDigests retVal = new DssRecordDigests(dssFile);
+        Path digestFile = getDigestFile(dssFile);
+        if(Files.isRegularFile(digestFile) && Files.isRegularFile(dssFile))
+        {
+            Properties digests = new Properties();
+            try(InputStream inputStream = Files.newInputStream(digestFile))
+            {
+                digests.load(inputStream);
+                String dssLastModified = String.valueOf(Files.getLastModifiedTime(dssFile).toMillis());
+                if(dssLastModified.equals(digests.getProperty(DSS_LAST_MODIFIED_KEY)))
+                {
+                    for(String key : digests.stringPropertyNames())
+                    {
+                        //digests saved without their time window are dropped
+                        if(getWindow(key) != null)
+                        {
+                            retVal._digests.setProperty(key, digests.getProperty(key));
+                        }
+                    }
+                }
+                else
+                {
+                    LOGGER.log(Level.FINE, () -> "DSS file " + dssFile + " changed since record digests were saved. All records will be written.");
+                }
+            }
+            catch (IOException e)
+            {
+                LOGGER.log(Level.WARNING, e, () -> "Failed to read DSS record digests: " + digestFile + ". All records will be written.");
+            }
+        }
+        return retVal;
+    }
+
+    boolean isUnchanged(String pathname, Instant start, Instant end, String digest)
+    {
+        return digest.equals(_digests.getProperty(getKey(pathname, start, end)));
+    }
+
+    /**
+     * Digests of the record's other windows that overlap the given one are removed, as the write replaces their values.
+     * @param digest - digest of the record as written in the time window, or null if the record's content isn't known
+     */
+    void updateDigest(String pathname, Instant start, Instant end, String digest)
+    {
+        String key = getKey(pathname, start, end);
+        _digests.remove(key);
+        String recordPrefix = pathname + KEY_SEPARATOR;
+        for(String otherKey : _digests.stringPropertyNames())
+        {
+            //only the window's separator follows this record's pathname, not another pathname it prefixes
+            boolean isRecord = otherKey.startsWith(recordPrefix) && otherKey.indexOf(KEY_SEPARATOR, recordPrefix.length()) == otherKey.lastIndexOf(KEY_SEPARATOR);
+            Instant[] window = isRecord ? getWindow(otherKey) : null;
+            if(window != null && window[0].isBefore(end) && start.isBefore(window[1]))
+            {
+                _digests.remove(otherKey);
+            }
+        }
+        if(digest != null)
+        {
+            _digests.setProperty(key, digest);
+        }
+    }
+
+    private static String getKey(String pathname, Instant start, Instant end)
+    {
+        return pathname + KEY_SEPARATOR + start + KEY_SEPARATOR + end;
+    }
+
+    /**
+     * @return start and end of the time window in the key, or null if the key doesn't end with one
+     */
+    private static Instant[] getWindow(String key)
+    {
+        Instant[] retVal = null;
+        int endSeparator = key.lastIndexOf(KEY_SEPARATOR);
+        int startSeparator = endSeparator > 0 ? key.lastIndexOf(KEY_SEPARATOR, endSeparator - 1) : -1;
+        if(startSeparator >= 0)
+        {
+            try
+            {
+                retVal = new Instant[]{Instant.parse(key.substring(startSeparator + 1, endSeparator)), Instant.parse(key.substring(endSeparator + 1))};
+            }
+            catch (DateTimeParseException e)
+            {
+                LOGGER.log(Level.FINEST, e, () -> "DSS record digest key has no time window: " + key);
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Saves the digests once the DSS file is closed, along with the DSS file's last modified time.
+     */
+    void save()
+    {
+        Path digestFile = getDigestFile(_dssFile);
+        try
+        {
+            if(_digests.isEmpty() || !Files.isRegularFile(_dssFile))
+            {
+                Files.deleteIfExists(digestFile);
+            }
+            else
+            {
+                writeDigestFile(digestFile);
+            }
+        }
+        catch (IOException e)
+        {
+            LOGGER.log(Level.WARNING, e, () -> "Failed to save DSS record digests: " + digestFile);
+        }
+    }
+
+    private void writeDigestFile(Path digestFile) throws IOException
+    {
+        Properties digests = new Properties();
+        digests.putAll(_digests);
+        digests.setProperty(DSS_LAST_MODIFIED_KEY, String.valueOf(Files.getLastModifiedTime(_dssFile).toMillis()));
+        Path tempFile = Files.createTempFile(digestFile.toAbsolutePath().getParent(), digestFile.getFileName().toString(), ".tmp");
+        try
+        {
+            try(OutputStream outputStream = Files.newOutputStream(tempFile))
+            {
+                digests.store(outputStream, "Digests of records written to " + _dssFile.getFileName());
+            }
+            moveIntoPlace(tempFile, digestFile);
+        }
+        finally
+        {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static void moveIntoPlace(Path tempFile, Path digestFile) throws IOException
+    {
+        try
+        {
+            Files.move(tempFile, digestFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(tempFile, digestFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static Path getDigestFile(Path dssFile)
+    {
+        return dssFile.resolveSibling(dssFile.getFileName() + DIGEST_FILE_EXTENSION);
+    }
+
+    /**
+     * @return hex digest of the record's times, values, qualities and units, along with the quality version and store rule it was written with
+     */
+    static String computeDigest(TimeSeriesContainer timeSeriesContainer, String qualityVersion, int storeRule)
+    {
+        MessageDigest messageDigest;
+        try
+        {
+            messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        //content is streamed through a small buffer rather than copied whole, records can hold millions of values
+        ByteBuffer buffer = ByteBuffer.allocate(DIGEST_BUFFER_SIZE);
+        updateString(messageDigest, buffer, timeSeriesContainer.fullName);
+        updateString(messageDigest, buffer, timeSeriesContainer.units);
+        updateString(messageDigest, buffer, timeSeriesContainer.type);
+        updateString(messageDigest, buffer, timeSeriesContainer.getTimeZoneID());
+        updateString(messageDigest, buffer, qualityVersion);
+        updateString(messageDigest, buffer, String.valueOf(storeRule));
+        int[] times = timeSeriesContainer.times == null ? new int[0] : timeSeriesContainer.times;
+        double[] values = timeSeriesContainer.values == null ? new double[0] : timeSeriesContainer.values;
+        int[] quality = timeSeriesContainer.quality == null ? new int[0] : timeSeriesContainer.quality;
+        updateInts(messageDigest, buffer, times);
+        reserve(messageDigest, buffer, Integer.BYTES).putInt(values.length);
+        for(double value : values)
+        {
+            reserve(messageDigest, buffer, Double.BYTES).putDouble(value);
+        }
+        updateInts(messageDigest, buffer, quality);
+        flush(messageDigest, buffer);
+        byte[] digest = messageDigest.digest();
+        char[] retVal = new char[digest.length * 2];
+        for(int i = 0; i < digest.length; i++)
+        {
+            retVal[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0xf];
+            retVal[2 * i + 1] = HEX_DIGITS[digest[i] & 0xf];
+        }
+        return new String(retVal);
+    }
+
+    private static void updateInts(MessageDigest messageDigest, ByteBuffer buffer, int[] ints)
+    {
+        reserve(messageDigest, buffer, Integer.BYTES).putInt(ints.length);
+        for(int value : ints)
+        {
+            reserve(messageDigest, buffer, Integer.BYTES).putInt(value);
+        }
+    }
+
+    private static void updateString(MessageDigest messageDigest, ByteBuffer buffer, String value)
+    {
+        byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        reserve(messageDigest, buffer, Integer.BYTES).putInt(bytes.length);
+        flush(messageDigest, buffer);
+        messageDigest.update(bytes);
+    }
+
+    /**
+     * @return the buffer, digesting what it holds first if it doesn't have the given number of bytes left
+     */
+    private static ByteBuffer reserve(MessageDigest messageDigest, ByteBuffer buffer, int bytes)
+    {
+        if(buffer.remaining() < bytes)
+        {
+            flush(messageDigest, buffer);
+        }
+        return buffer;
+    }
+
+    private static void flush(MessageDigest messageDigest, ByteBuffer buffer)
+    {
+        messageDigest.update(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+}
@@ -35,4 +35,13 @@ final class ExpectedNumberValuesCalculator
         }
         return retVal;
     }
+
+    /**
+     * Number of regular intervals between start and end, inclusive of both ends.
+     */
+    static long getExpectedNumValues(Instant start, Instant end, int intervalMinutes)
+    {
+        long durationMinutes = Math.max(Duration.between(start, end).toMinutes(), 0);
+        return durationMinutes / Math.max(intervalMinutes, 1) + 1;
+    }
 }
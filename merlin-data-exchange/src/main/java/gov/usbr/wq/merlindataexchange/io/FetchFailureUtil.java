@@ -0,0 +1,45 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import gov.usbr.wq.dataaccess.http.HttpAccessException;
+
+import java.io.IOException;
+
+/**
+ * Rethrows failures of fetches run on other threads as the exceptions a fetch on the calling thread would have thrown.
+ */
+public final class FetchFailureUtil
+{
+
+    private FetchFailureUtil()
+    {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * @param failure - failure of a fetch, such as the cause of an {@link java.util.concurrent.ExecutionException}. Nothing is thrown if null
+     * @throws IOException if the failure is one, or wrapping a checked failure of any other type
+     */
+    public static void rethrow(Throwable failure) throws IOException, HttpAccessException
+    {
+        if(failure instanceof HttpAccessException)
+        {
+            throw (HttpAccessException) failure;
+        }
+        if(failure instanceof IOException)
+        {
+            throw (IOException) failure;
+        }
+        if(failure instanceof RuntimeException)
+        {
+            throw (RuntimeException) failure;
+        }
+        if(failure instanceof Error)
+        {
+            throw (Error) failure;
+        }
+        if(failure != null)
+        {
+            throw new IOException(failure);
+        }
+    }
+}
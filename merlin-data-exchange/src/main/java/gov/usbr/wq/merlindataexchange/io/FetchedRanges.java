@@ -0,0 +1,75 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Time ranges of a series that have been fetched from Merlin. Ranges are closed, and overlapping or touching ranges are merged.
+ */
+final class FetchedRanges
+{
+    private final NavigableMap<Instant, Instant> _ranges = new TreeMap<>();
+
+    void add(Instant start, Instant end)
+    {
+        Instant mergedStart = start;
+        Instant mergedEnd = end;
+        Map.Entry<Instant, Instant> previous = _ranges.floorEntry(start);
+        if(previous != null && !previous.getValue().isBefore(start))
+        {
+            mergedStart = previous.getKey();
+            mergedEnd = max(mergedEnd, previous.getValue());
+        }
+        Iterator<Map.Entry<Instant, Instant>> overlapping = _ranges.subMap(mergedStart, true, mergedEnd, true).entrySet().iterator();
+        while(overlapping.hasNext())
+        {
+            mergedEnd = max(mergedEnd, overlapping.next().getValue());
+            overlapping.remove();
+        }
+        _ranges.put(mergedStart, mergedEnd);
+    }
+
+    /**
+     * Gaps share their boundaries with the neighboring fetched ranges, so events exactly on a boundary are always fetched,
+     * whether or not Merlin includes the end of a requested window.
+     * @return parts of the window from start to end that haven't been fetched, in order, as {start, end} pairs
+     */
+    List<Instant[]> getMissingRanges(Instant start, Instant end)
+    {
+        List<Instant[]> retVal = new ArrayList<>();
+        Instant cursor = start;
+        Map.Entry<Instant, Instant> previous = _ranges.floorEntry(start);
+        if(previous != null && previous.getValue().isAfter(cursor))
+        {
+            cursor = previous.getValue();
+        }
+        for(Map.Entry<Instant, Instant> range : _ranges.subMap(start, false, end, true).entrySet())
+        {
+            if(range.getKey().isAfter(cursor))
+            {
+                retVal.add(new Instant[]{cursor, range.getKey()});
+            }
+            cursor = max(cursor, range.getValue());
+        }
+        if(cursor.isBefore(end))
+        {
+            retVal.add(new Instant[]{cursor, end});
+        }
+        return retVal;
+    }
+
+    int size()
+    {
+        return _ranges.size();
+    }
+
+    private static Instant max(Instant first, Instant second)
+    {
+        return first.isAfter(second) ? first : second;
+    }
+}
@@ -0,0 +1,67 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts epoch seconds to HEC time values (minutes since 31Dec1899 0000 in a time zone) without creating objects per conversion.
+ * The zone offset is kept along with the range of time it applies to, so converting a run of times only looks up the zone rules again
+ * when a time crosses an offset transition. Instances are not thread safe; create one per series being converted.
+ */
+final class HecMinutesConverter
+{
+    static final LocalDateTime HEC_TIME_BASE = LocalDateTime.of(1899, 12, 31, 0, 0);
+    private static final long SECONDS_PER_MINUTE = 60;
+    private static final long HEC_TIME_BASE_EPOCH_MINUTES = HEC_TIME_BASE.toEpochSecond(ZoneOffset.UTC) / SECONDS_PER_MINUTE;
+    private static final Map<ZoneId, ZoneRules> ZONE_RULES = new ConcurrentHashMap<>();
+    private final ZoneRules _rules;
+    private int _offsetSeconds;
+    //epoch seconds the current offset applies from (inclusive) until (exclusive)
+    private long _offsetStart = Long.MAX_VALUE;
+    private long _offsetEnd = Long.MIN_VALUE;
+
+    HecMinutesConverter(ZoneId zoneId)
+    {
+        _rules = ZONE_RULES.computeIfAbsent(zoneId, ZoneId::getRules);
+    }
+
+    /**
+     * Seconds are dropped from the local time, the same as {@code HecTime.fromZonedDateTime(...).value()}, so instants before
+     * the HEC time base round down to the earlier minute and both instants of a repeated daylight saving hour share their local minutes.
+     * @return HEC time value of the given instant in this converter's time zone, truncated to the minute
+     */
+    int toHecMinutes(long epochSecond)
+    {
+        if(epochSecond < _offsetStart || epochSecond >= _offsetEnd)
+        {
+            updateOffset(epochSecond);
+        }
+        return (int) (Math.floorDiv(epochSecond + _offsetSeconds, SECONDS_PER_MINUTE) - HEC_TIME_BASE_EPOCH_MINUTES);
+    }
+
+    private void updateOffset(long epochSecond)
+    {
+        if(_rules.isFixedOffset())
+        {
+            _offsetSeconds = _rules.getOffset(Instant.EPOCH).getTotalSeconds();
+            _offsetStart = Long.MIN_VALUE;
+            _offsetEnd = Long.MAX_VALUE;
+        }
+        else
+        {
+            Instant instant = Instant.ofEpochSecond(epochSecond);
+            _offsetSeconds = _rules.getOffset(instant).getTotalSeconds();
+            //previousTransition is strictly before the instant given, so a transition exactly at epochSecond is found
+            ZoneOffsetTransition previous = _rules.previousTransition(instant.plusSeconds(1));
+            ZoneOffsetTransition next = _rules.nextTransition(instant);
+            _offsetStart = previous == null ? Long.MIN_VALUE : previous.toEpochSecond();
+            _offsetEnd = next == null ? Long.MAX_VALUE : next.toEpochSecond();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+import gov.usbr.wq.merlindataexchange.parameters.MerlinParameters;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Estimates the amount of work needed to exchange a measure, in number of expected values.
+ * The estimate is only used to order work, so it favors being cheap over being exact.
+ */
+public final class MeasureCostEstimator
+{
+    private static final Logger LOGGER = Logger.getLogger(MeasureCostEstimator.class.getName());
+    //Merlin returns the full period of record when no start is given, assume a long record
+    private static final Duration DEFAULT_PERIOD_OF_RECORD = Duration.ofDays(365L * 30);
+    //irregular, unparseable and non-HEC timesteps are costed as hourly data
+    private static final int DEFAULT_INTERVAL_MINUTES = 60;
+    private static final int TIMESTEP_INDEX = 3;
+    //regular HEC intervals in minutes, from 1 minute to 1 year. Merlin timesteps outside these aren't intervals the data is stored at
+    private static final Set<Integer> HEC_INTERVAL_MINUTES = new HashSet<>(Arrays.asList(1, 2, 3, 4, 5, 6, 10, 12, 15, 20, 30, 60, 120, 180, 240,
+            360, 480, 720, 1440, 10080, 14400, 21600, 43200, 525600));
+    //retained size of an event held between fetch and conversion: the EventWrapper and its event, the boxed value,
+    //the ZonedDateTime and its parts, and the sorted set entry holding it. Rough figures for a 64-bit JVM with compressed oops.
+    static final long BYTES_PER_EVENT = 240;
+    //int time, double value and int quality in the converted time series container
+    static final long BYTES_PER_VALUE = Integer.BYTES + Double.BYTES + Integer.BYTES;
+
+    private MeasureCostEstimator()
+    {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * @param measure - measure to estimate
+     * @param runtimeParameters - parameters supplying the extract window
+     * @return estimated number of values to be read for the measure over the extract window
+     */
+    public static long estimateCost(MeasureWrapper measure, MerlinParameters runtimeParameters)
+    {
+        Instant end = runtimeParameters.getEnd();
+        if(end == null)
+        {
+            end = Instant.now();
+        }
+        Instant start = runtimeParameters.getStart();
+        if(start == null)
+        {
+            start = end.minus(DEFAULT_PERIOD_OF_RECORD);
+        }
+        return ExpectedNumberValuesCalculator.getExpectedNumValues(start, end, getIntervalMinutes(measure));
+    }
+
+    /**
+     * @param measure - measure to estimate
+     * @param runtimeParameters - parameters supplying the window held in memory at once
+     * @return estimated bytes of heap used while the measure's values over the window are fetched and converted
+     */
+    public static long estimateHeapBytes(MeasureWrapper measure, MerlinParameters runtimeParameters)
+    {
+        return estimateCost(measure, runtimeParameters) * (BYTES_PER_EVENT + BYTES_PER_VALUE);
+    }
+
+    static int getIntervalMinutes(MeasureWrapper measure)
+    {
+        int retVal = DEFAULT_INTERVAL_MINUTES;
+        String seriesString = measure.getSeriesString();
+        String[] split = seriesString == null ? new String[0] : seriesString.split("/");
+        if(split.length > TIMESTEP_INDEX)
+        {
+            try
+            {
+                int timestep = MerlinDataConverter.getValidTimeStep(split[TIMESTEP_INDEX], seriesString);
+                if(HEC_INTERVAL_MINUTES.contains(timestep))
+                {
+                    retVal = timestep;
+                }
+                else
+                {
+                    LOGGER.log(Level.FINEST, () -> "Timestep " + timestep + " of " + seriesString + " is not a HEC interval, cost estimated as "
+                            + DEFAULT_INTERVAL_MINUTES + " minute data");
+                }
+            }
+            catch (MerlinInvalidTimestepException | NumberFormatException e)
+            {
+                LOGGER.log(Level.FINEST, e, () -> "Unable to determine timestep for cost estimate of " + seriesString);
+            }
+        }
+        return retVal;
+    }
+}
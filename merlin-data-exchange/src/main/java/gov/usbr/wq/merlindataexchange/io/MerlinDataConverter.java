@@ -48,6 +48,7 @@ import java.util.logging.Logger;
 final class MerlinDataConverter
 {
 	static final int DSS_MONTHLY_TIME_STEP = 43200;
+	static final String INTERPOLATION_KERNEL_ENABLED_PROPERTY_KEY = "merlin.dataexchange.converter.interpolationkernel.enabled";
 	private static final Set<Integer> MONTHLY_TIME_STEPS = new HashSet<>(Arrays.asList(DSS_MONTHLY_TIME_STEP, 44640, 40320));
 	private static final Logger LOGGER = Logger.getLogger(MerlinDataConverter.class.getName());
 	private MerlinDataConverter()
@@ -57,6 +58,12 @@ final class MerlinDataConverter
 
 	static TimeSeriesContainer dataToTimeSeries(DataWrapper data, String unitSystemToConvertTo, String fPartOverride, boolean isProcessed, ProgressListener progressListener, String typeId)
 			throws MerlinInvalidTimestepException, NoEventsException, HecMathException, DataSetIllegalArgumentException
+	{
+		return dataToTimeSeries(data == null ? null : MerlinSeriesData.fromDataWrapper(data), unitSystemToConvertTo, fPartOverride, isProcessed, progressListener, typeId);
+	}
+
+	static TimeSeriesContainer dataToTimeSeries(MerlinSeriesData data, String unitSystemToConvertTo, String fPartOverride, boolean isProcessed, ProgressListener progressListener, String typeId)
+			throws MerlinInvalidTimestepException, NoEventsException, HecMathException, DataSetIllegalArgumentException
 	{
 		TimeSeriesContainer output = new TimeSeriesContainer();
 		if(data != null && data.getSeriesId() != null && !data.getSeriesId().isEmpty())
@@ -96,18 +103,13 @@ final class MerlinDataConverter
 			double[] values = new double[events.size()];
 			int i = 0;
 			boolean needsInterpolation = isInterpolationNeeded(isProcessed, data.getStartTime(), data.getEndTime(), parsedInterval, dataZoneId, events.size());
+			//converts straight from epoch seconds, dense series would otherwise create a ZonedDateTime and HecTime per event
+			HecMinutesConverter hecMinutesConverter = new HecMinutesConverter(dataZoneId);
 			for (EventWrapper event : events)
 			{
-				HecTime hecTime = fromZonedDateTime(event.getDate(), dataZoneId);
-				int time = hecTime.value();
-				times[i] = time;
-				double value = Const.UNDEFINED_DOUBLE;
-				if (event.getValue() != null)
-				{
-					value = event.getValue();
-				}
-				values[i] = value;
-
+				times[i] = hecMinutesConverter.toHecMinutes(event.getDate().toEpochSecond());
+				Double value = event.getValue();
+				values[i] = value == null ? Const.UNDEFINED_DOUBLE : value;
 				i++;
 			}
 
@@ -145,6 +147,47 @@ final class MerlinDataConverter
 		return output;
 	}
 
+	/**
+	 * Streamed windows are converted with the nearest events beyond their bounds, so interpolation fills the regular times across each boundary
+	 * the same as a whole read would. Leaves out what was converted before the window's start and from its end on, or after its end for the last window.
+	 */
+	static TimeSeriesContainer clipToWindow(TimeSeriesContainer output, Instant start, Instant end, boolean includeEnd, ZoneId zoneId, String seriesId)
+			throws NoEventsException
+	{
+		HecMinutesConverter hecMinutesConverter = new HecMinutesConverter(zoneId);
+		int startMinutes = hecMinutesConverter.toHecMinutes(start.getEpochSecond());
+		int endMinutes = hecMinutesConverter.toHecMinutes(end.getEpochSecond());
+		int from = 0;
+		while(from < output.numberValues && output.times[from] < startMinutes)
+		{
+			from++;
+		}
+		int to = from;
+		while(to < output.numberValues && (output.times[to] < endMinutes || (includeEnd && output.times[to] == endMinutes)))
+		{
+			to++;
+		}
+		if(from == to)
+		{
+			throw new NoEventsException(output.fullName, seriesId);
+		}
+		if(from > 0 || to < output.numberValues)
+		{
+			output.times = Arrays.copyOfRange(output.times, from, to);
+			output.values = Arrays.copyOfRange(output.values, from, to);
+			if(output.quality != null)
+			{
+				output.quality = Arrays.copyOfRange(output.quality, from, to);
+			}
+			output.numberValues = to - from;
+			output.startTime = output.times[0];
+			output.endTime = output.times[output.numberValues - 1];
+			output.startHecTime = fromZonedDateTime(ZonedDateTime.ofInstant(start, zoneId), zoneId);
+			output.endHecTime = fromZonedDateTime(ZonedDateTime.ofInstant(end, zoneId), zoneId);
+		}
+		return output;
+	}
+
 	static int getValidTimeStep(String timeStep, String seriesId) throws MerlinInvalidTimestepException
 	{
 		int retVal;
@@ -197,6 +240,25 @@ final class MerlinDataConverter
 	}
 
 	private static TimeSeriesContainer interpolateTimeSeries(TimeSeriesContainer output, int interval, int offsetInMinutes) throws HecMathException
+	{
+		if(isInterpolationKernelEnabled() && RegularIntervalInterpolator.isSupported(interval, output.type)
+				&& RegularIntervalInterpolator.interpolate(output, interval, offsetInMinutes))
+		{
+			output.setStoreAsDoubles(true);
+		}
+		else
+		{
+			output = interpolateTimeSeriesMath(output, interval, offsetInMinutes);
+		}
+		return output;
+	}
+
+	private static boolean isInterpolationKernelEnabled()
+	{
+		return Boolean.parseBoolean(System.getProperty(INTERPOLATION_KERNEL_ENABLED_PROPERTY_KEY, "true"));
+	}
+
+	private static TimeSeriesContainer interpolateTimeSeriesMath(TimeSeriesContainer output, int interval, int offsetInMinutes) throws HecMathException
 	{
 		TimeSeriesMath timeSeriesMath = new TimeSeriesMath(output);
 		HecMath hecMath = timeSeriesMath.interpolateDataAtRegularInterval(interval + "M", offsetInMinutes + "M");
@@ -229,7 +291,7 @@ final class MerlinDataConverter
 	}
 
 
-	private static void convertUnits(TimeSeriesContainer output, String unitSystemToConvertTo, DataWrapper data)
+	private static void convertUnits(TimeSeriesContainer output, String unitSystemToConvertTo, MerlinSeriesData data)
 			throws UnitsConversionException
 	{
 		int convertToUnitSystemId = Unit.UNDEF_ID;
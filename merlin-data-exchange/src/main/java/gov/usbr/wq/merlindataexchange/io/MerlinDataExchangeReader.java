@@ -17,6 +17,7 @@ import hec.ui.ProgressListener;
 
 import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -57,21 +58,97 @@ public abstract class MerlinDataExchangeReader<P extends MerlinParameters, S, T>
         }, executorService);
     }
 
+    @Override
+    public CompletableFuture<T> readData(DataExchangeSet dataExchangeSet, P runtimeParameters, DataStore sourceDataStore, DataStore destDataStore, DataExchangeCache cache,
+                                         MeasureWrapper measure, MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener, AtomicBoolean isCancelled,
+                                         MerlinDataExchangeLogBody logFileLogger, DataExchangePipeline pipeline, AtomicReference<String> readDurationString)
+    {
+        return read(dataExchangeSet, runtimeParameters, WindowRead.WHOLE, sourceDataStore, destDataStore, cache, measure, completionTracker, progressListener, isCancelled,
+                logFileLogger, pipeline, readDurationString);
+    }
+
+    @Override
+    public CompletableFuture<T> readStreamedWindow(DataExchangeSet dataExchangeSet, P windowParameters, WindowRead windowRead, DataStore sourceDataStore,
+                                                   DataStore destDataStore, DataExchangeCache cache, MeasureWrapper measure,
+                                                   MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener, AtomicBoolean isCancelled,
+                                                   MerlinDataExchangeLogBody logFileLogger, DataExchangePipeline pipeline, AtomicReference<String> readDurationString)
+    {
+        return read(dataExchangeSet, windowParameters, windowRead, sourceDataStore, destDataStore, cache, measure,
+                completionTracker, progressListener, isCancelled, logFileLogger, pipeline, readDurationString);
+    }
+
+    private CompletableFuture<T> read(DataExchangeSet dataExchangeSet, P runtimeParameters, WindowRead windowRead, DataStore sourceDataStore, DataStore destDataStore,
+                                      DataExchangeCache cache, MeasureWrapper measure, MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener,
+                                      AtomicBoolean isCancelled, MerlinDataExchangeLogBody logFileLogger, DataExchangePipeline pipeline,
+                                      AtomicReference<String> readDurationString)
+    {
+        String merlinApiRoot = getSourcePath(sourceDataStore, runtimeParameters);
+        Instant start = runtimeParameters.getStart();
+        Instant end = runtimeParameters.getEnd();
+        QualityVersionWrapper qualityVersion = QualityVersionFromSetUtil.getQualityVersionIdFromDataExchangeSet(dataExchangeSet, cache).orElse(null);
+        String unitSystemToConvertTo = dataExchangeSet.getUnitSystem();
+        Integer qualityVersionId = qualityVersion == null ? null : qualityVersion.getQualityVersionID();
+        Executor fetchExecutor = pipeline.getExecutors().getFetchExecutor();
+        return pipeline.read(() ->
+                {
+                    S retVal = null;
+                    try
+                    {
+                        UsernamePasswordHolder usernamePassword = runtimeParameters.getUsernamePasswordForUrl(merlinApiRoot);
+                        retVal = retrieveDataWithToken(usernamePassword, start, end, destDataStore, dataExchangeSet, cache, merlinApiRoot, measure, qualityVersionId,
+                                progressListener, logFileLogger, isCancelled, readDurationString, fetchExecutor, windowRead);
+                    }
+                    catch (UsernamePasswordNotFoundException e)
+                    {
+                        String errorMsg = "Failed to find username/password in parameters for URL: " + merlinApiRoot;
+                        logError(progressListener, logFileLogger, errorMsg, e);
+                    }
+                    return retVal;
+                },
+                data ->
+                {
+                    T retVal = null;
+                    if(data != null && !isCancelled.get())
+                    {
+                        retVal = convertToType(data, destDataStore, unitSystemToConvertTo, runtimeParameters, progressListener, logFileLogger, completionTracker,
+                                measure.isProcessed(), start, end, readDurationString, measure, windowRead);
+                    }
+                    return retVal;
+                });
+    }
+
     protected T retrieveDataAsType(UsernamePasswordHolder usernamePassword, Instant start, Instant end, DataStore dataStore, DataExchangeSet dataExchangeSet,
                                    DataExchangeCache cache, String merlinApiRoot, MeasureWrapper measure, Integer qualityVersionId, ProgressListener progressListener,
                                    MerlinDataExchangeLogBody logFileLogger, AtomicBoolean isCancelled, P runTimeParameters, String unitSystemToConvertTo,
                                    MerlinExchangeCompletionTracker completionTracker, Boolean isProcessed, AtomicReference<String> readDurationString)
     {
         T retVal = null;
+        S data = retrieveDataWithToken(usernamePassword, start, end, dataStore, dataExchangeSet, cache, merlinApiRoot, measure, qualityVersionId, progressListener,
+                logFileLogger, isCancelled, readDurationString, Runnable::run, WindowRead.WHOLE);
+        if(data != null && !isCancelled.get())
+        {
+            retVal = convertToType(data, dataStore, unitSystemToConvertTo, runTimeParameters, progressListener, logFileLogger, completionTracker, isProcessed,
+                    start, end, readDurationString, measure);
+        }
+        return retVal;
+    }
+
+    private S retrieveDataWithToken(UsernamePasswordHolder usernamePassword, Instant start, Instant end, DataStore dataStore, DataExchangeSet dataExchangeSet,
+                                    DataExchangeCache cache, String merlinApiRoot, MeasureWrapper measure, Integer qualityVersionId, ProgressListener progressListener,
+                                    MerlinDataExchangeLogBody logFileLogger, AtomicBoolean isCancelled, AtomicReference<String> readDurationString,
+                                    Executor fetchExecutor, WindowRead windowRead)
+    {
+        S retVal = null;
         try
         {
             TokenRegistry tokenRegistry = TokenRegistry.getRegistry();
             TokenContainer token = tokenRegistry.getToken(new ApiConnectionInfo(merlinApiRoot), usernamePassword.getUsername(), usernamePassword.getPassword());
             Instant readStart = Instant.now();
-            S data = retrieveData(start, end, dataExchangeSet, cache, merlinApiRoot, token, measure, qualityVersionId, dataStore, progressListener, logFileLogger, isCancelled);
+            retVal = retrieveData(start, end, dataExchangeSet, cache, merlinApiRoot, token, measure, qualityVersionId, dataStore, progressListener, logFileLogger, isCancelled,
+                    fetchExecutor, windowRead);
             Instant readEnd = Instant.now();
             readDurationString.set(ReadWriteTimestampUtil.getDuration(readStart, readEnd));
-            if(data == null)
+            if(retVal == null)
             {
                 String errorMsg = "Failed to retrieve data for measure: " + measure.getSeriesString();
                 if(progressListener != null)
@@ -81,10 +158,6 @@ public abstract class MerlinDataExchangeReader<P extends MerlinParameters, S, T>
                 logFileLogger.log(errorMsg);
                 LOGGER.config(() -> errorMsg);
             }
-            else if(!isCancelled.get())
-            {
-                retVal = convertToType(data, dataStore, unitSystemToConvertTo, runTimeParameters, progressListener, logFileLogger, completionTracker, isProcessed, start, end, readDurationString, measure);
-            }
         }
         catch (HttpAccessException e)
         {
@@ -98,10 +171,39 @@ public abstract class MerlinDataExchangeReader<P extends MerlinParameters, S, T>
                                        MerlinDataExchangeLogBody logFileLogger, MerlinExchangeCompletionTracker completionTracker, Boolean isProcessed,
                                        Instant start, Instant end, AtomicReference<String> readDurationString, MeasureWrapper measure);
 
+    /**
+     * Called by {@link #readData} and {@link #readStreamedWindow} in place of the abstract convertToType, so readers can leave out what was read
+     * beyond the bounds of a streamed window, see {@link #retrieveData(Instant, Instant, DataExchangeSet, DataExchangeCache, String, TokenContainer, MeasureWrapper,
+     * Integer, DataStore, ProgressListener, MerlinDataExchangeLogBody, AtomicBoolean, Executor, WindowRead)}.
+     * @param windowRead - whether the time window is read whole or is one of the measure's streamed windows
+     */
+    protected T convertToType(S data, DataStore sourceDataStore, String unitSystemToConvertTo, P parameters, ProgressListener progressListener,
+                              MerlinDataExchangeLogBody logFileLogger, MerlinExchangeCompletionTracker completionTracker, Boolean isProcessed,
+                              Instant start, Instant end, AtomicReference<String> readDurationString, MeasureWrapper measure, WindowRead windowRead)
+    {
+        return convertToType(data, sourceDataStore, unitSystemToConvertTo, parameters, progressListener, logFileLogger, completionTracker, isProcessed, start, end,
+                readDurationString, measure);
+    }
+
     protected abstract S retrieveData(Instant start, Instant end, DataExchangeSet dataExchangeSet, DataExchangeCache cache, String merlinApiRoot, TokenContainer token,
                                       MeasureWrapper measure, Integer qualityVersionId, DataStore sourceDataStore, ProgressListener progressListener,
                                       MerlinDataExchangeLogBody logFileLogger, AtomicBoolean isCancelled);
 
+    /**
+     * Called by {@link #readData} and {@link #readStreamedWindow} in place of the abstract retrieveData, so readers can split a retrieval into requests run concurrently
+     * and read streamed windows as described by {@link DataExchangeReader#readStreamedWindow}. Streamed windows may be read with events beyond their bounds,
+     * so values in the window can be derived from events in the windows around it, as long as the window's conversion leaves them out.
+     * @param fetchExecutor - fetch executor of the run, shared with every other measure being read
+     * @param windowRead - whether the time window is read whole or is one of the measure's streamed windows
+     */
+    protected S retrieveData(Instant start, Instant end, DataExchangeSet dataExchangeSet, DataExchangeCache cache, String merlinApiRoot, TokenContainer token,
+                             MeasureWrapper measure, Integer qualityVersionId, DataStore sourceDataStore, ProgressListener progressListener,
+                             MerlinDataExchangeLogBody logFileLogger, AtomicBoolean isCancelled, Executor fetchExecutor, WindowRead windowRead)
+    {
+        return retrieveData(start, end, dataExchangeSet, cache, merlinApiRoot, token, measure, qualityVersionId, sourceDataStore, progressListener, logFileLogger,
+                isCancelled);
+    }
+
     @Override
     public String getSourcePath(DataStore sourceDataStore, MerlinParameters parameters)
     {
@@ -1,10 +1,9 @@
 package gov.usbr.wq.merlindataexchange.io;
 
-import gov.usbr.wq.dataaccess.MerlinTimeSeriesDataAccess;
 import gov.usbr.wq.dataaccess.http.ApiConnectionInfo;
 import gov.usbr.wq.dataaccess.http.HttpAccessException;
 import gov.usbr.wq.dataaccess.http.TokenContainer;
-import gov.usbr.wq.dataaccess.model.DataWrapper;
+import gov.usbr.wq.dataaccess.model.EventWrapper;
 import gov.usbr.wq.dataaccess.model.MeasureWrapper;
 import gov.usbr.wq.merlindataexchange.DataExchangeCache;
 import gov.usbr.wq.merlindataexchange.MerlinDataExchangeLogBody;
@@ -20,8 +19,10 @@ import hec.heclib.util.HecTime;
 import hec.hecmath.HecMathException;
 import hec.io.TimeSeriesContainer;
 import hec.ui.ProgressListener;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.NavigableSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 import rma.services.annotations.ServiceProvider;
@@ -31,6 +32,7 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
@@ -40,25 +42,41 @@ import static java.util.stream.Collectors.toList;
 
 @ServiceProvider(service = DataExchangeReader.class, position = 100, path = DataExchangeReader.LOOKUP_PATH
         + "/" + MerlinDataExchangeReader.MERLIN + "/" + MerlinDataExchangeTimeSeriesReader.TIMESERIES)
-public final class MerlinDataExchangeTimeSeriesReader extends MerlinDataExchangeReader<MerlinTimeSeriesParameters, DataWrapper, TimeSeriesContainer>
+public final class MerlinDataExchangeTimeSeriesReader extends MerlinDataExchangeReader<MerlinTimeSeriesParameters, MerlinSeriesData, TimeSeriesContainer>
 {
     private static final String AUTO_TYPE = "auto";
     private static final String STEP_TYPE = "step";
     public static final String TIMESERIES = "time-series"; //this corresponds to data-type in set we are reading for
     private static final Logger LOGGER = Logger.getLogger(MerlinDataExchangeTimeSeriesReader.class.getName());
     public static final String DEFAULT_SUPPORTED_TYPES_PROPERTY = "merlin.reader.timeseries.defaultSupportedTypes.csv";
+    public static final String STREAMING_ENABLED_PROPERTY_KEY = "merlin.dataexchange.reader.timeseries.streaming.enabled";
 
     @Override
-    protected TimeSeriesContainer convertToType(DataWrapper data, DataStore sourceDataStore, String unitSystemToConvertTo, MerlinTimeSeriesParameters parameters,
+    protected TimeSeriesContainer convertToType(MerlinSeriesData data, DataStore sourceDataStore, String unitSystemToConvertTo, MerlinTimeSeriesParameters parameters,
                                                 ProgressListener progressListener, MerlinDataExchangeLogBody logFileLogger,
                                                 MerlinExchangeCompletionTracker completionTracker, Boolean isProcessed, Instant start, Instant end, AtomicReference<String> readDurationString,
                                                 MeasureWrapper measure)
+    {
+        return convertToType(data, sourceDataStore, unitSystemToConvertTo, parameters, progressListener, logFileLogger, completionTracker, isProcessed, start, end,
+                readDurationString, measure, WindowRead.WHOLE);
+    }
+
+    @Override
+    protected TimeSeriesContainer convertToType(MerlinSeriesData data, DataStore sourceDataStore, String unitSystemToConvertTo, MerlinTimeSeriesParameters parameters,
+                                                ProgressListener progressListener, MerlinDataExchangeLogBody logFileLogger,
+                                                MerlinExchangeCompletionTracker completionTracker, Boolean isProcessed, Instant start, Instant end, AtomicReference<String> readDurationString,
+                                                MeasureWrapper measure, WindowRead windowRead)
     {
         TimeSeriesContainer retVal = null;
         String fPartOverride = parameters.getFPartOverride();
         try
         {
             retVal =  MerlinDataConverter.dataToTimeSeries(data, unitSystemToConvertTo, fPartOverride, isProcessed, progressListener, measure.getTypeId());
+            if(windowRead.isStreamed())
+            {
+                //the window was read with the events beyond its bounds, they were only needed to interpolate across the boundaries
+                retVal = MerlinDataConverter.clipToWindow(retVal, start, end, windowRead.isLastWindow(end), data.getTimeZone(), data.getSeriesId());
+            }
         }
         catch (MerlinInvalidTimestepException e)
         {
@@ -111,17 +129,33 @@ public final class MerlinDataExchangeTimeSeriesReader extends MerlinDataExchange
     }
 
     @Override
-    protected DataWrapper retrieveData(Instant start, Instant end, DataExchangeSet dataExchangeSet, DataExchangeCache cache, String merlinApiRoot, TokenContainer token, MeasureWrapper measure,
+    protected MerlinSeriesData retrieveData(Instant start, Instant end, DataExchangeSet dataExchangeSet, DataExchangeCache cache, String merlinApiRoot, TokenContainer token, MeasureWrapper measure,
                                        Integer qualityVersionId, DataStore sourceDataStore, ProgressListener progressListener, MerlinDataExchangeLogBody logFileLogger,
                                        AtomicBoolean isCancelled)
     {
-            MerlinTimeSeriesDataAccess access = new MerlinTimeSeriesDataAccess();
-            DataWrapper retVal = null;
+        //without a fetch executor, chunks are fetched one after another on the calling thread
+        return retrieveData(start, end, dataExchangeSet, cache, merlinApiRoot, token, measure, qualityVersionId, sourceDataStore, progressListener, logFileLogger,
+                isCancelled, Runnable::run, WindowRead.WHOLE);
+    }
+
+    @Override
+    protected MerlinSeriesData retrieveData(Instant start, Instant end, DataExchangeSet dataExchangeSet, DataExchangeCache cache, String merlinApiRoot, TokenContainer token, MeasureWrapper measure,
+                                       Integer qualityVersionId, DataStore sourceDataStore, ProgressListener progressListener, MerlinDataExchangeLogBody logFileLogger,
+                                       AtomicBoolean isCancelled, Executor fetchExecutor, WindowRead windowRead)
+    {
+            MerlinSeriesData retVal = null;
             if(!isCancelled.get())
             {
                 try
                 {
-                    retVal = access.getEventsBySeries(new ApiConnectionInfo(merlinApiRoot), token, measure, qualityVersionId, start, end);
+                    //streamed windows are each read once, keeping them in the series store would hold the whole series in memory
+                    ApiConnectionInfo connectionInfo = new ApiConnectionInfo(merlinApiRoot);
+                    retVal = MerlinSeriesChunks.getEventsBySeries(connectionInfo, token, measure, qualityVersionId, start, end, isCancelled,
+                            fetchExecutor, !windowRead.isStreamed());
+                    if(retVal != null && windowRead.isStreamed())
+                    {
+                        retVal = withBoundaryEvents(retVal, connectionInfo, token, measure, qualityVersionId, start, end, isCancelled, windowRead);
+                    }
                 }
                 catch (IOException | HttpAccessException ex)
                 {
@@ -131,6 +165,28 @@ public final class MerlinDataExchangeTimeSeriesReader extends MerlinDataExchange
             return retVal;
     }
 
+    /**
+     * Adds the nearest events outside the streamed window, within the time window being exchanged, so converting the window interpolates
+     * the regular times between its first event and the last one before it, and between its last event and the first one after it.
+     */
+    private static MerlinSeriesData withBoundaryEvents(MerlinSeriesData data, ApiConnectionInfo connectionInfo, TokenContainer token, MeasureWrapper measure,
+                                                       Integer qualityVersionId, Instant start, Instant end, AtomicBoolean isCancelled, WindowRead windowRead)
+            throws IOException, HttpAccessException
+    {
+        NavigableSet<EventWrapper> events = data.getEvents();
+        EventWrapper before = null;
+        EventWrapper after = null;
+        if(events.isEmpty() || events.first().getDate().toInstant().isAfter(start))
+        {
+            before = MerlinSeriesChunks.getNearestEvent(connectionInfo, token, measure, qualityVersionId, start, windowRead.getExchangeStart(), isCancelled);
+        }
+        if(events.isEmpty() || events.last().getDate().toInstant().isBefore(end))
+        {
+            after = MerlinSeriesChunks.getNearestEvent(connectionInfo, token, measure, qualityVersionId, end, windowRead.getExchangeEnd(), isCancelled);
+        }
+        return data.withBoundaryEvents(before, after, start, end);
+    }
+
     @Override
     public List<MeasureWrapper> filterMeasuresToRead(DataExchangeConfiguration dataExchangeConfig, DataExchangeSet dataExchangeSet, List<MeasureWrapper> measures)
     {
@@ -145,6 +201,23 @@ public final class MerlinDataExchangeTimeSeriesReader extends MerlinDataExchange
                 .collect(toList());
     }
 
+    /**
+     * When streaming is enabled, bounded windows holding more values than the chunk budget of {@link MerlinSeriesChunks} are read and written
+     * one chunk at a time, so memory per series scales with the chunk size rather than the window length.
+     */
+    @Override
+    public List<Instant[]> getStreamedWindows(MerlinTimeSeriesParameters runtimeParameters, MeasureWrapper measure)
+    {
+        List<Instant[]> retVal = new ArrayList<>();
+        Instant start = runtimeParameters.getStart();
+        Instant end = runtimeParameters.getEnd();
+        if(start != null && end != null && Boolean.getBoolean(STREAMING_ENABLED_PROPERTY_KEY))
+        {
+            retVal = MerlinSeriesChunks.split(start, end, MeasureCostEstimator.getIntervalMinutes(measure), MerlinSeriesChunks.getChunkMaxEvents());
+        }
+        return retVal;
+    }
+
     @Override
     public Set<String> getDefaultSupportedTypes()
     {
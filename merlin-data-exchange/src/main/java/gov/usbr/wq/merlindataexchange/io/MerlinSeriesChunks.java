@@ -0,0 +1,274 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import gov.usbr.wq.dataaccess.http.ApiConnectionInfo;
+import gov.usbr.wq.dataaccess.http.HttpAccessException;
+import gov.usbr.wq.dataaccess.http.TokenContainer;
+import gov.usbr.wq.dataaccess.model.DataWrapper;
+import gov.usbr.wq.dataaccess.model.EventWrapper;
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Splits long time windows into chunks sized by an event budget derived from the measure's timestep, so a multi-decade series
+ * isn't requested from Merlin in a single response. Chunks are fetched concurrently and stitched back together in time order.
+ * Whole windows are fetched through the {@link MerlinSeriesStore}, so overlapping reads are served from what it holds. Streamed windows
+ * are fetched straight from Merlin through the {@link MerlinSeriesFetcher}, leaving the store untouched. The calling thread fetches chunks along with helpers run on the run's fetch executor. Helpers only take chunks
+ * no one has started, so the caller never waits on a helper still queued behind other fetches, it fetches those chunks itself.
+ */
+final class MerlinSeriesChunks
+{
+    private static final Logger LOGGER = Logger.getLogger(MerlinSeriesChunks.class.getName());
+    static final String CHUNK_ENABLED_PROPERTY_KEY = "merlin.dataexchange.reader.chunk.enabled";
+    static final String CHUNK_MAX_EVENTS_PROPERTY_KEY = "merlin.dataexchange.reader.chunk.maxevents";
+    static final String CHUNK_PARALLELISM_PROPERTY_KEY = "merlin.dataexchange.reader.chunk.parallelism";
+    private static final long DEFAULT_CHUNK_MAX_EVENTS = 100_000;
+    private static final int DEFAULT_CHUNK_PARALLELISM = 4;
+    private static final int NEAREST_EVENT_INITIAL_INTERVALS = 24;
+    private static final Comparator<EventWrapper> EVENT_TIME_ORDER = Comparator.comparing(event -> event.getDate().toInstant());
+
+    private MerlinSeriesChunks()
+    {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * Retrieves the events of a measure between start and end, fetching in chunks when the window holds more events than the chunk budget.
+     * Open-ended windows aren't chunked, since the range they cover isn't known until the data is returned.
+     * @param helperExecutor - executor the helpers fetching chunks alongside the calling thread are run on
+     * @param useStore - false to read straight from Merlin, leaving the {@link MerlinSeriesStore} untouched
+     * @return series data, or null if Merlin returned no data for any chunk
+     */
+    static MerlinSeriesData getEventsBySeries(ApiConnectionInfo connectionInfo, TokenContainer token, MeasureWrapper measure, Integer qualityVersionId,
+                                              Instant start, Instant end, AtomicBoolean isCancelled, Executor helperExecutor, boolean useStore)
+            throws IOException, HttpAccessException
+    {
+        ChunkFetch fetch;
+        if(useStore)
+        {
+            fetch = (chunkStart, chunkEnd) -> MerlinSeriesStore.getInstance().getEventsBySeries(connectionInfo, token, measure, qualityVersionId, chunkStart, chunkEnd);
+        }
+        else
+        {
+            fetch = (chunkStart, chunkEnd) ->
+            {
+                DataWrapper data = MerlinSeriesFetcher.getInstance().getEventsBySeries(connectionInfo, token, measure, qualityVersionId, chunkStart, chunkEnd);
+                return data == null ? null : MerlinSeriesData.fromDataWrapper(data);
+            };
+        }
+        List<Instant[]> chunks = new ArrayList<>();
+        if(start != null && end != null && isEnabled())
+        {
+            chunks = split(start, end, MeasureCostEstimator.getIntervalMinutes(measure), getChunkMaxEvents());
+        }
+        MerlinSeriesData retVal;
+        if(chunks.size() <= 1)
+        {
+            retVal = fetch.fetch(start, end);
+        }
+        else
+        {
+            int chunkCount = chunks.size();
+            LOGGER.log(Level.FINE, () -> "Reading " + measure.getSeriesString() + " in " + chunkCount + " chunks");
+            retVal = getEventsByChunks(chunks, fetch, start, end, isCancelled, helperExecutor);
+        }
+        return retVal;
+    }
+
+    /**
+     * Searches from a streamed window's boundary out towards the limit for the nearest event, straight from Merlin.
+     * The range searched starts at {@value #NEAREST_EVENT_INITIAL_INTERVALS} of the measure's intervals and doubles each time it holds no event,
+     * so a gap in the series costs a few small requests rather than a read of everything up to the limit.
+     * @param boundary - start or end of the window, events before it are searched for when the limit is earlier, otherwise events at or after it
+     * @param limit - start or end of the time window being exchanged, no event beyond it is returned
+     * @return event nearest the boundary on the limit's side, or null if there is none up to the limit
+     */
+    static EventWrapper getNearestEvent(ApiConnectionInfo connectionInfo, TokenContainer token, MeasureWrapper measure, Integer qualityVersionId,
+                                        Instant boundary, Instant limit, AtomicBoolean isCancelled) throws IOException, HttpAccessException
+    {
+        boolean isBefore = limit.isBefore(boundary);
+        Duration searchDuration = Duration.ofMinutes((long) Math.max(MeasureCostEstimator.getIntervalMinutes(measure), 1) * NEAREST_EVENT_INITIAL_INTERVALS);
+        EventWrapper retVal = null;
+        Instant searchedTo = boundary;
+        while(retVal == null && !searchedTo.equals(limit) && !isCancelled.get())
+        {
+            Instant searchTo = isBefore ? searchedTo.minus(searchDuration) : searchedTo.plus(searchDuration);
+            if(isBefore ? searchTo.isBefore(limit) : searchTo.isAfter(limit))
+            {
+                searchTo = limit;
+            }
+            DataWrapper data = MerlinSeriesFetcher.getInstance().getEventsBySeries(connectionInfo, token, measure, qualityVersionId,
+                    isBefore ? searchTo : searchedTo, isBefore ? searchedTo : searchTo);
+            NavigableSet<EventWrapper> events = data == null ? Collections.emptyNavigableSet() : data.getEvents();
+            for(EventWrapper event : events)
+            {
+                Instant time = event.getDate().toInstant();
+                boolean isInRange = isBefore ? time.isBefore(boundary) && !time.isBefore(limit) : !time.isBefore(boundary) && !time.isAfter(limit);
+                if(isInRange && (retVal == null || (isBefore ? time.isAfter(retVal.getDate().toInstant()) : time.isBefore(retVal.getDate().toInstant()))))
+                {
+                    retVal = event;
+                }
+            }
+            searchedTo = searchTo;
+            searchDuration = searchDuration.multipliedBy(2);
+        }
+        return retVal;
+    }
+
+    /**
+     * Adjacent chunks share their boundary, so events exactly on a boundary are fetched whether or not Merlin includes the end of a requested window.
+     * @return the window from start to end split into {start, end} chunks of at most maxEvents values each, in order
+     */
+    static List<Instant[]> split(Instant start, Instant end, int intervalMinutes, long maxEvents)
+    {
+        List<Instant[]> retVal = new ArrayList<>();
+        Duration chunkDuration = Duration.ofMinutes(Math.max(intervalMinutes, 1) * Math.max(maxEvents, 1));
+        Instant chunkStart = start;
+        while(chunkStart.isBefore(end))
+        {
+            Instant chunkEnd = chunkStart.plus(chunkDuration);
+            if(!chunkEnd.isBefore(end))
+            {
+                chunkEnd = end;
+            }
+            retVal.add(new Instant[]{chunkStart, chunkEnd});
+            chunkStart = chunkEnd;
+        }
+        return retVal;
+    }
+
+    /**
+     * @return events of every chunk stitched together, or null if no chunk returned data
+     */
+    static MerlinSeriesData getEventsByChunks(List<Instant[]> chunks, ChunkFetch fetch, Instant start, Instant end, AtomicBoolean isCancelled,
+                                              Executor helperExecutor) throws IOException, HttpAccessException
+    {
+        MerlinSeriesData[] chunkData = new MerlinSeriesData[chunks.size()];
+        Queue<Integer> pendingChunks = new ConcurrentLinkedQueue<>();
+        for(int i = 0; i < chunks.size(); i++)
+        {
+            pendingChunks.add(i);
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch chunksDone = new CountDownLatch(chunks.size());
+        Runnable fetchPending = () ->
+        {
+            Integer chunkIndex;
+            while((chunkIndex = pendingChunks.poll()) != null)
+            {
+                try
+                {
+                    //once a chunk fails or the exchange is cancelled, the chunks left are only counted off
+                    if(failure.get() == null && !isCancelled.get())
+                    {
+                        Instant[] chunk = chunks.get(chunkIndex);
+                        chunkData[chunkIndex] = fetch.fetch(chunk[0], chunk[1]);
+                    }
+                }
+                catch (IOException | HttpAccessException | RuntimeException | Error e)
+                {
+                    failure.compareAndSet(null, e);
+                }
+                finally
+                {
+                    chunksDone.countDown();
+                }
+            }
+        };
+        List<CompletableFuture<Void>> helpers = new ArrayList<>();
+        try
+        {
+            int helperCount = Math.min(getChunkParallelism(), chunks.size()) - 1;
+            for(int i = 0; i < helperCount; i++)
+            {
+                helpers.add(CompletableFuture.runAsync(fetchPending, helperExecutor));
+            }
+        }
+        catch (RejectedExecutionException e)
+        {
+            LOGGER.log(Level.FINE, e, () -> "Fetch executor rejected chunk helper, remaining chunks fetched by the calling thread");
+        }
+        fetchPending.run();
+        try
+        {
+            //only chunks already started by a helper are left, helpers still queued find nothing to fetch
+            chunksDone.await();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new InterruptedIOException("Interrupted while reading chunks"));
+        }
+        finally
+        {
+            helpers.forEach(helper -> helper.cancel(false));
+        }
+        FetchFailureUtil.rethrow(failure.get());
+        return stitch(chunkData, start, end);
+    }
+
+    private static MerlinSeriesData stitch(MerlinSeriesData[] chunkData, Instant start, Instant end)
+    {
+        MerlinSeriesData retVal = null;
+        MerlinSeriesData lastChunk = null;
+        NavigableSet<EventWrapper> events = new TreeSet<>(EVENT_TIME_ORDER);
+        for(MerlinSeriesData data : chunkData)
+        {
+            if(data != null)
+            {
+                //events on a shared boundary are returned by both chunks, the set keeps one per time
+                events.addAll(data.getEvents());
+                lastChunk = data;
+            }
+        }
+        if(lastChunk != null)
+        {
+            ZoneId zoneId = lastChunk.getTimeZone() == null ? ZoneOffset.UTC : lastChunk.getTimeZone();
+            retVal = new MerlinSeriesData(lastChunk.getMetadata(), events, ZonedDateTime.ofInstant(start, zoneId), ZonedDateTime.ofInstant(end, zoneId));
+        }
+        return retVal;
+    }
+
+    private static boolean isEnabled()
+    {
+        return Boolean.parseBoolean(System.getProperty(CHUNK_ENABLED_PROPERTY_KEY, "true"));
+    }
+
+    static long getChunkMaxEvents()
+    {
+        return Long.getLong(CHUNK_MAX_EVENTS_PROPERTY_KEY, DEFAULT_CHUNK_MAX_EVENTS);
+    }
+
+    private static int getChunkParallelism()
+    {
+        return Math.max(Integer.getInteger(CHUNK_PARALLELISM_PROPERTY_KEY, DEFAULT_CHUNK_PARALLELISM), 1);
+    }
+
+    @FunctionalInterface
+    interface ChunkFetch
+    {
+        MerlinSeriesData fetch(Instant start, Instant end) throws IOException, HttpAccessException;
+    }
+}
@@ -0,0 +1,123 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import gov.usbr.wq.dataaccess.model.DataWrapper;
+import gov.usbr.wq.dataaccess.model.EventWrapper;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Events of a Merlin series over a time window, along with the series metadata.
+ * Unlike {@link DataWrapper}, the events don't have to come from a single Merlin response, so cached and newly fetched events can be combined.
+ */
+public final class MerlinSeriesData
+{
+    private final DataWrapper _metadata;
+    private final NavigableSet<EventWrapper> _events;
+    private final ZonedDateTime _startTime;
+    private final ZonedDateTime _endTime;
+
+    MerlinSeriesData(DataWrapper metadata, NavigableSet<EventWrapper> events, ZonedDateTime startTime, ZonedDateTime endTime)
+    {
+        _metadata = metadata;
+        _events = events;
+        _startTime = startTime;
+        _endTime = endTime;
+    }
+
+    static MerlinSeriesData fromDataWrapper(DataWrapper data)
+    {
+        return new MerlinSeriesData(data, data.getEvents(), data.getStartTime(), data.getEndTime());
+    }
+
+    /**
+     * @param before - nearest event before the window, or null if there is none to add
+     * @param after - nearest event at or after the end of the window, or null if there is none to add
+     * @return these events of a streamed window with the events nearest it on either side, over the window from start to end
+     */
+    MerlinSeriesData withBoundaryEvents(EventWrapper before, EventWrapper after, Instant start, Instant end)
+    {
+        NavigableSet<EventWrapper> events = new TreeSet<>(_events.comparator());
+        events.addAll(_events);
+        if(before != null)
+        {
+            events.add(before);
+        }
+        if(after != null)
+        {
+            events.add(after);
+        }
+        //Merlin doesn't always report a time zone, the window bounds are the same instants either way
+        ZoneId zoneId = getTimeZone() == null ? ZoneOffset.UTC : getTimeZone();
+        return new MerlinSeriesData(_metadata, events, ZonedDateTime.ofInstant(start, zoneId), ZonedDateTime.ofInstant(end, zoneId));
+    }
+
+    DataWrapper getMetadata()
+    {
+        return _metadata;
+    }
+
+    public String getSeriesId()
+    {
+        return _metadata.getSeriesId();
+    }
+
+    public String getTimestep()
+    {
+        return _metadata.getTimestep();
+    }
+
+    public String getProject()
+    {
+        return _metadata.getProject();
+    }
+
+    public String getStation()
+    {
+        return _metadata.getStation();
+    }
+
+    public String getMeasurement()
+    {
+        return _metadata.getMeasurement();
+    }
+
+    public String getParameter()
+    {
+        return _metadata.getParameter();
+    }
+
+    public String getUnits()
+    {
+        return _metadata.getUnits();
+    }
+
+    public String getDataType()
+    {
+        return _metadata.getDataType();
+    }
+
+    public ZoneId getTimeZone()
+    {
+        return _metadata.getTimeZone();
+    }
+
+    public NavigableSet<EventWrapper> getEvents()
+    {
+        return _events;
+    }
+
+    public ZonedDateTime getStartTime()
+    {
+        return _startTime;
+    }
+
+    public ZonedDateTime getEndTime()
+    {
+        return _endTime;
+    }
+}
@@ -0,0 +1,200 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import gov.usbr.wq.dataaccess.MerlinTimeSeriesDataAccess;
+import gov.usbr.wq.dataaccess.http.ApiConnectionInfo;
+import gov.usbr.wq.dataaccess.http.HttpAccessException;
+import gov.usbr.wq.dataaccess.http.TokenContainer;
+import gov.usbr.wq.dataaccess.model.DataWrapper;
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Entry point for all Merlin event retrieval done by the data exchange readers.
+ * Requests to each Merlin server go through that server's {@link AdaptiveConcurrencyLimiter}.
+ * Identical requests made while one is in flight wait for it and share its result rather than going to Merlin again.
+ */
+public final class MerlinSeriesFetcher
+{
+    private static final Logger LOGGER = Logger.getLogger(MerlinSeriesFetcher.class.getName());
+    public static final String LIMITER_ENABLED_PROPERTY_KEY = "merlin.dataexchange.reader.limiter.enabled";
+    public static final String LIMITER_INITIAL_PROPERTY_KEY = "merlin.dataexchange.reader.limiter.initial";
+    public static final String LIMITER_MAX_PROPERTY_KEY = "merlin.dataexchange.reader.limiter.max";
+    public static final String COALESCING_ENABLED_PROPERTY_KEY = "merlin.dataexchange.reader.coalescing.enabled";
+    private static final int DEFAULT_INITIAL_LIMIT = 8;
+    private static final int DEFAULT_MAX_LIMIT = 64;
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVER_ERROR = 500;
+    private final Map<ApiConnectionInfo, AdaptiveConcurrencyLimiter> _limiters = new ConcurrentHashMap<>();
+    private final RequestCoalescer<FetchKey, DataWrapper> _inFlightFetches = new RequestCoalescer<>();
+
+    private MerlinSeriesFetcher()
+    {
+    }
+
+    public static MerlinSeriesFetcher getInstance()
+    {
+        return SingletonHelper.INSTANCE;
+    }
+
+    /**
+     * The returned data may be shared with other callers that requested the same series, quality version and window at the same time,
+     * so it must not be modified.
+     */
+    public DataWrapper getEventsBySeries(ApiConnectionInfo connectionInfo, TokenContainer token, MeasureWrapper measure, Integer qualityVersionId,
+                                         Instant start, Instant end) throws IOException, HttpAccessException
+    {
+        DataWrapper retVal;
+        if(Boolean.parseBoolean(System.getProperty(COALESCING_ENABLED_PROPERTY_KEY, "true")))
+        {
+            retVal = getEventsBySeriesCoalesced(connectionInfo, token, measure, qualityVersionId, start, end);
+        }
+        else
+        {
+            retVal = fetchEventsBySeries(connectionInfo, token, measure, qualityVersionId, start, end);
+        }
+        return retVal;
+    }
+
+    private DataWrapper getEventsBySeriesCoalesced(ApiConnectionInfo connectionInfo, TokenContainer token, MeasureWrapper measure, Integer qualityVersionId,
+                                                   Instant start, Instant end) throws IOException, HttpAccessException
+    {
+        FetchKey key = new FetchKey(connectionInfo.getApiRoot(), measure.getSeriesString(), qualityVersionId, start, end);
+        if(_inFlightFetches.isInFlight(key))
+        {
+            LOGGER.log(Level.FINE, () -> "Waiting on in flight request for " + measure.getSeriesString() + " from " + connectionInfo.getApiRoot());
+        }
+        return _inFlightFetches.get(key, () -> fetchEventsBySeries(connectionInfo, token, measure, qualityVersionId, start, end),
+                measure.getSeriesString() + " from " + connectionInfo.getApiRoot());
+    }
+
+    private DataWrapper fetchEventsBySeries(ApiConnectionInfo connectionInfo, TokenContainer token, MeasureWrapper measure, Integer qualityVersionId,
+                                            Instant start, Instant end) throws IOException, HttpAccessException
+    {
+        DataWrapper retVal;
+        if(Boolean.parseBoolean(System.getProperty(LIMITER_ENABLED_PROPERTY_KEY, "true")))
+        {
+            retVal = getEventsBySeriesLimited(connectionInfo, token, measure, qualityVersionId, start, end);
+        }
+        else
+        {
+            retVal = new MerlinTimeSeriesDataAccess().getEventsBySeries(connectionInfo, token, measure, qualityVersionId, start, end);
+        }
+        return retVal;
+    }
+
+    private DataWrapper getEventsBySeriesLimited(ApiConnectionInfo connectionInfo, TokenContainer token, MeasureWrapper measure, Integer qualityVersionId,
+                                                 Instant start, Instant end) throws IOException, HttpAccessException
+    {
+        AdaptiveConcurrencyLimiter limiter = _limiters.computeIfAbsent(connectionInfo, MerlinSeriesFetcher::createLimiter);
+        try
+        {
+            limiter.acquire();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to request " + measure.getSeriesString() + " from " + connectionInfo.getApiRoot());
+        }
+        long requestStart = System.nanoTime();
+        try
+        {
+            DataWrapper retVal = new MerlinTimeSeriesDataAccess().getEventsBySeries(connectionInfo, token, measure, qualityVersionId, start, end);
+            int eventCount = retVal == null ? 0 : retVal.getEvents().size();
+            limiter.onSuccess(System.nanoTime() - requestStart, eventCount);
+            return retVal;
+        }
+        catch (HttpAccessException e)
+        {
+            if(isOverloaded(e))
+            {
+                limiter.onOverload();
+                LOGGER.log(Level.FINE, () -> "Merlin request limit for " + connectionInfo.getApiRoot() + " reduced to " + limiter.getLimit()
+                        + " after error code: " + e.getResponseCode());
+            }
+            else
+            {
+                limiter.onIgnore();
+            }
+            throw e;
+        }
+        catch (IOException e)
+        {
+            limiter.onOverload();
+            LOGGER.log(Level.FINE, () -> "Merlin request limit for " + connectionInfo.getApiRoot() + " reduced to " + limiter.getLimit() + " after I/O error");
+            throw e;
+        }
+        catch (RuntimeException e)
+        {
+            limiter.onIgnore();
+            throw e;
+        }
+    }
+
+    private static boolean isOverloaded(HttpAccessException e)
+    {
+        Integer responseCode = e.getResponseCode();
+        return responseCode != null && (responseCode == TOO_MANY_REQUESTS || responseCode >= SERVER_ERROR);
+    }
+
+    private static AdaptiveConcurrencyLimiter createLimiter(ApiConnectionInfo connectionInfo)
+    {
+        int initialLimit = Integer.getInteger(LIMITER_INITIAL_PROPERTY_KEY, DEFAULT_INITIAL_LIMIT);
+        int maxLimit = Integer.getInteger(LIMITER_MAX_PROPERTY_KEY, DEFAULT_MAX_LIMIT);
+        LOGGER.log(Level.FINE, () -> "Merlin request limiter created for " + connectionInfo.getApiRoot() + " with initial limit of: " + initialLimit
+                + " and max limit of: " + maxLimit);
+        return new AdaptiveConcurrencyLimiter(initialLimit, maxLimit);
+    }
+
+    private static final class FetchKey
+    {
+        private final String _apiRoot;
+        private final String _seriesString;
+        private final Integer _qualityVersionId;
+        private final Instant _start;
+        private final Instant _end;
+
+        private FetchKey(String apiRoot, String seriesString, Integer qualityVersionId, Instant start, Instant end)
+        {
+            _apiRoot = apiRoot;
+            _seriesString = seriesString;
+            _qualityVersionId = qualityVersionId;
+            _start = start;
+            _end = end;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if(this == o)
+            {
+                return true;
+            }
+            if(o == null || getClass() != o.getClass())
+            {
+                return false;
+            }
+            FetchKey that = (FetchKey) o;
+            return Objects.equals(_apiRoot, that._apiRoot) && Objects.equals(_seriesString, that._seriesString)
+                    && Objects.equals(_qualityVersionId, that._qualityVersionId) && Objects.equals(_start, that._start) && Objects.equals(_end, that._end);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(_apiRoot, _seriesString, _qualityVersionId, _start, _end);
+        }
+    }
+
+    private static class SingletonHelper
+    {
+        private static final MerlinSeriesFetcher INSTANCE = new MerlinSeriesFetcher();
+    }
+}
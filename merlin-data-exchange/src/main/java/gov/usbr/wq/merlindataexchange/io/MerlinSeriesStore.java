@@ -0,0 +1,264 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import gov.usbr.wq.dataaccess.http.ApiConnectionInfo;
+import gov.usbr.wq.dataaccess.http.HttpAccessException;
+import gov.usbr.wq.dataaccess.http.TokenContainer;
+import gov.usbr.wq.dataaccess.model.DataWrapper;
+import gov.usbr.wq.dataaccess.model.EventWrapper;
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JVM-wide store of the events retrieved for each (server, series, quality version).
+ * The store records which time ranges of a series have been fetched, so a request for an overlapping window only fetches
+ * the sub-ranges that are missing and combines them with the stored events.
+ * The store is bounded by total number of events, evicting the least recently used series first, and series expire after a time to live
+ * so revised data in Merlin is picked up.
+ * The store outlives the run that filled it, so it is disabled unless System Property {@value #STORE_ENABLED_PROPERTY_KEY} is set to true
+ * by applications that repeatedly extract overlapping windows.
+ */
+public final class MerlinSeriesStore
+{
+    private static final Logger LOGGER = Logger.getLogger(MerlinSeriesStore.class.getName());
+    public static final String STORE_ENABLED_PROPERTY_KEY = "merlin.dataexchange.reader.seriesstore.enabled";
+    public static final String STORE_MAX_EVENTS_PROPERTY_KEY = "merlin.dataexchange.reader.seriesstore.maxevents";
+    public static final String STORE_TTL_MINUTES_PROPERTY_KEY = "merlin.dataexchange.reader.seriesstore.ttl.minutes";
+    private static final long DEFAULT_MAX_EVENTS = 1_000_000;
+    private static final long DEFAULT_TTL_MINUTES = 60;
+    private static final Comparator<EventWrapper> EVENT_TIME_ORDER = Comparator.comparing(event -> event.getDate().toInstant());
+    //access ordered, so iteration starts at the least recently used series
+    private final Map<SeriesKey, StoredSeries> _series = new LinkedHashMap<>(16, 0.75f, true);
+    private long _storedEvents;
+
+    private MerlinSeriesStore()
+    {
+    }
+
+    public static MerlinSeriesStore getInstance()
+    {
+        return SingletonHelper.INSTANCE;
+    }
+
+    /**
+     * Retrieves the events of a measure between start and end, fetching from Merlin only the parts of the window that aren't stored.
+     * Open-ended windows are always fetched from Merlin, since the range they cover isn't known until the data is returned.
+     * @return series data, or null if Merlin returned no data
+     */
+    MerlinSeriesData getEventsBySeries(ApiConnectionInfo connectionInfo, TokenContainer token, MeasureWrapper measure, Integer qualityVersionId,
+                                       Instant start, Instant end) throws IOException, HttpAccessException
+    {
+        MerlinSeriesData retVal;
+        if(start == null || end == null || !start.isBefore(end) || !isEnabled())
+        {
+            DataWrapper data = MerlinSeriesFetcher.getInstance().getEventsBySeries(connectionInfo, token, measure, qualityVersionId, start, end);
+            retVal = data == null ? null : MerlinSeriesData.fromDataWrapper(data);
+        }
+        else
+        {
+            retVal = getEventsBySeriesStored(connectionInfo, token, measure, qualityVersionId, start, end);
+        }
+        return retVal;
+    }
+
+    private MerlinSeriesData getEventsBySeriesStored(ApiConnectionInfo connectionInfo, TokenContainer token, MeasureWrapper measure, Integer qualityVersionId,
+                                                     Instant start, Instant end) throws IOException, HttpAccessException
+    {
+        SeriesKey key = new SeriesKey(connectionInfo.getApiRoot(), measure.getSeriesString(), qualityVersionId);
+        List<Instant[]> missingRanges;
+        NavigableMap<Instant, EventWrapper> storedEvents;
+        DataWrapper metadata;
+        synchronized (this)
+        {
+            StoredSeries storedSeries = getUnexpiredSeries(key);
+            if(storedSeries == null)
+            {
+                missingRanges = new ArrayList<>();
+                missingRanges.add(new Instant[]{start, end});
+                storedEvents = new TreeMap<>();
+                metadata = null;
+            }
+            else
+            {
+                missingRanges = storedSeries._ranges.getMissingRanges(start, end);
+                //copied so the result doesn't depend on the series being evicted while the missing ranges are fetched
+                storedEvents = new TreeMap<>(storedSeries._events.subMap(start, true, end, true));
+                metadata = storedSeries._metadata;
+            }
+        }
+        MerlinSeriesData retVal;
+        if(missingRanges.size() == 1 && missingRanges.get(0)[0].equals(start) && missingRanges.get(0)[1].equals(end))
+        {
+            //nothing useful stored, hand back the response as is
+            DataWrapper data = MerlinSeriesFetcher.getInstance().getEventsBySeries(connectionInfo, token, measure, qualityVersionId, start, end);
+            retVal = null;
+            if(data != null)
+            {
+                store(key, data, start, end);
+                retVal = MerlinSeriesData.fromDataWrapper(data);
+            }
+        }
+        else
+        {
+            retVal = null;
+            boolean fetchFailed = false;
+            for(Iterator<Instant[]> missingRangeIter = missingRanges.iterator(); missingRangeIter.hasNext() && !fetchFailed; )
+            {
+                Instant[] missingRange = missingRangeIter.next();
+                DataWrapper data = MerlinSeriesFetcher.getInstance().getEventsBySeries(connectionInfo, token, measure, qualityVersionId, missingRange[0], missingRange[1]);
+                fetchFailed = data == null;
+                if(!fetchFailed)
+                {
+                    store(key, data, missingRange[0], missingRange[1]);
+                    data.getEvents().forEach(event -> storedEvents.put(event.getDate().toInstant(), event));
+                    metadata = data;
+                }
+            }
+            if(!fetchFailed)
+            {
+                int fetchedRanges = missingRanges.size();
+                LOGGER.log(Level.FINE, () -> "Read " + measure.getSeriesString() + " from series store with " + fetchedRanges + " missing ranges fetched from Merlin");
+                NavigableSet<EventWrapper> events = new TreeSet<>(EVENT_TIME_ORDER);
+                events.addAll(storedEvents.values());
+                //Merlin doesn't always report a time zone, the window bounds are the same instants either way
+                ZoneId zoneId = metadata.getTimeZone() == null ? ZoneOffset.UTC : metadata.getTimeZone();
+                retVal = new MerlinSeriesData(metadata, events, ZonedDateTime.ofInstant(start, zoneId), ZonedDateTime.ofInstant(end, zoneId));
+            }
+        }
+        return retVal;
+    }
+
+    private synchronized void store(SeriesKey key, DataWrapper data, Instant start, Instant end)
+    {
+        long maxEvents = getMaxEvents();
+        StoredSeries storedSeries = getUnexpiredSeries(key);
+        if(storedSeries == null)
+        {
+            storedSeries = new StoredSeries();
+            _series.put(key, storedSeries);
+        }
+        int eventsBefore = storedSeries._events.size();
+        storedSeries._metadata = data;
+        for(EventWrapper event : data.getEvents())
+        {
+            storedSeries._events.put(event.getDate().toInstant(), event);
+        }
+        storedSeries._ranges.add(start, end);
+        _storedEvents += storedSeries._events.size() - eventsBefore;
+        Iterator<StoredSeries> leastRecentlyUsed = _series.values().iterator();
+        while(_storedEvents > maxEvents && leastRecentlyUsed.hasNext())
+        {
+            StoredSeries evicted = leastRecentlyUsed.next();
+            _storedEvents -= evicted._events.size();
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    private StoredSeries getUnexpiredSeries(SeriesKey key)
+    {
+        StoredSeries retVal = _series.get(key);
+        if(retVal != null && retVal._created.plus(getTimeToLive()).isBefore(Instant.now()))
+        {
+            _series.remove(key);
+            _storedEvents -= retVal._events.size();
+            retVal = null;
+        }
+        return retVal;
+    }
+
+    /**
+     * Drops all stored series.
+     */
+    public synchronized void invalidateAll()
+    {
+        _series.clear();
+        _storedEvents = 0;
+    }
+
+    public synchronized long getStoredEventCount()
+    {
+        return _storedEvents;
+    }
+
+    private static boolean isEnabled()
+    {
+        return Boolean.parseBoolean(System.getProperty(STORE_ENABLED_PROPERTY_KEY, "false"));
+    }
+
+    private static long getMaxEvents()
+    {
+        return Long.getLong(STORE_MAX_EVENTS_PROPERTY_KEY, DEFAULT_MAX_EVENTS);
+    }
+
+    private static Duration getTimeToLive()
+    {
+        return Duration.ofMinutes(Long.getLong(STORE_TTL_MINUTES_PROPERTY_KEY, DEFAULT_TTL_MINUTES));
+    }
+
+    private static final class StoredSeries
+    {
+        private final Instant _created = Instant.now();
+        private final NavigableMap<Instant, EventWrapper> _events = new TreeMap<>();
+        private final FetchedRanges _ranges = new FetchedRanges();
+        private DataWrapper _metadata;
+    }
+
+    private static final class SeriesKey
+    {
+        private final String _apiRoot;
+        private final String _seriesString;
+        private final Integer _qualityVersionId;
+
+        private SeriesKey(String apiRoot, String seriesString, Integer qualityVersionId)
+        {
+            _apiRoot = apiRoot;
+            _seriesString = seriesString;
+            _qualityVersionId = qualityVersionId;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if(this == o)
+            {
+                return true;
+            }
+            if(o == null || getClass() != o.getClass())
+            {
+                return false;
+            }
+            SeriesKey that = (SeriesKey) o;
+            return Objects.equals(_apiRoot, that._apiRoot) && Objects.equals(_seriesString, that._seriesString)
+                    && Objects.equals(_qualityVersionId, that._qualityVersionId);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(_apiRoot, _seriesString, _qualityVersionId);
+        }
+    }
+
+    private static class SingletonHelper
+    {
+        private static final MerlinSeriesStore INSTANCE = new MerlinSeriesStore();
+    }
+}
@@ -1,9 +1,14 @@
 package gov.usbr.wq.merlindataexchange.io;
 
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public final class ReadWriteLockManager
 {
 
     private final CloseableReentrantLock _closeableReentrantLock = new CloseableReentrantLock();
+    private final Map<Path, CloseableReentrantLock> _destinationLocks = new ConcurrentHashMap<>();
 
     private ReadWriteLockManager()
     {
@@ -14,11 +19,22 @@ public final class ReadWriteLockManager
         return SingletonHelper.INSTANCE;
     }
 
+    /**
+     * @return lock shared by every caller in the JVM. Prefer {@link #getCloseableLock(Path)} for writes, so writes to different files don't wait on each other.
+     */
     public CloseableReentrantLock getCloseableLock()
     {
         return _closeableReentrantLock;
     }
 
+    /**
+     * @return lock for a single destination file. Paths resolving to the same absolute, normalized path share a lock.
+     */
+    public CloseableReentrantLock getCloseableLock(Path destinationPath)
+    {
+        return _destinationLocks.computeIfAbsent(destinationPath.toAbsolutePath().normalize(), path -> new CloseableReentrantLock());
+    }
+
     private static class SingletonHelper
     {
         private static final ReadWriteLockManager INSTANCE = new ReadWriteLockManager();
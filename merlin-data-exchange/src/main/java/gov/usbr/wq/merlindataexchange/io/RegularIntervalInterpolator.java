@@ -0,0 +1,127 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import hec.io.TimeSeriesContainer;
+import hec.lang.Const;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Single pass interpolation of irregular times and values onto a regular interval, working directly on the primitive arrays.
+ * Instantaneous values and cumulative totals are interpolated linearly between the surrounding values, matching HEC math.
+ * A regular time falling next to a missing value is missing. Only intervals that evenly divide a day are handled, since their
+ * regular times line up with HEC minute values. Period data and calendar intervals are left to HEC math, which accounts for
+ * the values spanning each period.
+ */
+final class RegularIntervalInterpolator
+{
+    private static final int MINUTES_PER_DAY = 1440;
+    private static final Set<String> SUPPORTED_TYPES = new HashSet<>(Arrays.asList("INST-VAL", "INST-CUM"));
+
+    private RegularIntervalInterpolator()
+    {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * @return true if the interval and data type can be interpolated by {@link #interpolate}
+     */
+    static boolean isSupported(int intervalMinutes, String dataType)
+    {
+        return intervalMinutes > 0 && MINUTES_PER_DAY % intervalMinutes == 0 && dataType != null
+                && SUPPORTED_TYPES.contains(dataType.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Replaces the container's times and values with values at each regular time from its first time to its last.
+     * @return false, leaving the container unchanged, if no regular time falls between its first and last times
+     */
+    static boolean interpolate(TimeSeriesContainer timeSeriesContainer, int intervalMinutes, int offsetMinutes)
+    {
+        boolean retVal = false;
+        int[] times = timeSeriesContainer.times;
+        if(times != null && times.length > 0)
+        {
+            int[] regularTimes = getRegularTimes(times[0], times[times.length - 1], intervalMinutes, offsetMinutes);
+            if(regularTimes.length > 0)
+            {
+                timeSeriesContainer.values = interpolateValues(times, timeSeriesContainer.values, regularTimes);
+                timeSeriesContainer.times = regularTimes;
+                timeSeriesContainer.quality = null;
+                timeSeriesContainer.numberValues = regularTimes.length;
+                timeSeriesContainer.interval = intervalMinutes;
+                retVal = true;
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return times from first to last, inclusive, that are the offset past a multiple of the interval
+     */
+    static int[] getRegularTimes(int first, int last, int intervalMinutes, int offsetMinutes)
+    {
+        int offset = Math.floorMod(offsetMinutes, intervalMinutes);
+        long firstRegular = first - Math.floorMod(first - offset, intervalMinutes);
+        if(firstRegular < first)
+        {
+            firstRegular += intervalMinutes;
+        }
+        int count = firstRegular > last ? 0 : (int) ((last - firstRegular) / intervalMinutes + 1);
+        int[] retVal = new int[count];
+        for(int i = 0; i < count; i++)
+        {
+            retVal[i] = (int) (firstRegular + (long) i * intervalMinutes);
+        }
+        return retVal;
+    }
+
+    /**
+     * @param times - ascending irregular times
+     * @param values - values at the irregular times, {@link Const#UNDEFINED_DOUBLE} when missing
+     * @param regularTimes - ascending times to interpolate at, all within the irregular times
+     */
+    static double[] interpolateValues(int[] times, double[] values, int[] regularTimes)
+    {
+        double[] retVal = new double[regularTimes.length];
+        int next = 0;
+        for(int i = 0; i < regularTimes.length; i++)
+        {
+            int regularTime = regularTimes[i];
+            //times only move forward, so the search continues from where the last regular time left off
+            while(next < times.length - 1 && times[next] < regularTime)
+            {
+                next++;
+            }
+            double value;
+            if(times[next] == regularTime)
+            {
+                value = values[next];
+            }
+            else
+            {
+                int previous = next - 1;
+                double previousValue = values[previous];
+                double nextValue = values[next];
+                if(isMissing(previousValue) || isMissing(nextValue))
+                {
+                    value = Const.UNDEFINED_DOUBLE;
+                }
+                else
+                {
+                    double fraction = (double) (regularTime - times[previous]) / (times[next] - times[previous]);
+                    value = previousValue + (nextValue - previousValue) * fraction;
+                }
+            }
+            retVal[i] = value;
+        }
+        return retVal;
+    }
+
+    private static boolean isMissing(double value)
+    {
+        return value == Const.UNDEFINED_DOUBLE || Double.isNaN(value);
+    }
+}
@@ -0,0 +1,86 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import gov.usbr.wq.dataaccess.http.HttpAccessException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Shares one request between callers asking for the same key at the same time.
+ * The first caller runs the request on its own thread, callers arriving while it is in flight wait for it and get the same result,
+ * or the same failure. A request is only shared while it is in flight, nothing is kept once it completes.
+ */
+final class RequestCoalescer<K, V>
+{
+    private final Map<K, CompletableFuture<V>> _inFlightRequests = new ConcurrentHashMap<>();
+
+    /**
+     * @param description - what is being requested, used in the message if interrupted while waiting
+     * @return result of the in flight request for the key, or of the given request if none is in flight
+     */
+    V get(K key, Request<V> request, String description) throws IOException, HttpAccessException
+    {
+        CompletableFuture<V> ownRequest = new CompletableFuture<>();
+        CompletableFuture<V> inFlightRequest = _inFlightRequests.putIfAbsent(key, ownRequest);
+        V retVal;
+        if(inFlightRequest == null)
+        {
+            try
+            {
+                retVal = request.run();
+                ownRequest.complete(retVal);
+            }
+            catch (IOException | HttpAccessException | RuntimeException | Error e)
+            {
+                ownRequest.completeExceptionally(e);
+                throw e;
+            }
+            finally
+            {
+                _inFlightRequests.remove(key, ownRequest);
+            }
+        }
+        else
+        {
+            retVal = await(inFlightRequest, description);
+        }
+        return retVal;
+    }
+
+    /**
+     * @return true if a request for the key is in flight
+     */
+    boolean isInFlight(K key)
+    {
+        return _inFlightRequests.containsKey(key);
+    }
+
+    private static <V> V await(CompletableFuture<V> inFlightRequest, String description) throws IOException, HttpAccessException
+    {
+        V retVal = null;
+        try
+        {
+            retVal = inFlightRequest.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting on request for " + description);
+        }
+        catch (ExecutionException e)
+        {
+            FetchFailureUtil.rethrow(e.getCause());
+        }
+        return retVal;
+    }
+
+    @FunctionalInterface
+    interface Request<V>
+    {
+        V run() throws IOException, HttpAccessException;
+    }
+}
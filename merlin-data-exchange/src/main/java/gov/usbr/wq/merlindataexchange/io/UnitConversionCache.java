@@ -0,0 +1,183 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import hec.data.Units;
+import hec.data.UnitsConversionException;
+import hec.lang.Const;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JVM-wide cache of unit conversions, resolved once per (from units, to units) pair.
+ * Conversions are probed with HEC units and kept as a linear factor and offset, so converting a series is a loop over its values
+ * rather than a HEC units lookup per value. Conversions that don't probe as linear are left to HEC units for each value.
+ */
+public final class UnitConversionCache
+{
+    private static final Logger LOGGER = Logger.getLogger(UnitConversionCache.class.getName());
+    private static final double LINEAR_PROBE_VALUE = 1000.0;
+    private static final double LINEAR_TOLERANCE = 1e-9;
+    private final Map<UnitPair, UnitConverter> _converters = new ConcurrentHashMap<>();
+
+    private UnitConversionCache()
+    {
+    }
+
+    public static UnitConversionCache getInstance()
+    {
+        return SingletonHelper.INSTANCE;
+    }
+
+    /**
+     * @return converter from one unit to another, resolved on first use of the pair
+     * @throws UnitsConversionException if HEC units can't convert between the two
+     */
+    public UnitConverter getConverter(String unitsFrom, String unitsTo) throws UnitsConversionException
+    {
+        UnitPair unitPair = new UnitPair(unitsFrom, unitsTo);
+        UnitConverter retVal = _converters.get(unitPair);
+        if(retVal == null)
+        {
+            retVal = resolveConverter(unitsFrom, unitsTo);
+            UnitConverter resolved = _converters.putIfAbsent(unitPair, retVal);
+            if(resolved != null)
+            {
+                retVal = resolved;
+            }
+        }
+        return retVal;
+    }
+
+    private static UnitConverter resolveConverter(String unitsFrom, String unitsTo) throws UnitsConversionException
+    {
+        UnitConverter retVal;
+        if(unitsFrom.equalsIgnoreCase(unitsTo))
+        {
+            retVal = new UnitConverter(unitsFrom, unitsTo, 1.0, 0.0, true);
+        }
+        else
+        {
+            double offset = Units.convertUnits(0.0, unitsFrom, unitsTo);
+            double factor = Units.convertUnits(1.0, unitsFrom, unitsTo) - offset;
+            double probed = Units.convertUnits(LINEAR_PROBE_VALUE, unitsFrom, unitsTo);
+            double expected = offset + factor * LINEAR_PROBE_VALUE;
+            boolean linear = Math.abs(probed - expected) <= LINEAR_TOLERANCE * Math.max(Math.abs(probed), 1.0);
+            if(!linear)
+            {
+                LOGGER.log(Level.FINE, () -> "Unit conversion from " + unitsFrom + " to " + unitsTo + " is not linear, converting each value with HEC units");
+            }
+            retVal = new UnitConverter(unitsFrom, unitsTo, factor, offset, linear);
+        }
+        return retVal;
+    }
+
+    /**
+     * Resolved conversion between two units. Missing values are left as they are.
+     */
+    public static final class UnitConverter
+    {
+        private final String _unitsFrom;
+        private final String _unitsTo;
+        private final double _factor;
+        private final double _offset;
+        private final boolean _linear;
+
+        private UnitConverter(String unitsFrom, String unitsTo, double factor, double offset, boolean linear)
+        {
+            _unitsFrom = unitsFrom;
+            _unitsTo = unitsTo;
+            _factor = factor;
+            _offset = offset;
+            _linear = linear;
+        }
+
+        public double convert(double value) throws UnitsConversionException
+        {
+            double retVal = value;
+            if(!isMissing(value))
+            {
+                retVal = _linear ? value * _factor + _offset : Units.convertUnits(value, _unitsFrom, _unitsTo);
+            }
+            return retVal;
+        }
+
+        /**
+         * Converts the values in place.
+         */
+        public void convert(double[] values) throws UnitsConversionException
+        {
+            if(_linear)
+            {
+                if(_factor != 1.0 || _offset != 0.0)
+                {
+                    for(int i = 0; i < values.length; i++)
+                    {
+                        double value = values[i];
+                        if(!isMissing(value))
+                        {
+                            values[i] = value * _factor + _offset;
+                        }
+                    }
+                }
+            }
+            else
+            {
+                for(int i = 0; i < values.length; i++)
+                {
+                    values[i] = convert(values[i]);
+                }
+            }
+        }
+
+        public boolean isLinear()
+        {
+            return _linear;
+        }
+
+        private static boolean isMissing(double value)
+        {
+            return value == Const.UNDEFINED_DOUBLE || Double.isNaN(value);
+        }
+    }
+
+    private static final class UnitPair
+    {
+        private final String _unitsFrom;
+        private final String _unitsTo;
+
+        private UnitPair(String unitsFrom, String unitsTo)
+        {
+            _unitsFrom = unitsFrom;
+            _unitsTo = unitsTo;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if(this == o)
+            {
+                return true;
+            }
+            if(o == null || getClass() != o.getClass())
+            {
+                return false;
+            }
+            UnitPair that = (UnitPair) o;
+            return Objects.equals(_unitsFrom, that._unitsFrom) && Objects.equals(_unitsTo, that._unitsTo);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(_unitsFrom, _unitsTo);
+        }
+    }
+
+    private static class SingletonHelper
+    {
+        private static final UnitConversionCache INSTANCE = new UnitConversionCache();
+    }
+}
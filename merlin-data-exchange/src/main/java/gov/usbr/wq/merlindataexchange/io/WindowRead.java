@@ -0,0 +1,61 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import java.time.Instant;
+
+/**
+ * How a measure's time window is being read, see {@link DataExchangeReader#getStreamedWindows}.
+ */
+public final class WindowRead
+{
+    /**
+     * The whole time window is read in one piece.
+     */
+    public static final WindowRead WHOLE = new WindowRead(null, null);
+    private final Instant _exchangeStart;
+    private final Instant _exchangeEnd;
+
+    private WindowRead(Instant exchangeStart, Instant exchangeEnd)
+    {
+        _exchangeStart = exchangeStart;
+        _exchangeEnd = exchangeEnd;
+    }
+
+    /**
+     * @return read of one of the streamed windows the time window being exchanged, from start to end, is split into
+     */
+    public static WindowRead streamed(Instant exchangeStart, Instant exchangeEnd)
+    {
+        return new WindowRead(exchangeStart, exchangeEnd);
+    }
+
+    public boolean isStreamed()
+    {
+        return this != WHOLE;
+    }
+
+    /**
+     * @return start of the time window being exchanged, or null if it is read whole
+     */
+    public Instant getExchangeStart()
+    {
+        return _exchangeStart;
+    }
+
+    /**
+     * @return end of the time window being exchanged, or null if it is read whole
+     */
+    public Instant getExchangeEnd()
+    {
+        return _exchangeEnd;
+    }
+
+    /**
+     * Streamed windows are written up to their end, events at the end are written with the next window.
+     * The last window is written up to and including its end.
+     * @return true if the streamed window ending at the given time is the last of the time window being exchanged
+     */
+    public boolean isLastWindow(Instant windowEnd)
+    {
+        return isStreamed() && !windowEnd.isBefore(_exchangeEnd);
+    }
+}
@@ -55,30 +55,30 @@ public final class CsvDssProfileWriter implements DataExchangeWriter<MerlinProfi
     public void writeData(ProfileSampleSet profileSamples, MeasureWrapper measure, DataExchangeSet set, MerlinProfileParameters runtimeParameters,
                           DataExchangeCache cache, DataStore destinationDataStore, MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener,
                           MerlinDataExchangeLogBody logFileLogger, AtomicBoolean isCancelled, AtomicReference<String> readDurationString)
+    {
+        writeDataAndConfirm(profileSamples, measure, set, runtimeParameters, cache, destinationDataStore, completionTracker, progressListener, logFileLogger,
+                isCancelled, readDurationString);
+    }
+
+    @Override
+    public boolean writeDataAndConfirm(ProfileSampleSet profileSamples, MeasureWrapper measure, DataExchangeSet set, MerlinProfileParameters runtimeParameters,
+                                       DataExchangeCache cache, DataStore destinationDataStore, MerlinExchangeCompletionTracker completionTracker,
+                                       ProgressListener progressListener, MerlinDataExchangeLogBody logFileLogger, AtomicBoolean isCancelled,
+                                       AtomicReference<String> readDurationString)
     {
         if(profileSamples == null)
         {
-            return;
+            return false;
         }
         String csvWritePath = getDestinationPath(destinationDataStore, runtimeParameters);
         boolean useSingleThreading = isSingleThreaded();
-        Instant writeStart;
-        Instant writeEnd;
-        List<Path> csvWritePaths;
-        if(useSingleThreading)
-        {
-            try(CloseableReentrantLock lock = ReadWriteLockManager.getInstance().getCloseableLock().lockIt())
-            {
-                writeStart = Instant.now();
-                csvWritePaths = writeCsv(profileSamples, csvWritePath, measure, set, cache, completionTracker, logFileLogger, progressListener, readDurationString);
-                writeEnd = Instant.now();
-            }
-        }
-        else
+        Instant writeStart = Instant.now();
+        List<Path> csvWritePaths = writeCsv(profileSamples, csvWritePath, measure, set, cache, completionTracker, logFileLogger, progressListener, readDurationString,
+                useSingleThreading);
+        Instant writeEnd = Instant.now();
+        if(csvWritePaths == null)
         {
-            writeStart = Instant.now();
-            csvWritePaths = writeCsv(profileSamples, csvWritePath, measure, set, cache, completionTracker, logFileLogger, progressListener, readDurationString);
-            writeEnd = Instant.now();
+            return false;
         }
         List<String> pathStrings = csvWritePaths.stream().map(Path::toString).collect(toList());
         String successMsg = "Write to " + String.join(",\n", pathStrings) + " from " + measure.getSeriesString() + ReadWriteTimestampUtil.getDuration(writeStart, writeEnd);
@@ -92,12 +92,23 @@ public final class CsvDssProfileWriter implements DataExchangeWriter<MerlinProfi
         }
         logFileLogger.log(successMsg);
         LOGGER.config(() -> successMsg);
+        return true;
+    }
 
+    @Override
+    public Instant getLastEventTime(ProfileSampleSet profileSamples)
+    {
+        Instant retVal = null;
+        if(profileSamples != null && !profileSamples.isEmpty())
+        {
+            retVal = profileSamples.last().getDateTime().toInstant();
+        }
+        return retVal;
     }
 
     private List<Path> writeCsv(ProfileSampleSet profileSamples, String csvWritePath, MeasureWrapper measure, DataExchangeSet set, DataExchangeCache cache,
                                 MerlinExchangeCompletionTracker completionTracker, MerlinDataExchangeLogBody logFileLogger, ProgressListener progressListener,
-                                AtomicReference<String> readDurationString)
+                                AtomicReference<String> readDurationString, boolean useSingleThreading)
     {
         List<Path> writePaths = new ArrayList<>();
         List<String> seriesIdList = ProfileMeasuresUtil.getMeasuresListForDepthMeasure(measure, set, cache)
@@ -107,11 +118,7 @@ public final class CsvDssProfileWriter implements DataExchangeWriter<MerlinProfi
         String seriesIdsString = String.join(",\n", seriesIdList);
         try
         {
-            int totalSize = profileSamples.stream()
-                    .mapToInt(sample -> sample.getConstituents().stream()
-                        .mapToInt(cdl -> cdl.getDataValues().size())
-                        .sum())
-                    .sum();
+            int totalSize = profileSamples.getNumberOfValues();
             String progressMsg = "Read " + seriesIdsString + " | Is processed: "
                     + measure.isProcessed() + " | Values read: " + totalSize + readDurationString;
             logFileLogger.log(progressMsg);
@@ -126,17 +133,29 @@ public final class CsvDssProfileWriter implements DataExchangeWriter<MerlinProfi
             {
                 Integer year = entry.getKey();
                 SortedSet<ProfileSample> samples = entry.getValue();
-                String csvWritePathWithYear = csvWritePath.replace(YEAR_TAG, String.valueOf(year));
                 String station = profileSamples.getStation();
                 if(station != null)
                 {
                     station = station.replace(" ", "_");
-                    csvWritePathWithYear = csvWritePathWithYear.replace(STATION_TAG, station);
                 }
-                Path writePath = Paths.get(csvWritePathWithYear);
-                CsvProfileObjectMapper.serializeDataToCsvFile(writePath, samples);
+                Path writePath = getYearWritePath(csvWritePath, year, station);
+                Path dssWritePath = Paths.get(writePath.toString().replace(".csv", ".dss"));
+                if(useSingleThreading)
+                {
+                    //locked on the files actually written, always CSV before DSS so writers sharing either file can't deadlock
+                    try(CloseableReentrantLock csvLock = ReadWriteLockManager.getInstance().getCloseableLock(writePath).lockIt();
+                        CloseableReentrantLock dssLock = ReadWriteLockManager.getInstance().getCloseableLock(dssWritePath).lockIt())
+                    {
+                        CsvProfileObjectMapper.serializeDataToCsvFile(writePath, samples);
+                        writeToDss(dssWritePath, samples, station);
+                    }
+                }
+                else
+                {
+                    CsvProfileObjectMapper.serializeDataToCsvFile(writePath, samples);
+                    writeToDss(dssWritePath, samples, station);
+                }
                 writePaths.add(writePath);
-                writeToDss(Paths.get(writePath.toString().replace(".csv", ".dss")), samples, station);
             }
         }
         catch (IOException e)
@@ -148,10 +167,25 @@ public final class CsvDssProfileWriter implements DataExchangeWriter<MerlinProfi
             }
             logFileLogger.log(failMsg);
             LOGGER.config(() -> failMsg);
+            writePaths = null;
         }
         return writePaths;
     }
 
+    /**
+     * @param station - station with spaces replaced, or null to leave the station tag in place
+     * @return path of the CSV file written for one year of a station's samples
+     */
+    static Path getYearWritePath(String csvWritePath, int year, String station)
+    {
+        String csvWritePathWithYear = csvWritePath.replace(YEAR_TAG, String.valueOf(year));
+        if(station != null)
+        {
+            csvWritePathWithYear = csvWritePathWithYear.replace(STATION_TAG, station);
+        }
+        return Paths.get(csvWritePathWithYear);
+    }
+
     private void writeToDss(Path writePath, SortedSet<ProfileSample> samples, String station)
     {
         for(ProfileSample sample : samples)
@@ -170,18 +204,18 @@ public final class CsvDssProfileWriter implements DataExchangeWriter<MerlinProfi
                 if(nonDepthConstituent != null)
                 {
                     ProfileConstituent depthConstituent = depthConstituentOpt.get();
-                    pdc.setNumberOrdinates(depthConstituent.getDataValues().size());
+                    pdc.setNumberOrdinates(depthConstituent.size());
                     pdc.xunits = depthConstituent.getUnit();
                     pdc.xparameter = depthConstituent.getParameter().toUpperCase();
                     pdc.yparameter = nonDepthConstituent.getParameter().toUpperCase();
                     pdc.yunits = nonDepthConstituent.getUnit();
-                    double[] depths = toDoubleArray(depthConstituent.getDataValues());
+                    double[] depths = depthConstituent.toValues();
                     List<double[]> yValList = new ArrayList<>();
                     for (ProfileConstituent constituent: sample.getConstituents())
                     {
                         if(!constituent.getParameter().equalsIgnoreCase(DataStoreProfile.DEPTH))
                         {
-                            double[] values = toDoubleArray(constituent.getDataValues());
+                            double[] values = constituent.toValues();
                             yValList.add(values);
                         }
                     }
@@ -216,16 +250,6 @@ public final class CsvDssProfileWriter implements DataExchangeWriter<MerlinProfi
         return retVal;
     }
 
-    private double[] toDoubleArray(List<Double> dataValues)
-    {
-        double[] retVal = new double[dataValues.size()];
-        for(int i=0; i < retVal.length; i++)
-        {
-            retVal[i] = dataValues.get(i);
-        }
-        return retVal;
-    }
-
     private String getFileNameWithoutExtension(Path csvWritePath)
     {
         String fileName = csvWritePath.toString();
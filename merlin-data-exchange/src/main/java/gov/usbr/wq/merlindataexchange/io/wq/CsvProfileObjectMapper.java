@@ -236,7 +236,7 @@ final class CsvProfileObjectMapper extends CsvMapper
         {
             List<CsvProfileRow> rowsForSample = new ArrayList<>();
             ZonedDateTime dateTime = depthTempProfileSample.getDateTime();
-            for(int i = 0; i < depthTempProfileSample.getConstituents().get(0).getDataValues().size(); i++)
+            for(int i = 0; i < depthTempProfileSample.getConstituents().get(0).size(); i++)
             {
                 CsvProfileRow row = new CsvProfileRow();
                 row.setDate(dateTime);
@@ -244,16 +244,16 @@ final class CsvProfileObjectMapper extends CsvMapper
             }
             for (ProfileConstituent data : depthTempProfileSample.getConstituents())
             {
-                for (int i = 0; i < data.getDataValues().size(); i++)
+                for (int i = 0; i < data.size(); i++)
                 {
                     CsvProfileRow csvRow = rowsForSample.get(i);
-                    double value = data.getDataValues().get(i);
+                    double value = data.getValue(i);
                     String unit = data.getUnit();
                     String parameterName = data.getParameter();
                     csvRow.setParameterValue(parameterName + "(" + unit + ")", value);
                     if(Boolean.getBoolean(WRITE_REAL_DATE_PROPERTY))
                     {
-                        csvRow.setRealDate(data.getDateValues().get(i));
+                        csvRow.setRealDate(data.getDateValue(i));
                     }
                 }
             }
@@ -1,6 +1,5 @@
 package gov.usbr.wq.merlindataexchange.io.wq;
 
-import gov.usbr.wq.dataaccess.MerlinTimeSeriesDataAccess;
 import gov.usbr.wq.dataaccess.http.ApiConnectionInfo;
 import gov.usbr.wq.dataaccess.http.HttpAccessException;
 import gov.usbr.wq.dataaccess.http.TokenContainer;
@@ -18,6 +17,8 @@ import gov.usbr.wq.merlindataexchange.configuration.DataStore;
 import gov.usbr.wq.merlindataexchange.configuration.DataStoreProfile;
 import gov.usbr.wq.merlindataexchange.io.DataExchangeReader;
 import gov.usbr.wq.merlindataexchange.io.MerlinDataExchangeReader;
+import gov.usbr.wq.merlindataexchange.io.UnitConversionCache;
+import gov.usbr.wq.merlindataexchange.io.WindowRead;
 import gov.usbr.wq.merlindataexchange.parameters.MerlinProfileParameters;
 import hec.data.Parameter;
 import hec.data.Units;
@@ -34,12 +35,14 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.NavigableSet;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
@@ -68,6 +71,8 @@ public final class MerlinDataExchangeProfileReader extends MerlinDataExchangeRea
             try
             {
                 List<ProfileConstituent> profileConstituents = new ArrayList<>();
+                long[] readingEpochMillis = null;
+                ZoneId readingZoneId = null;
                 for(DataWrapper dataWrapper : dataWrappers)
                 {
                     NavigableSet<EventWrapper> events = dataWrapper.getEvents();
@@ -75,19 +80,29 @@ public final class MerlinDataExchangeProfileReader extends MerlinDataExchangeRea
                     {
                         throw new NoEventsException("CSV", dataWrapper.getSeriesId());
                     }
-                    List<Double> dataValues = dataWrapper.getEvents().stream().map(EventWrapper::getValue)
-                            .collect(toList());
-                    List<ZonedDateTime> dateValues = dataWrapper.getEvents().stream().map(EventWrapper::getDate)
-                            .collect(toList());
-                    ProfileConstituent profileConstituent = buildProfileConstituentData(dataValues, dateValues, unitSystemToConvertTo, dataWrapper, dataStore);
+                    double[] dataValues = new double[events.size()];
+                    long[] epochMillis = new long[events.size()];
+                    int i = 0;
+                    for(EventWrapper event : events)
+                    {
+                        Double value = event.getValue();
+                        dataValues[i] = value == null ? Double.NaN : value;
+                        epochMillis[i] = event.getDate().toInstant().toEpochMilli();
+                        i++;
+                    }
+                    ZoneId zoneId = events.isEmpty() ? ZoneOffset.UTC : events.first().getDate().getZone();
+                    ProfileConstituent profileConstituent = buildProfileConstituentData(dataValues, epochMillis, zoneId, unitSystemToConvertTo, dataWrapper, dataStore);
                     profileConstituents.add(profileConstituent);
+                    if(readingEpochMillis == null)
+                    {
+                        //the first series' times are the reading times
+                        readingEpochMillis = epochMillis;
+                        readingZoneId = zoneId;
+                    }
                 }
-                List<ZonedDateTime> readingDateTimes = dataWrappers.get(0).getEvents()
-                        .stream()
-                        .map(EventWrapper::getDate)
-                        .collect(toList());
                 String station = dataWrappers.get(0).getStation();
-                retVal = ProfileDataConverter.splitDataIntoProfileSamples(profileConstituents, readingDateTimes, station, dataWrappers.removeFirstProfile(), dataWrappers.removeLastProfile());
+                retVal = ProfileDataConverter.splitDataIntoProfileSamples(profileConstituents, readingEpochMillis, readingZoneId, station,
+                        dataWrappers.removeFirstProfile(), dataWrappers.removeLastProfile(), dataWrappers.getSegmentationPolicy());
             }
             catch (NoEventsException e)
             {
@@ -101,7 +116,7 @@ public final class MerlinDataExchangeProfileReader extends MerlinDataExchangeRea
         return retVal;
     }
 
-    private ProfileConstituent buildProfileConstituentData(List<Double> dataValues, List<ZonedDateTime> dateValues, String unitSystemToConvertTo, DataWrapper dataWrapper, DataStore dataStore) throws UnitsConversionException
+    private ProfileConstituent buildProfileConstituentData(double[] dataValues, long[] epochMillis, ZoneId zoneId, String unitSystemToConvertTo, DataWrapper dataWrapper, DataStore dataStore) throws UnitsConversionException
     {
         Constituent constituent = ((DataStoreProfile) dataStore).getConstituentByParameter(dataWrapper.getParameter());
         int convertToUnitSystemId = getUnitSystemIdForUnitSystem(unitSystemToConvertTo);
@@ -121,8 +136,8 @@ public final class MerlinDataExchangeProfileReader extends MerlinDataExchangeRea
         {
             unitToConvertTo = unitFromTemplateUnitSystem;
         }
-        dataValues = convertUnits(dataValues, dataWrapper.getUnits(), unitToConvertTo);
-        return new ProfileConstituent(dataWrapper.getParameter(), dataValues, dateValues, unitToConvertTo);
+        convertUnits(dataValues, dataWrapper.getUnits(), unitToConvertTo);
+        return new ProfileConstituent(dataWrapper.getParameter(), dataValues, epochMillis, zoneId, unitToConvertTo);
     }
 
     private int getUnitSystemIdForUnitSystem(String unitSystemToConvertTo)
@@ -139,18 +154,12 @@ public final class MerlinDataExchangeProfileReader extends MerlinDataExchangeRea
         return convertToUnitSystemId;
     }
 
-    private List<Double> convertUnits(List<Double> dataList, String unitsFrom, String unitsTo) throws UnitsConversionException
+    private void convertUnits(double[] dataValues, String unitsFrom, String unitsTo) throws UnitsConversionException
     {
-        List<Double> retVal = new ArrayList<>(dataList);
         if(!unitsFrom.equalsIgnoreCase(unitsTo))
         {
-            retVal.clear();
-            for(Double data : dataList)
-            {
-                retVal.add(Units.convertUnits(data, unitsFrom, unitsTo));
-            }
+            UnitConversionCache.getInstance().getConverter(unitsFrom, unitsTo).convert(dataValues);
         }
-        return retVal;
     }
 
     private void logUnitConversionError(Exception e, ProgressListener progressListener)
@@ -201,26 +210,37 @@ public final class MerlinDataExchangeProfileReader extends MerlinDataExchangeRea
                                                       MeasureWrapper depthMeasure, Integer qualityVersionId, DataStore sourceDataStore, ProgressListener progressListener,
                                                       MerlinDataExchangeLogBody logFileLogger, AtomicBoolean isCancelled)
     {
+        //without a fetch executor, constituents are fetched one after another on the calling thread
+        return retrieveData(start, end, dataExchangeSet, cache, merlinApiRoot, token, depthMeasure, qualityVersionId, sourceDataStore, progressListener,
+                logFileLogger, isCancelled, Runnable::run, WindowRead.WHOLE);
+    }
 
-        MerlinTimeSeriesDataAccess access = new MerlinTimeSeriesDataAccess();
-        MerlinProfileDataWrappers retVal =  new MerlinProfileDataWrappers();
+    @Override
+    protected MerlinProfileDataWrappers retrieveData(Instant start, Instant end, DataExchangeSet dataExchangeSet, DataExchangeCache cache, String merlinApiRoot, TokenContainer token,
+                                                      MeasureWrapper depthMeasure, Integer qualityVersionId, DataStore sourceDataStore, ProgressListener progressListener,
+                                                      MerlinDataExchangeLogBody logFileLogger, AtomicBoolean isCancelled, Executor fetchExecutor,
+                                                      WindowRead windowRead)
+    {
+        ProfileSegmentationPolicy segmentationPolicy = cache.getProfileSegmentationPolicy((DataStoreProfile) sourceDataStore);
+        MerlinProfileDataWrappers retVal =  new MerlinProfileDataWrappers(segmentationPolicy);
         if(!isCancelled.get())
         {
             try
             {
-                start = getStartOfYearInstant(start, depthMeasure.getZoneId());
-                end = getEndOfYearInstant(end, depthMeasure.getZoneId());
+                Duration significantTimeChange = segmentationPolicy.getSignificantTimeChange();
+                start = getStartOfYearInstant(start, depthMeasure.getZoneId(), significantTimeChange);
+                end = getEndOfYearInstant(end, depthMeasure.getZoneId(), significantTimeChange);
                 List<MeasureWrapper> measureWrappers = getMeasuresListForDepthMeasure(depthMeasure, dataExchangeSet, cache);
-                Duration significantTimeChange = ProfileDataConverter.getSignificantTimeChange();
                 long maxTimeJumpBeforeConsideredSignificantChange = significantTimeChange.toMinutes() - 1;
                 Instant expandedStart = start.minusSeconds(maxTimeJumpBeforeConsideredSignificantChange * 60);
                 Instant expandedEnd = end.plusSeconds(maxTimeJumpBeforeConsideredSignificantChange *60);
-                for(MeasureWrapper measureWrapper: measureWrappers)
+                List<DataWrapper> constituentData = ProfileGroupFetcher.getEventsByMeasures(new ApiConnectionInfo(merlinApiRoot), token, measureWrappers,
+                        qualityVersionId, expandedStart, expandedEnd, isCancelled, fetchExecutor);
+                if(!isCancelled.get())
                 {
-                    DataWrapper data = access.getEventsBySeries(new ApiConnectionInfo(merlinApiRoot), token, measureWrapper, qualityVersionId, expandedStart, expandedEnd);
-                    retVal.add(data);
+                    retVal.addAll(constituentData);
+                    determineRemovalOfFirstAndLastProfiles(start, end, retVal);
                 }
-                determineRemovalOfFirstAndLastProfiles(start, end, retVal);
             }
             catch (IOException | HttpAccessException ex)
             {
@@ -255,20 +275,20 @@ public final class MerlinDataExchangeProfileReader extends MerlinDataExchangeRea
         }
     }
 
-    private Instant getStartOfYearInstant(Instant instant, ZoneId zoneId)
+    private Instant getStartOfYearInstant(Instant instant, ZoneId zoneId, Duration significantTimeChange)
     {
         ZonedDateTime zonedDateTime = instant.atZone(zoneId);
         int year = zonedDateTime.getYear();
         ZonedDateTime startOfYear = ZonedDateTime.of(year, 1, 1, 0, 0, 0, 0, zoneId);
-        startOfYear = startOfYear.minus(ProfileDataConverter.getSignificantTimeChange());
+        startOfYear = startOfYear.minus(significantTimeChange);
         return startOfYear.toInstant();
     }
-    private Instant getEndOfYearInstant(Instant instant, ZoneId zoneId)
+    private Instant getEndOfYearInstant(Instant instant, ZoneId zoneId, Duration significantTimeChange)
     {
         ZonedDateTime zonedDateTime = instant.atZone(zoneId);
         int year = zonedDateTime.getYear();
         ZonedDateTime startOfYear = ZonedDateTime.of(year+1, 1, 1, 0, 0, 0, 0, zoneId);
-        startOfYear = startOfYear.plus(ProfileDataConverter.getSignificantTimeChange());
+        startOfYear = startOfYear.plus(significantTimeChange);
         return startOfYear.toInstant();
     }
 
@@ -277,7 +297,7 @@ public final class MerlinDataExchangeProfileReader extends MerlinDataExchangeRea
         int originalEndIndex = events.indexOf(originalEndEvent);
         int lastIndex = events.size() - 1;
         if(originalEndIndex < lastIndex && events.get(originalEndIndex + 1).getDate().toInstant().isAfter(end)
-                && !ProfileDataConverter.isDifferenceSignificantChange(events.get(originalEndIndex).getDate(), events.get(originalEndIndex+1).getDate(),
+                && !retVal.getSegmentationPolicy().isSignificantChange(toEpochMillis(events.get(originalEndIndex)), toEpochMillis(events.get(originalEndIndex+1)),
                 events.get(originalEndIndex).getValue(), events.get(originalEndIndex+1).getValue(), max, min))
         {
             retVal.setRemoveLastProfile();
@@ -288,7 +308,7 @@ public final class MerlinDataExchangeProfileReader extends MerlinDataExchangeRea
     {
         int originalStartIndex = events.indexOf(originalStartEvent);
         if(originalStartIndex > 0 && events.get(originalStartIndex-1).getDate().toInstant().isBefore(start)
-                && !ProfileDataConverter.isDifferenceSignificantChange(events.get(originalStartIndex-1).getDate(), events.get(originalStartIndex).getDate(),
+                && !retVal.getSegmentationPolicy().isSignificantChange(toEpochMillis(events.get(originalStartIndex-1)), toEpochMillis(events.get(originalStartIndex)),
                 events.get(originalStartIndex-1).getValue(), events.get(originalStartIndex).getValue(),
                 max, min))
         {
@@ -296,6 +316,11 @@ public final class MerlinDataExchangeProfileReader extends MerlinDataExchangeRea
         }
     }
 
+    private static long toEpochMillis(EventWrapper event)
+    {
+        return event.getDate().toInstant().toEpochMilli();
+    }
+
     private Optional<EventWrapper> getOriginalEndEvent(List<EventWrapper> events, Instant end)
     {
         List<EventWrapper> eventsReversed = new ArrayList<>(events);
@@ -321,6 +346,13 @@ public final class MerlinDataExchangeProfileReader extends MerlinDataExchangeRea
                         .collect(toList());
     }
 
+    @Override
+    public int getNumberOfMeasuresRead(DataExchangeSet dataExchangeSet, DataExchangeCache cache, MeasureWrapper measure)
+    {
+        //each depth measure is read together with all of its constituent measures
+        return Math.max(getMeasuresListForDepthMeasure(measure, dataExchangeSet, cache).size(), 1);
+    }
+
     @Override
     public Set<String> getDefaultSupportedTypes()
     {
@@ -7,12 +7,19 @@ import java.util.Objects;
 
 /**
  * Used to combine retrieved Data Wrappers for constituents for a given profile. Also includes flags for removing first/last
- * profile if necessary (used in cases where time window is cutting off the first/last profiles).
+ * profile if necessary (used in cases where time window is cutting off the first/last profiles), and the segmentation policy
+ * the profiles are split by.
  */
 final class MerlinProfileDataWrappers extends ArrayList<DataWrapper>
 {
     private boolean _removeFirstProfile = false;
     private boolean _removeLastProfile = false;
+    private final ProfileSegmentationPolicy _segmentationPolicy;
+
+    MerlinProfileDataWrappers(ProfileSegmentationPolicy segmentationPolicy)
+    {
+        _segmentationPolicy = segmentationPolicy;
+    }
 
     boolean removeFirstProfile()
     {
@@ -34,6 +41,11 @@ final class MerlinProfileDataWrappers extends ArrayList<DataWrapper>
         _removeLastProfile = true;
     }
 
+    ProfileSegmentationPolicy getSegmentationPolicy()
+    {
+        return _segmentationPolicy;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -46,12 +58,13 @@ final class MerlinProfileDataWrappers extends ArrayList<DataWrapper>
             return false;
         }
         MerlinProfileDataWrappers that = (MerlinProfileDataWrappers) o;
-        return super.equals(o) && _removeFirstProfile == that._removeFirstProfile && _removeLastProfile == that._removeLastProfile;
+        return super.equals(o) && _removeFirstProfile == that._removeFirstProfile && _removeLastProfile == that._removeLastProfile
+                && Objects.equals(_segmentationPolicy, that._segmentationPolicy);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(super.hashCode(), _removeFirstProfile, _removeLastProfile);
+        return Objects.hash(super.hashCode(), _removeFirstProfile, _removeLastProfile, _segmentationPolicy);
     }
 }
@@ -1,27 +1,73 @@
 package gov.usbr.wq.merlindataexchange.io.wq;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.RandomAccess;
 
+/**
+ * Values of one parameter, kept as a slice of a primitive column so that every profile split from a read shares the same arrays.
+ * Times are epoch milliseconds in the column's time zone. Missing (null) values are stored as NaN.
+ */
 final class ProfileConstituent
 {
-    private final List<Double> _dataValues;
+    private static final long[] NO_TIMES = new long[0];
     private final String _parameter;
     private final String _unit;
-    private final List<ZonedDateTime> _dateValues;
+    private final double[] _values;
+    private final long[] _epochMillis;
+    private final ZoneId _zoneId;
+    private final int _start;
+    private final int _end;
 
     ProfileConstituent(String parameter, List<Double> dataValues, List<ZonedDateTime> dateValues, String unit)
     {
-        _dataValues = dataValues;
-        _dateValues = dateValues;
+        this(parameter, toValues(dataValues), toEpochMillis(dateValues), getZoneId(dateValues), unit);
+    }
+
+    ProfileConstituent(String parameter, double[] values, long[] epochMillis, ZoneId zoneId, String unit)
+    {
+        this(parameter, values, epochMillis, zoneId, unit, 0, values.length);
+    }
+
+    private ProfileConstituent(String parameter, double[] values, long[] epochMillis, ZoneId zoneId, String unit, int start, int end)
+    {
         _parameter = parameter;
         _unit = unit;
+        _values = values;
+        _epochMillis = epochMillis;
+        _zoneId = zoneId;
+        _start = start;
+        _end = end;
+    }
+
+    /**
+     * @param start - index of the first value, inclusive, relative to this constituent
+     * @param end - index of the last value, exclusive, relative to this constituent
+     * @param readingEpochMillis - times to use when this constituent has no times of its own
+     * @return constituent sharing this one's arrays
+     */
+    ProfileConstituent slice(int start, int end, long[] readingEpochMillis, ZoneId readingZoneId)
+    {
+        long[] epochMillis = _epochMillis;
+        ZoneId zoneId = _zoneId;
+        if(epochMillis.length == 0)
+        {
+            epochMillis = readingEpochMillis;
+            zoneId = readingZoneId;
+        }
+        return new ProfileConstituent(_parameter, _values, epochMillis, zoneId, _unit, _start + start, _start + end);
     }
 
     List<Double> getDataValues()
     {
-        return _dataValues;
+        return new ValuesView();
     }
 
     String getParameter()
@@ -36,7 +82,70 @@ final class ProfileConstituent
 
     List<ZonedDateTime> getDateValues()
     {
-        return _dateValues;
+        List<ZonedDateTime> retVal = Collections.emptyList();
+        if(_epochMillis.length > 0)
+        {
+            retVal = new DateValuesView();
+        }
+        return retVal;
+    }
+
+    int size()
+    {
+        return _end - _start;
+    }
+
+    double getValue(int index)
+    {
+        return _values[_start + index];
+    }
+
+    ZonedDateTime getDateValue(int index)
+    {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(_epochMillis[_start + index]), _zoneId);
+    }
+
+    /**
+     * @return copy of this constituent's values
+     */
+    double[] toValues()
+    {
+        return Arrays.copyOfRange(_values, _start, _end);
+    }
+
+    static long[] toEpochMillis(List<ZonedDateTime> dateValues)
+    {
+        long[] retVal = NO_TIMES;
+        if(dateValues != null && !dateValues.isEmpty())
+        {
+            retVal = new long[dateValues.size()];
+            for(int i = 0; i < retVal.length; i++)
+            {
+                retVal[i] = dateValues.get(i).toInstant().toEpochMilli();
+            }
+        }
+        return retVal;
+    }
+
+    static ZoneId getZoneId(List<ZonedDateTime> dateValues)
+    {
+        ZoneId retVal = ZoneOffset.UTC;
+        if(dateValues != null && !dateValues.isEmpty())
+        {
+            retVal = dateValues.get(0).getZone();
+        }
+        return retVal;
+    }
+
+    private static double[] toValues(List<Double> dataValues)
+    {
+        double[] retVal = new double[dataValues.size()];
+        for(int i = 0; i < retVal.length; i++)
+        {
+            Double value = dataValues.get(i);
+            retVal[i] = value == null ? Double.NaN : value;
+        }
+        return retVal;
     }
 
     @Override
@@ -51,12 +160,50 @@ final class ProfileConstituent
             return false;
         }
         ProfileConstituent that = (ProfileConstituent) o;
-        return Objects.equals(_dataValues, that._dataValues) && Objects.equals(_parameter, that._parameter) && Objects.equals(_unit, that._unit);
+        return Objects.equals(getDataValues(), that.getDataValues()) && Objects.equals(_parameter, that._parameter) && Objects.equals(_unit, that._unit);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(_dataValues, _parameter, _unit);
+        return Objects.hash(getDataValues(), _parameter, _unit);
+    }
+
+    private final class ValuesView extends AbstractList<Double> implements RandomAccess
+    {
+        @Override
+        public Double get(int index)
+        {
+            if(index < 0 || index >= size())
+            {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return getValue(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return ProfileConstituent.this.size();
+        }
+    }
+
+    private final class DateValuesView extends AbstractList<ZonedDateTime> implements RandomAccess
+    {
+        @Override
+        public ZonedDateTime get(int index)
+        {
+            if(index < 0 || index >= size())
+            {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return getDateValue(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return ProfileConstituent.this.size();
+        }
     }
 }
@@ -0,0 +1,87 @@
+package gov.usbr.wq.merlindataexchange.io.wq;
+
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups the profile measures of a template by the parts of their series strings that identify a profile, so the constituents of a depth
+ * measure are found with a single lookup instead of matching every measure in the template.
+ * Constituents of a depth measure share its project-site, type, timestep and e-part, and their typeId differs only in the trailing digits.
+ * Example: MR Sac.-Shasta Lake-Lake-Water Depth/Depth/INST-VAL/1, 2/0/123-230.12.310.1.2
+ * groups with MR Sac.-Shasta Lake-Lake-&lt;any sensor&gt;/&lt;any-param&gt;/INST-VAL/1, 2/0/123-230.12.310.1.&lt;any digits&gt;
+ */
+public final class ProfileConstituentIndex
+{
+    private static final int SERIES_STRING_PARTS = 6;
+    private final Map<String, List<MeasureWrapper>> _measuresByGroup = new HashMap<>();
+
+    /**
+     * @param templateMeasures - all measures of a template, in template order
+     */
+    public ProfileConstituentIndex(List<MeasureWrapper> templateMeasures)
+    {
+        for(MeasureWrapper measure : templateMeasures)
+        {
+            if(MerlinDataExchangeProfileReader.PROFILE.equalsIgnoreCase(measure.getType()) && measure.getSeriesString() != null)
+            {
+                indexMeasure(measure);
+            }
+        }
+    }
+
+    /**
+     * Sensors may contain '-' and typeIds may end in several digits, so a measure is indexed under every project-site and typeId stem
+     * it could be grouped by.
+     */
+    private void indexMeasure(MeasureWrapper measure)
+    {
+        String[] split = measure.getSeriesString().split("/", -1);
+        if(split.length != SERIES_STRING_PARTS || split[1].isEmpty())
+        {
+            return;
+        }
+        String projectSiteSensor = split[0];
+        String typeId = split[5];
+        for(int sensorIndex = projectSiteSensor.indexOf('-'); sensorIndex >= 0 && sensorIndex < projectSiteSensor.length() - 1;
+            sensorIndex = projectSiteSensor.indexOf('-', sensorIndex + 1))
+        {
+            String prefix = projectSiteSensor.substring(0, sensorIndex);
+            for(int stemLength = typeId.length() - 1; stemLength >= 0 && Character.isDigit(typeId.charAt(stemLength)); stemLength--)
+            {
+                String groupKey = buildGroupKey(prefix, split[2], split[3], split[4], typeId.substring(0, stemLength));
+                _measuresByGroup.computeIfAbsent(groupKey, k -> new ArrayList<>()).add(measure);
+            }
+        }
+    }
+
+    /**
+     * @param depthMeasure - depth measure to find the constituents of
+     * @return unmodifiable list of the constituent measures in template order, empty if the depth measure's series string can't be grouped
+     */
+    public List<MeasureWrapper> getConstituentMeasures(MeasureWrapper depthMeasure)
+    {
+        List<MeasureWrapper> retVal = Collections.emptyList();
+        String[] split = depthMeasure.getSeriesString().split("/");
+        int sensorIndex = split[0].lastIndexOf('-');
+        if(split.length >= SERIES_STRING_PARTS && sensorIndex >= 0 && !split[5].isEmpty())
+        {
+            String groupKey = buildGroupKey(split[0].substring(0, sensorIndex), split[2], split[3], split[4], split[5].substring(0, split[5].length() - 1));
+            List<MeasureWrapper> constituents = _measuresByGroup.get(groupKey);
+            if(constituents != null)
+            {
+                retVal = Collections.unmodifiableList(constituents);
+            }
+        }
+        return retVal;
+    }
+
+    private static String buildGroupKey(String projectSite, String type, String timestep, String ePart, String typeIdStem)
+    {
+        return projectSite + "/" + type + "/" + timestep + "/" + ePart + "/" + typeIdStem;
+    }
+}
@@ -2,204 +2,95 @@ package gov.usbr.wq.merlindataexchange.io.wq;
 
 import gov.usbr.wq.merlindataexchange.configuration.DataStoreProfile;
 
-import java.time.Duration;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 final class ProfileDataConverter
 {
 
-    private static final String SIGNIFICANT_TIME_CHANGE_PROPERTY_MINUTES = "merlin.dataexchange.reader.profile.significanttimechange.minutes";
-    private static final String SIGNIFICANT_CHANGE_DEPTH_PERCENT_PROPERTY = "merlin.dataexchange.reader.profile.significantchange.depth.percent";
-
     private ProfileDataConverter()
     {
         throw new AssertionError("Utility Class. Don't instantiate");
     }
 
-    private static ZonedDateTime calculateProfileDateTime(List<ZonedDateTime> constituentDataList)
-    {
-        return constituentDataList.get(0);
-    }
-
     static ProfileSampleSet splitDataIntoProfileSamples(List<ProfileConstituent> constituents, List<ZonedDateTime> readingDateTimes,
                                                                 String station, boolean removeFirstProfile, boolean removeLastProfile)
     {
-        List<List<ZonedDateTime>> dateTimeGroups = separateDateTimeGroups(constituents, readingDateTimes);
-        ProfileSampleSet retVal = new ProfileSampleSet(station);
-        List<List<ProfileConstituent>> separatedProfileConstituents = new ArrayList<>();
-        for(ProfileConstituent constituent : constituents)
-        {
-            List<List<Double>> separatedValuesList = separateValues(constituent.getDataValues(), dateTimeGroups);
-            List<ZonedDateTime> dates = readingDateTimes;
-            if(!constituent.getDateValues().isEmpty())
-            {
-                dates = constituent.getDateValues();
-            }
-            List<List<ZonedDateTime>> separatedZonedDateTimesList = separateDateTimes(dates, dateTimeGroups);
-            List<ProfileConstituent> profileConstituentSubGroups = new ArrayList<>();
-            int i=0;
-            for(List<Double> valuesGroup : separatedValuesList)
-            {
-                ProfileConstituent profileConstituentSubGroup = new ProfileConstituent(constituent.getParameter(), valuesGroup, separatedZonedDateTimesList.get(i), constituent.getUnit());
-                profileConstituentSubGroups.add(profileConstituentSubGroup);
-                i++;
-            }
-            separatedProfileConstituents.add(profileConstituentSubGroups);
-        }
-        //go down groups
-        for(int groupIndex =0; groupIndex < dateTimeGroups.size(); groupIndex++)
-        {
-            List<ProfileConstituent> constituentsAtGroupIndex = new ArrayList<>();
-            //go across columns
-            for(List<ProfileConstituent> constituentSplitUp : separatedProfileConstituents)
-            {
-                //collect subgroup in each column into list
-                constituentsAtGroupIndex.add(constituentSplitUp.get(groupIndex));
-            }
-            ZonedDateTime profileSampleDateTime = calculateProfileDateTime(dateTimeGroups.get(groupIndex));
-            retVal.add(new ProfileSample(profileSampleDateTime, constituentsAtGroupIndex));
-        }
-        if(!retVal.isEmpty() && removeFirstProfile)
-        {
-            retVal.remove(retVal.first());
-        }
-        if(!retVal.isEmpty() && removeLastProfile)
-        {
-            retVal.remove(retVal.last());
-        }
-        return retVal;
-    }
-
-    private static List<List<Double>> separateValues(List<Double> values, List<List<ZonedDateTime>> dateTimeGroups)
-    {
-        List<List<Double>> result = new ArrayList<>();
-        int index = 0;
-        for (List<ZonedDateTime> dateTimeGroup : dateTimeGroups)
-        {
-            int groupSize = dateTimeGroup.size();
-            List<Double> sublist = new ArrayList<>();
-            for (int i = 0; i < groupSize; i++)
-            {
-                sublist.add(values.get(index));
-                index++;
-            }
-            result.add(sublist);
-        }
-        return result;
+        return splitDataIntoProfileSamples(constituents, ProfileConstituent.toEpochMillis(readingDateTimes), ProfileConstituent.getZoneId(readingDateTimes),
+                station, removeFirstProfile, removeLastProfile, ProfileSegmentationPolicy.fromSystemProperties());
     }
 
-    private static List<List<ZonedDateTime>> separateDateTimes(List<ZonedDateTime> dates, List<List<ZonedDateTime>> dateTimeGroups)
+    /**
+     * Splits the readings into profiles without copying them; each profile in the returned set is a range of the given constituents.
+     */
+    static ProfileSampleSet splitDataIntoProfileSamples(List<ProfileConstituent> constituents, long[] readingEpochMillis, ZoneId zoneId,
+                                                        String station, boolean removeFirstProfile, boolean removeLastProfile,
+                                                        ProfileSegmentationPolicy segmentationPolicy)
     {
-        List<List<ZonedDateTime>> result = new ArrayList<>();
-        int index = 0;
-        for (List<ZonedDateTime> dateTimeGroup : dateTimeGroups)
-        {
-            int groupSize = dateTimeGroup.size();
-            List<ZonedDateTime> sublist = new ArrayList<>();
-            for (int i = 0; i < groupSize; i++)
-            {
-                sublist.add(dates.get(index));
-                index++;
-            }
-            result.add(sublist);
-        }
-        return result;
+        int[] profileOffsets = getProfileOffsets(constituents, readingEpochMillis, segmentationPolicy);
+        int numberOfProfiles = profileOffsets.length - 1;
+        int firstProfile = removeFirstProfile ? 1 : 0;
+        int endProfile = removeLastProfile ? numberOfProfiles - 1 : numberOfProfiles;
+        return new ProfileSampleSet(station, constituents, readingEpochMillis, zoneId, profileOffsets, firstProfile, Math.max(firstProfile, endProfile));
     }
 
-    private static List<List<ZonedDateTime>> separateDateTimeGroups(List<ProfileConstituent> constituents, List<ZonedDateTime> readingDateTimes)
+    /**
+     * @return index of the first reading of each profile, followed by the number of readings split into profiles
+     */
+    private static int[] getProfileOffsets(List<ProfileConstituent> constituents, long[] readingEpochMillis, ProfileSegmentationPolicy segmentationPolicy)
     {
-        List<List<ZonedDateTime>> separatedDateTimes = new ArrayList<>();
-        ZonedDateTime previousTime = null;
+        int[] retVal = new int[]{0};
         Optional<ProfileConstituent> depthConstituentOpt = constituents.stream()
                 .filter(c -> c.getParameter().equalsIgnoreCase(DataStoreProfile.DEPTH))
                 .findFirst();
         if(depthConstituentOpt.isPresent())
         {
             ProfileConstituent depthConstituent = depthConstituentOpt.get();
-            Double min = ProfileMeasuresUtil.getMinDepth(depthConstituent.getDataValues());
-            Double max = ProfileMeasuresUtil.getMaxDepth(depthConstituent.getDataValues());
-            for (int i = 0; i < readingDateTimes.size(); i++)
+            int numberOfReadings = Math.min(readingEpochMillis.length, depthConstituent.size());
+            if(numberOfReadings > 0)
             {
-                ZonedDateTime currentTime = readingDateTimes.get(i);
-                if (previousTime == null)
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for(int i = 0; i < depthConstituent.size(); i++)
                 {
-                    separatedDateTimes.add(new ArrayList<>());
-                    previousTime = currentTime;
-                    separatedDateTimes.get(separatedDateTimes.size()-1).add(previousTime);
-                }
-                else if (i < depthConstituent.getDataValues().size())
-                {
-                    Double currentDepth = depthConstituent.getDataValues().get(i);
-                    Double previousDepth = depthConstituent.getDataValues().get(i - 1);
-                    if (isDifferenceSignificantChange(previousTime, currentTime, previousDepth, currentDepth, max, min))
+                    double depth = depthConstituent.getValue(i);
+                    //missing depths are NaN, which would make the depth range NaN and hide every depth change
+                    if(!Double.isNaN(depth))
                     {
-                        separatedDateTimes.add(new ArrayList<>());
-                        separatedDateTimes.get(separatedDateTimes.size()-1).add(currentTime);
+                        min = Math.min(min, depth);
+                        max = Math.max(max, depth);
                     }
-                    else
+                }
+                int[] offsets = new int[numberOfReadings + 1];
+                int numberOfProfiles = 0;
+                for(int i = 1; i < numberOfReadings; i++)
+                {
+                    if(segmentationPolicy.isSignificantChange(readingEpochMillis[i - 1], readingEpochMillis[i], depthConstituent.getValue(i - 1),
+                            depthConstituent.getValue(i), max, min))
                     {
-                        separatedDateTimes.get(separatedDateTimes.size()-1).add(currentTime);
+                        numberOfProfiles++;
+                        offsets[numberOfProfiles] = i;
                     }
-                    previousTime = currentTime;
                 }
+                numberOfProfiles++;
+                offsets[numberOfProfiles] = numberOfReadings;
+                retVal = Arrays.copyOf(offsets, numberOfProfiles + 1);
             }
         }
-        return separatedDateTimes;
-    }
-
-    private static boolean isSignificantDepthChange(Double currentDepth, Double previousDepth, Double currentMax, Double currentMin)
-    {
-        boolean retVal = false;
-        if(!Objects.equals(currentMax, currentDepth))
-        {
-            double currentDifference = Math.abs(currentDepth - previousDepth);
-            double minMaxDifference = Math.abs(currentMax - currentMin);
-            retVal = currentDifference > minMaxDifference * (getSignificantChangeDepthPercent()/100.0);
-        }
         return retVal;
     }
 
-    private static boolean isSignificantTimeChange(ZonedDateTime previousTime, ZonedDateTime currentTime)
-    {
-        Duration timeDiff = Duration.between(previousTime, currentTime);
-        Duration significationTimeChange = getSignificantTimeChange();
-        return timeDiff.compareTo(significationTimeChange) >= 0;
-    }
-
-    static Duration getSignificantTimeChange()
-    {
-        String timeChangeMinutesProperty = System.getProperty(SIGNIFICANT_TIME_CHANGE_PROPERTY_MINUTES);
-        Duration timeChange = Duration.ofHours(6);
-        if(timeChangeMinutesProperty != null)
-        {
-            int timeChangeMinutes = Integer.parseInt(timeChangeMinutesProperty);
-            timeChange = Duration.ofMinutes(timeChangeMinutes);
-        }
-        return timeChange;
-    }
-
-    private static double getSignificantChangeDepthPercent()
-    {
-        String depthPercentDecreaseProperty = System.getProperty(SIGNIFICANT_CHANGE_DEPTH_PERCENT_PROPERTY);
-        double depthPercentDecrease = 50.0;
-        if(depthPercentDecreaseProperty != null)
-        {
-            depthPercentDecrease = Double.parseDouble(depthPercentDecreaseProperty);
-        }
-        return depthPercentDecrease;
-    }
-
+    /**
+     * Compares two readings using the System Properties. Segmenting a series should use a resolved {@link ProfileSegmentationPolicy} instead.
+     */
     static boolean isDifferenceSignificantChange(ZonedDateTime previousDateTime, ZonedDateTime currentDateTime, Double previousDepth, Double currentDepth,
                                                  Double currentMaxDepth, Double currentMinDepth)
     {
-        return isSignificantTimeChange(previousDateTime, currentDateTime)
-                || isSignificantDepthChange(currentDepth, previousDepth, currentMaxDepth, currentMinDepth);
+        return ProfileSegmentationPolicy.fromSystemProperties().isSignificantChange(previousDateTime.toInstant().toEpochMilli(),
+                currentDateTime.toInstant().toEpochMilli(), previousDepth, currentDepth, currentMaxDepth, currentMinDepth);
     }
 
 }
@@ -0,0 +1,188 @@
+package gov.usbr.wq.merlindataexchange.io.wq;
+
+import gov.usbr.wq.dataaccess.http.ApiConnectionInfo;
+import gov.usbr.wq.dataaccess.http.HttpAccessException;
+import gov.usbr.wq.dataaccess.http.TokenContainer;
+import gov.usbr.wq.dataaccess.model.DataWrapper;
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+import gov.usbr.wq.merlindataexchange.io.FetchFailureUtil;
+import gov.usbr.wq.merlindataexchange.io.MerlinSeriesFetcher;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fetches the constituents of a profile group (depth, temperature, DO...) concurrently rather than one round trip after another.
+ * Results are returned in the order of the measures given once all of them arrive. Helpers on the run's fetch executor fetch constituents
+ * alongside the calling thread, which is itself a fetch thread, so a busy executor slows the group down rather than deadlocking it.
+ * Constituents fetched by helpers must arrive within the group timeout, otherwise constituents not yet started are skipped and the group fails.
+ */
+final class ProfileGroupFetcher
+{
+    private static final Logger LOGGER = Logger.getLogger(ProfileGroupFetcher.class.getName());
+    static final String GROUP_PARALLEL_ENABLED_PROPERTY_KEY = "merlin.dataexchange.reader.profile.group.parallel.enabled";
+    static final String GROUP_TIMEOUT_SECONDS_PROPERTY_KEY = "merlin.dataexchange.reader.profile.group.timeout.seconds";
+    private static final long DEFAULT_GROUP_TIMEOUT_SECONDS = 600;
+
+    private ProfileGroupFetcher()
+    {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * @param helperExecutor - executor the helpers fetching constituents alongside the calling thread are run on
+     * @return data for each measure, in the order of the measures given
+     */
+    static List<DataWrapper> getEventsByMeasures(ApiConnectionInfo connectionInfo, TokenContainer token, List<MeasureWrapper> measures, Integer qualityVersionId,
+                                                 Instant start, Instant end, AtomicBoolean isCancelled, Executor helperExecutor)
+            throws IOException, HttpAccessException
+    {
+        ConstituentFetch<MeasureWrapper, DataWrapper> fetch = measure -> MerlinSeriesFetcher.getInstance()
+                .getEventsBySeries(connectionInfo, token, measure, qualityVersionId, start, end);
+        String groupName = measures.isEmpty() ? "" : measures.get(0).getSeriesString();
+        List<DataWrapper> retVal;
+        if(isParallelEnabled() && measures.size() > 1)
+        {
+            retVal = fetchAll(measures, fetch, getGroupTimeoutSeconds(), isCancelled, groupName, helperExecutor);
+        }
+        else
+        {
+            retVal = new ArrayList<>();
+            for(MeasureWrapper measure : measures)
+            {
+                retVal.add(fetch.fetch(measure));
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @param timeoutSeconds - time allowed for the helpers' fetches, no limit if not positive
+     * @return result of each item, in the order of the items given. Items not fetched because the exchange was cancelled are null
+     */
+    static <T, R> List<R> fetchAll(List<T> items, ConstituentFetch<T, R> fetch, long timeoutSeconds, AtomicBoolean isCancelled, String groupName,
+                                   Executor helperExecutor) throws IOException, HttpAccessException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        Object[] results = new Object[items.size()];
+        Queue<Integer> pendingItems = new ConcurrentLinkedQueue<>();
+        for(int i = 0; i < items.size(); i++)
+        {
+            pendingItems.add(i);
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch itemsDone = new CountDownLatch(items.size());
+        Runnable fetchPending = () ->
+        {
+            Integer itemIndex;
+            while((itemIndex = pendingItems.poll()) != null)
+            {
+                try
+                {
+                    //once an item fails, the group times out or the exchange is cancelled, the items left are only counted off
+                    if(failure.get() == null && !isCancelled.get())
+                    {
+                        results[itemIndex] = fetch.fetch(items.get(itemIndex));
+                    }
+                }
+                catch (IOException | HttpAccessException | RuntimeException | Error e)
+                {
+                    failure.compareAndSet(null, e);
+                }
+                finally
+                {
+                    itemsDone.countDown();
+                }
+            }
+        };
+        List<CompletableFuture<Void>> helpers = new ArrayList<>();
+        try
+        {
+            for(int i = 1; i < items.size(); i++)
+            {
+                helpers.add(CompletableFuture.runAsync(fetchPending, helperExecutor));
+            }
+        }
+        catch (RejectedExecutionException e)
+        {
+            LOGGER.log(Level.FINE, e, () -> "Fetch executor rejected constituent helper, remaining constituents of " + groupName + " fetched by the calling thread");
+        }
+        fetchPending.run();
+        try
+        {
+            awaitHelpers(itemsDone, deadline, timeoutSeconds, groupName);
+        }
+        catch (IOException e)
+        {
+            failure.compareAndSet(null, e);
+        }
+        finally
+        {
+            //helpers not yet started find nothing to fetch. Fetches already running are left to finish rather than interrupted,
+            //since a coalesced fetch may be shared with other measures waiting on the same series
+            helpers.forEach(helper -> helper.cancel(false));
+        }
+        FetchFailureUtil.rethrow(failure.get());
+        @SuppressWarnings("unchecked")
+        List<R> retVal = (List<R>) Arrays.asList(results);
+        return retVal;
+    }
+
+    private static void awaitHelpers(CountDownLatch itemsDone, long deadline, long timeoutSeconds, String groupName) throws IOException
+    {
+        try
+        {
+            boolean done = true;
+            if(timeoutSeconds > 0)
+            {
+                done = itemsDone.await(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            }
+            else
+            {
+                itemsDone.await();
+            }
+            if(!done)
+            {
+                LOGGER.log(Level.FINE, () -> "Timed out reading profile group of " + groupName);
+                throw new IOException("Timed out after " + timeoutSeconds + " seconds reading profile group of " + groupName
+                        + ". Timeout can be changed with System Property " + GROUP_TIMEOUT_SECONDS_PROPERTY_KEY);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading profile group of " + groupName);
+        }
+    }
+
+    private static boolean isParallelEnabled()
+    {
+        return Boolean.parseBoolean(System.getProperty(GROUP_PARALLEL_ENABLED_PROPERTY_KEY, "true"));
+    }
+
+    private static long getGroupTimeoutSeconds()
+    {
+        return Long.getLong(GROUP_TIMEOUT_SECONDS_PROPERTY_KEY, DEFAULT_GROUP_TIMEOUT_SECONDS);
+    }
+
+    @FunctionalInterface
+    interface ConstituentFetch<T, R>
+    {
+        R fetch(T item) throws IOException, HttpAccessException;
+    }
+}
@@ -1,18 +1,64 @@
 package gov.usbr.wq.merlindataexchange.io.wq;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeSet;
 
+/**
+ * Profiles read for a station. Values are stored by column, one primitive array per constituent along with the reading times,
+ * and each profile is a range of those columns given by the profile offsets. The profile samples in the set are views of their range,
+ * so splitting a read into profiles doesn't copy or box its values.
+ */
 final class ProfileSampleSet extends TreeSet<ProfileSample>
 {
     private final String _station;
 
-    ProfileSampleSet(String station)
+    /**
+     * @param columns - constituents holding every reading, starting from the first
+     * @param readingEpochMillis - reading times, also used for constituents without times of their own
+     * @param profileOffsets - index of the first reading of each profile, followed by the number of readings split into profiles
+     * @param firstProfile - index of the first profile to include
+     * @param endProfile - index after the last profile to include
+     */
+    ProfileSampleSet(String station, List<ProfileConstituent> columns, long[] readingEpochMillis, ZoneId zoneId, int[] profileOffsets,
+                     int firstProfile, int endProfile)
     {
         _station = station;
+        for(int profile = firstProfile; profile < endProfile; profile++)
+        {
+            int start = profileOffsets[profile];
+            int end = profileOffsets[profile + 1];
+            List<ProfileConstituent> constituents = new ArrayList<>(columns.size());
+            for(ProfileConstituent column : columns)
+            {
+                constituents.add(column.slice(start, end, readingEpochMillis, zoneId));
+            }
+            ZonedDateTime profileDateTime = ZonedDateTime.ofInstant(Instant.ofEpochMilli(readingEpochMillis[start]), zoneId);
+            add(new ProfileSample(profileDateTime, constituents));
+        }
     }
 
     String getStation()
     {
         return _station;
     }
+
+    /**
+     * @return number of values across every constituent of the profiles in this set
+     */
+    int getNumberOfValues()
+    {
+        int retVal = 0;
+        for(ProfileSample sample : this)
+        {
+            for(ProfileConstituent constituent : sample.getConstituents())
+            {
+                retVal += constituent.size();
+            }
+        }
+        return retVal;
+    }
 }
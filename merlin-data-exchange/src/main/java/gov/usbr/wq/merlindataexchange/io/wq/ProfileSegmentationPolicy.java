@@ -0,0 +1,142 @@
+package gov.usbr.wq.merlindataexchange.io.wq;
+
+import gov.usbr.wq.merlindataexchange.configuration.DataStoreProfile;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Thresholds that decide where one profile ends and the next begins: a gap between readings of at least the significant time change,
+ * or a change in depth greater than the significant percentage of the depth range.
+ * Values come from System Properties, overridden by the attributes of a datastore-profile, and are resolved once per extract rather
+ * than for each pair of readings compared. Instances are immutable and safe to share between threads.
+ */
+public final class ProfileSegmentationPolicy
+{
+    private static final Logger LOGGER = Logger.getLogger(ProfileSegmentationPolicy.class.getName());
+    static final String SIGNIFICANT_TIME_CHANGE_MINUTES_PROPERTY_KEY = "merlin.dataexchange.reader.profile.significanttimechange.minutes";
+    static final String SIGNIFICANT_CHANGE_DEPTH_PERCENT_PROPERTY_KEY = "merlin.dataexchange.reader.profile.significantchange.depth.percent";
+    private static final long DEFAULT_SIGNIFICANT_TIME_CHANGE_MINUTES = Duration.ofHours(6).toMinutes();
+    private static final double DEFAULT_SIGNIFICANT_CHANGE_DEPTH_PERCENT = 50.0;
+    private final Duration _significantTimeChange;
+    private final long _significantTimeChangeMillis;
+    private final double _significantChangeDepthPercent;
+
+    ProfileSegmentationPolicy(Duration significantTimeChange, double significantChangeDepthPercent)
+    {
+        _significantTimeChange = significantTimeChange;
+        _significantTimeChangeMillis = significantTimeChange.toMillis();
+        _significantChangeDepthPercent = significantChangeDepthPercent;
+    }
+
+    /**
+     * @return policy using the System Properties, or the defaults of 6 hours and 50 percent for those not set
+     */
+    public static ProfileSegmentationPolicy fromSystemProperties()
+    {
+        long timeChangeMinutes = DEFAULT_SIGNIFICANT_TIME_CHANGE_MINUTES;
+        String timeChangeMinutesProperty = System.getProperty(SIGNIFICANT_TIME_CHANGE_MINUTES_PROPERTY_KEY);
+        if(timeChangeMinutesProperty != null)
+        {
+            try
+            {
+                timeChangeMinutes = Integer.parseInt(timeChangeMinutesProperty.trim());
+            }
+            catch (NumberFormatException e)
+            {
+                LOGGER.log(Level.WARNING, e, () -> "Invalid value for System Property " + SIGNIFICANT_TIME_CHANGE_MINUTES_PROPERTY_KEY + ": "
+                        + timeChangeMinutesProperty + ". Defaulting to " + DEFAULT_SIGNIFICANT_TIME_CHANGE_MINUTES + " minutes");
+            }
+        }
+        double depthPercent = DEFAULT_SIGNIFICANT_CHANGE_DEPTH_PERCENT;
+        String depthPercentProperty = System.getProperty(SIGNIFICANT_CHANGE_DEPTH_PERCENT_PROPERTY_KEY);
+        if(depthPercentProperty != null)
+        {
+            try
+            {
+                depthPercent = Double.parseDouble(depthPercentProperty.trim());
+            }
+            catch (NumberFormatException e)
+            {
+                LOGGER.log(Level.WARNING, e, () -> "Invalid value for System Property " + SIGNIFICANT_CHANGE_DEPTH_PERCENT_PROPERTY_KEY + ": "
+                        + depthPercentProperty + ". Defaulting to " + DEFAULT_SIGNIFICANT_CHANGE_DEPTH_PERCENT + " percent");
+            }
+        }
+        return new ProfileSegmentationPolicy(Duration.ofMinutes(timeChangeMinutes), depthPercent);
+    }
+
+    /**
+     * @return policy with the thresholds set on the datastore-profile in place of this policy's
+     */
+    public ProfileSegmentationPolicy withOverrides(DataStoreProfile dataStore)
+    {
+        ProfileSegmentationPolicy retVal = this;
+        Integer timeChangeMinutes = dataStore.getSignificantTimeChangeMinutes();
+        Double depthPercent = dataStore.getSignificantChangeDepthPercent();
+        if(timeChangeMinutes != null || depthPercent != null)
+        {
+            Duration significantTimeChange = timeChangeMinutes == null ? _significantTimeChange : Duration.ofMinutes(timeChangeMinutes);
+            double significantChangeDepthPercent = depthPercent == null ? _significantChangeDepthPercent : depthPercent;
+            retVal = new ProfileSegmentationPolicy(significantTimeChange, significantChangeDepthPercent);
+            LOGGER.log(Level.CONFIG, () -> "Profile segmentation for datastore " + dataStore.getId() + " using significant time change of "
+                    + significantTimeChange.toMinutes() + " minutes and significant depth change of " + significantChangeDepthPercent + " percent");
+        }
+        return retVal;
+    }
+
+    Duration getSignificantTimeChange()
+    {
+        return _significantTimeChange;
+    }
+
+    double getSignificantChangeDepthPercent()
+    {
+        return _significantChangeDepthPercent;
+    }
+
+    /**
+     * @return true if the current reading starts a new profile after the previous one
+     */
+    boolean isSignificantChange(long previousEpochMillis, long currentEpochMillis, double previousDepth, double currentDepth,
+                                double maxDepth, double minDepth)
+    {
+        return currentEpochMillis - previousEpochMillis >= _significantTimeChangeMillis
+                || isSignificantDepthChange(previousDepth, currentDepth, maxDepth, minDepth);
+    }
+
+    private boolean isSignificantDepthChange(double previousDepth, double currentDepth, double maxDepth, double minDepth)
+    {
+        boolean retVal = false;
+        if(Double.compare(maxDepth, currentDepth) != 0)
+        {
+            double currentDifference = Math.abs(currentDepth - previousDepth);
+            double minMaxDifference = Math.abs(maxDepth - minDepth);
+            retVal = currentDifference > minMaxDifference * (_significantChangeDepthPercent / 100.0);
+        }
+        return retVal;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass())
+        {
+            return false;
+        }
+        ProfileSegmentationPolicy that = (ProfileSegmentationPolicy) o;
+        return Double.compare(_significantChangeDepthPercent, that._significantChangeDepthPercent) == 0
+                && Objects.equals(_significantTimeChange, that._significantTimeChange);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(_significantTimeChange, _significantChangeDepthPercent);
+    }
+}
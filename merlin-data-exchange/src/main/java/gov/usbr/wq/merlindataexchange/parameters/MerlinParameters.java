@@ -62,5 +62,18 @@ public abstract class MerlinParameters
 
     public abstract void logAdditionalParameters(MerlinDataExchangeLogger logBody);
 
+    /**
+     * @return copy of these parameters with the time window starting at the given time
+     */
+    public MerlinParameters withStart(Instant start)
+    {
+        return withTimeWindow(start, getEnd());
+    }
+
+    /**
+     * @return copy of these parameters with the time window from the given start to the given end
+     */
+    public abstract MerlinParameters withTimeWindow(Instant start, Instant end);
+
     public abstract boolean supportsDataExchangeSet(DataExchangeSet dataExchangeSet);
 }
@@ -22,6 +22,16 @@ public final class MerlinProfileParameters extends MerlinParameters
         //no additional parameters to log
     }
 
+    @Override
+    public MerlinProfileParameters withTimeWindow(Instant start, Instant end)
+    {
+        return new MerlinProfileParametersBuilder()
+                .fromExistingParameters(this)
+                .withStart(start)
+                .withEnd(end)
+                .build();
+    }
+
     @Override
     public boolean supportsDataExchangeSet(DataExchangeSet dataExchangeSet)
     {
@@ -44,6 +44,16 @@ public final class MerlinTimeSeriesParameters extends MerlinParameters
         merlinDataExchangeLogger.logToHeader(fPartOverrideMsg);
     }
 
+    @Override
+    public MerlinTimeSeriesParameters withTimeWindow(Instant start, Instant end)
+    {
+        return new MerlinTimeSeriesParametersBuilder()
+                .fromExistingParameters(this)
+                .withStart(start)
+                .withEnd(end)
+                .build();
+    }
+
     @Override
     public boolean supportsDataExchangeSet(DataExchangeSet dataExchangeSet)
     {
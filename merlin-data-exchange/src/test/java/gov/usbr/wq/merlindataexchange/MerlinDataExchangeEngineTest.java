@@ -17,6 +17,7 @@ import gov.usbr.wq.merlindataexchange.configuration.DataExchangeConfiguration;
 import gov.usbr.wq.merlindataexchange.configuration.DataExchangeSet;
 import gov.usbr.wq.merlindataexchange.io.DssDataExchangeWriter;
 import gov.usbr.wq.merlindataexchange.io.MerlinDataExchangeTimeSeriesReader;
+import gov.usbr.wq.merlindataexchange.io.MerlinSeriesStore;
 import gov.usbr.wq.merlindataexchange.io.wq.MerlinDataExchangeProfileReader;
 import gov.usbr.wq.merlindataexchange.parameters.AuthenticationParametersBuilder;
 import gov.usbr.wq.merlindataexchange.parameters.MerlinTimeSeriesParameters;
@@ -103,6 +104,58 @@ final class MerlinDataExchangeEngineTest
         verifyData(expectedDssToData, testDirectory, mockFileName);
     }
 
+    @Test
+    void testRunExtractStreamedBypassesSeriesStore() throws IOException, HttpAccessException, MerlinConfigParseException, UnitsConversionException
+    {
+        String username = ResourceAccess.getUsername();
+        char[] password = ResourceAccess.getPassword();
+        String mockFileName = "merlin_mock_config_dx.xml";
+        Path mockXml = getMockXml(mockFileName);
+        List<Path> mocks = Arrays.asList(mockXml);
+        Path testDirectory = getTestDirectory();
+        Instant start = Instant.parse("2018-02-01T12:00:00Z");
+        Instant end = Instant.parse("2022-02-21T12:00:00Z");
+        StoreOptionImpl storeOption = new StoreOptionImpl();
+        storeOption.setRegular("0-replace-all");
+        storeOption.setIrregular("0-delete_insert");
+        MerlinTimeSeriesParameters params = new MerlinTimeSeriesParametersBuilder()
+                .withWatershedDirectory(testDirectory)
+                .withLogFileDirectory(testDirectory)
+                .withAuthenticationParameters(new AuthenticationParametersBuilder()
+                        .forUrl("https://www.grabdata2.com")
+                        .setUsername(username)
+                        .andPassword(password)
+                        .build())
+                .withStoreOption(storeOption)
+                .withStart(start)
+                .withEnd(end)
+                .withFPartOverride("fPart")
+                .build();
+        System.setProperty(MerlinDataExchangeTimeSeriesReader.STREAMING_ENABLED_PROPERTY_KEY, "true");
+        System.setProperty(MerlinSeriesStore.STORE_ENABLED_PROPERTY_KEY, "true");
+        MerlinSeriesStore.getInstance().invalidateAll();
+        try
+        {
+            DataExchangeEngine dataExchangeEngine = new MerlinDataExchangeEngineBuilder()
+                    .withConfigurationFiles(mocks)
+                    .withParameters(params)
+                    .withProgressListener(buildLoggingProgressListener())
+                    .build();
+            MerlinDataExchangeStatus status = dataExchangeEngine.runExtract().join();
+            assertEquals(MerlinDataExchangeStatus.COMPLETE_SUCCESS, status);
+            //streamed windows are read straight from Merlin, so the whole series is never held in the store
+            assertEquals(0, MerlinSeriesStore.getInstance().getStoredEventCount());
+        }
+        finally
+        {
+            System.clearProperty(MerlinDataExchangeTimeSeriesReader.STREAMING_ENABLED_PROPERTY_KEY);
+            System.clearProperty(MerlinSeriesStore.STORE_ENABLED_PROPERTY_KEY);
+        }
+        Map<String, DataWrapper> expectedDssToData = buildExpectedDss(mocks, start, end, username, password);
+        assertNotNull(expectedDssToData);
+        verifyData(expectedDssToData, testDirectory, mockFileName);
+    }
+
     @Test
     void testRunExtractWithReadWriteTimestampsOn() throws IOException, HttpAccessException, MerlinConfigParseException, UnitsConversionException
     {
@@ -3,6 +3,7 @@ package gov.usbr.wq.merlindataexchange;
 import gov.usbr.wq.merlindataexchange.configuration.DataExchangeConfiguration;
 import gov.usbr.wq.merlindataexchange.configuration.DataExchangeSet;
 import gov.usbr.wq.merlindataexchange.configuration.DataStore;
+import gov.usbr.wq.merlindataexchange.configuration.DataStoreProfile;
 import gov.usbr.wq.merlindataexchange.configuration.DataStoreRef;
 import org.junit.jupiter.api.Test;
 
@@ -79,6 +80,27 @@ final class MerlinDataExchangeParserTest
         assertEquals("wat2", localDssRef2.getId());
     }
 
+    @Test
+    void testParseProfileSegmentationOverrides() throws IOException, MerlinConfigParseException
+    {
+        Path mockXml = getMockXml("merlin_mock_config_profile_segmentation.xml");
+        DataExchangeConfiguration dataExchangeConfig = MerlinDataExchangeParser.parseXmlFile(mockXml);
+        DataStoreProfile dataStoreProfile = (DataStoreProfile) dataExchangeConfig.getDataStores().stream()
+                .filter(DataStoreProfile.class::isInstance)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Missing datastore-profile"));
+        assertEquals(90, dataStoreProfile.getSignificantTimeChangeMinutes());
+        assertEquals(25.0, dataStoreProfile.getSignificantChangeDepthPercent());
+
+        DataStoreProfile noOverrides = (DataStoreProfile) MerlinDataExchangeParser.parseXmlFile(getMockXml("merlin_mock_config_profile_no_constituents.xml"))
+                .getDataStores().stream()
+                .filter(DataStoreProfile.class::isInstance)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Missing datastore-profile"));
+        assertNull(noOverrides.getSignificantTimeChangeMinutes());
+        assertNull(noOverrides.getSignificantChangeDepthPercent());
+    }
+
     @Test
     void testInvalidXmls() throws IOException
     {
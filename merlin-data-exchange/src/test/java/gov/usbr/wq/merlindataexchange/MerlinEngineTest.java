@@ -0,0 +1,49 @@
+package gov.usbr.wq.merlindataexchange;
+
+import gov.usbr.wq.merlindataexchange.io.DataExchangeExecutors;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class MerlinEngineTest
+{
+    @Test
+    void testCloseShutsDownExecutors() throws Exception
+    {
+        TestEngine engine = new TestEngine();
+        ExecutorService orchestration = engine.getOrchestrationExecutorService();
+        DataExchangeExecutors executors = engine.getDataExchangeExecutors();
+        //a task already submitted still finishes
+        CompletableFuture<Integer> running = CompletableFuture.supplyAsync(() -> 1, executors.getFetchExecutor());
+        engine.close();
+        assertEquals(1, running.get(5, TimeUnit.SECONDS));
+        assertTrue(orchestration.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(executors.getFetchExecutor().awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(executors.getConvertExecutor().isShutdown());
+        assertTrue(executors.getWriteExecutor().isShutdown());
+    }
+
+    @Test
+    void testNextRunCreatesNewExecutors()
+    {
+        TestEngine engine = new TestEngine();
+        DataExchangeExecutors executors = engine.getDataExchangeExecutors();
+        engine.shutdownExecutors();
+        DataExchangeExecutors nextExecutors = engine.getDataExchangeExecutors();
+        assertNotSame(executors, nextExecutors);
+        assertFalse(nextExecutors.getFetchExecutor().isShutdown());
+        engine.close();
+        assertTrue(nextExecutors.getFetchExecutor().isShutdown());
+    }
+
+    private static final class TestEngine extends MerlinEngine
+    {
+    }
+}
@@ -0,0 +1,96 @@
+package gov.usbr.wq.merlindataexchange;
+
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+import gov.usbr.wq.merlindataexchange.configuration.DataExchangeSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static gov.usbr.wq.merlindataexchange.TestExchangeUtil.buildMeasure;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class MerlinExchangeJournalTest
+{
+    private static final Instant START = Instant.parse("2023-01-01T00:00:00Z");
+    private static final Instant END = Instant.parse("2023-02-01T00:00:00Z");
+
+    @TempDir
+    Path _tempDir;
+
+    @Test
+    void testRecordedUnitWrittenToJournal() throws Exception
+    {
+        Path journalFile = _tempDir.resolve("config" + MerlinExchangeJournal.JOURNAL_EXTENSION);
+        MerlinExchangeJournal journal = MerlinExchangeJournal.open(journalFile, false);
+        DataExchangeSet set = new DataExchangeSet();
+        MeasureWrapper measure = buildMeasure("Shasta Lake-Flow");
+        assertFalse(journal.isCompleted(set, measure, START, END));
+        journal.recordCompleted(set, measure, START, END);
+        journal.recordCompleted(set, measure, START, END);
+        assertTrue(journal.isCompleted(set, measure, START, END));
+        //flushed as each unit is recorded, before the journal is closed
+        assertEquals(1, Files.readAllLines(journalFile, StandardCharsets.UTF_8).size());
+        journal.close();
+    }
+
+    @Test
+    void testResumeSkipsUnitsAlreadyWritten()
+    {
+        Path journalFile = _tempDir.resolve("config" + MerlinExchangeJournal.JOURNAL_EXTENSION);
+        DataExchangeSet set = new DataExchangeSet();
+        MeasureWrapper written = buildMeasure("Shasta Lake-Flow");
+        MeasureWrapper notWritten = buildMeasure("Keswick-Flow");
+        MerlinExchangeJournal journal = MerlinExchangeJournal.open(journalFile, false);
+        journal.recordCompleted(set, written, START, END);
+        journal.close();
+
+        MerlinExchangeJournal resumed = MerlinExchangeJournal.open(journalFile, true);
+        assertTrue(resumed.isCompleted(set, written, START, END));
+        assertFalse(resumed.isCompleted(set, notWritten, START, END));
+        //a unit is only skipped for the same time window
+        assertFalse(resumed.isCompleted(set, written, START, END.plusSeconds(1)));
+        assertFalse(resumed.isCompleted(set, written, null, END));
+        resumed.recordCompleted(set, notWritten, START, END);
+        resumed.close();
+
+        MerlinExchangeJournal resumedAgain = MerlinExchangeJournal.open(journalFile, true);
+        assertTrue(resumedAgain.isCompleted(set, written, START, END));
+        assertTrue(resumedAgain.isCompleted(set, notWritten, START, END));
+        resumedAgain.close();
+    }
+
+    @Test
+    void testNewExtractStartsNewJournal() throws Exception
+    {
+        Path journalFile = _tempDir.resolve("config" + MerlinExchangeJournal.JOURNAL_EXTENSION);
+        DataExchangeSet set = new DataExchangeSet();
+        MeasureWrapper measure = buildMeasure("Shasta Lake-Flow");
+        MerlinExchangeJournal journal = MerlinExchangeJournal.open(journalFile, false);
+        journal.recordCompleted(set, measure, null, null);
+        journal.close();
+
+        MerlinExchangeJournal newJournal = MerlinExchangeJournal.open(journalFile, false);
+        assertFalse(newJournal.isCompleted(set, measure, null, null));
+        assertTrue(Files.readAllLines(journalFile, StandardCharsets.UTF_8).isEmpty());
+        newJournal.close();
+    }
+
+    @Test
+    void testUnopenableJournalStillTracksUnits()
+    {
+        Path journalFile = _tempDir.resolve("missing").resolve("config" + MerlinExchangeJournal.JOURNAL_EXTENSION);
+        MerlinExchangeJournal journal = MerlinExchangeJournal.open(journalFile, true);
+        DataExchangeSet set = new DataExchangeSet();
+        MeasureWrapper measure = buildMeasure("Shasta Lake-Flow");
+        journal.recordCompleted(set, measure, START, END);
+        assertTrue(journal.isCompleted(set, measure, START, END));
+        journal.close();
+        assertFalse(Files.exists(journalFile));
+    }
+}
@@ -0,0 +1,127 @@
+package gov.usbr.wq.merlindataexchange;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class MerlinExchangeSchedulerTest
+{
+    @AfterEach
+    void clearProperties()
+    {
+        System.clearProperty(MerlinExchangeScheduler.POLICY_PROPERTY_KEY);
+        System.clearProperty(MerlinExchangeScheduler.HEAP_BUDGET_MB_PROPERTY_KEY);
+    }
+
+    @Test
+    void testLongestFirstIsDefault()
+    {
+        MerlinExchangeScheduler scheduler = new MerlinExchangeScheduler(1, new AtomicBoolean());
+        assertEquals(MerlinExchangeScheduler.SchedulingPolicy.LONGEST_FIRST, scheduler.getPolicy());
+        List<String> order = new ArrayList<>();
+        submit(scheduler, order, "small", 10, "set1");
+        submit(scheduler, order, "large", 1000, "set1");
+        submit(scheduler, order, "medium", 100, "set2");
+        submit(scheduler, order, "alsoMedium", 100, "set2");
+        scheduler.start();
+        assertEquals(Arrays.asList("large", "medium", "alsoMedium", "small"), order);
+    }
+
+    @Test
+    void testSubmissionOrder()
+    {
+        System.setProperty(MerlinExchangeScheduler.POLICY_PROPERTY_KEY, "submission_order");
+        MerlinExchangeScheduler scheduler = new MerlinExchangeScheduler(1, new AtomicBoolean());
+        List<String> order = new ArrayList<>();
+        submit(scheduler, order, "small", 10, "set1");
+        submit(scheduler, order, "large", 1000, "set1");
+        submit(scheduler, order, "medium", 100, "set2");
+        scheduler.start();
+        assertEquals(Arrays.asList("small", "large", "medium"), order);
+    }
+
+    @Test
+    void testFairShareAlternatesSets()
+    {
+        System.setProperty(MerlinExchangeScheduler.POLICY_PROPERTY_KEY, "FAIR_SHARE");
+        MerlinExchangeScheduler scheduler = new MerlinExchangeScheduler(1, new AtomicBoolean());
+        List<String> order = new ArrayList<>();
+        submit(scheduler, order, "a1", 100, "setA");
+        submit(scheduler, order, "a2", 100, "setA");
+        submit(scheduler, order, "a3", 100, "setA");
+        submit(scheduler, order, "b1", 50, "setB");
+        submit(scheduler, order, "b2", 150, "setB");
+        scheduler.start();
+        //setA gets the first slot by submission order, setB then catches up on cost before setA runs again
+        assertEquals(Arrays.asList("a1", "b2", "a2", "b1", "a3"), order);
+    }
+
+    @Test
+    void testInvalidPolicyFallsBackToDefault()
+    {
+        System.setProperty(MerlinExchangeScheduler.POLICY_PROPERTY_KEY, "not a policy");
+        MerlinExchangeScheduler scheduler = new MerlinExchangeScheduler(1, new AtomicBoolean());
+        assertEquals(MerlinExchangeScheduler.SchedulingPolicy.LONGEST_FIRST, scheduler.getPolicy());
+    }
+
+    @Test
+    void testHeapBudgetHoldsBackTasks()
+    {
+        long megabyte = 1024L * 1024L;
+        System.setProperty(MerlinExchangeScheduler.HEAP_BUDGET_MB_PROPERTY_KEY, "10");
+        MerlinExchangeScheduler scheduler = new MerlinExchangeScheduler(4, new AtomicBoolean());
+        List<String> order = new ArrayList<>();
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        CompletableFuture<Void> second = new CompletableFuture<>();
+        scheduler.submit(() -> start(order, "first", first), 30, 6 * megabyte, "set1");
+        scheduler.submit(() -> start(order, "second", second), 20, 6 * megabyte, "set1");
+        scheduler.submit(() -> start(order, "third", CompletableFuture.completedFuture(null)), 10, 3 * megabyte, "set1");
+        scheduler.start();
+        //second doesn't fit alongside first, and third waits behind second rather than passing it
+        assertEquals(Arrays.asList("first"), order);
+        assertEquals(6 * megabyte, scheduler.getAdmittedBytes());
+        first.complete(null);
+        assertEquals(Arrays.asList("first", "second", "third"), order);
+        assertEquals(6 * megabyte, scheduler.getAdmittedBytes());
+        second.complete(null);
+        assertEquals(0, scheduler.getAdmittedBytes());
+        assertEquals(9 * megabyte, scheduler.getPeakAdmittedBytes());
+    }
+
+    @Test
+    void testTaskOverHeapBudgetRunsAlone()
+    {
+        System.setProperty(MerlinExchangeScheduler.HEAP_BUDGET_MB_PROPERTY_KEY, "1");
+        MerlinExchangeScheduler scheduler = new MerlinExchangeScheduler(4, new AtomicBoolean());
+        List<String> order = new ArrayList<>();
+        CompletableFuture<Void> large = new CompletableFuture<>();
+        scheduler.submit(() -> start(order, "large", large), 10, 5 * 1024L * 1024L, "set1");
+        scheduler.submit(() -> start(order, "small", CompletableFuture.completedFuture(null)), 1, 1, "set1");
+        scheduler.start();
+        assertEquals(Arrays.asList("large"), order);
+        large.complete(null);
+        assertEquals(Arrays.asList("large", "small"), order);
+    }
+
+    private static CompletableFuture<Void> start(List<String> order, String name, CompletableFuture<Void> taskFuture)
+    {
+        order.add(name);
+        return taskFuture;
+    }
+
+    private static void submit(MerlinExchangeScheduler scheduler, List<String> order, String name, long cost, String group)
+    {
+        scheduler.submit(() ->
+        {
+            order.add(name);
+            return CompletableFuture.completedFuture(null);
+        }, cost, group);
+    }
+}
@@ -0,0 +1,49 @@
+package gov.usbr.wq.merlindataexchange;
+
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+import gov.usbr.wq.merlindataexchange.configuration.DataExchangeSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static gov.usbr.wq.merlindataexchange.TestExchangeUtil.buildMeasure;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+final class MerlinHighWaterMarksTest
+{
+    private static final String SOURCE = "https://www.grabdata2.com";
+    private static final String DESTINATION = "test.dss";
+
+    @TempDir
+    Path _tempDir;
+
+    @Test
+    void testHighWaterMarkOnlyMovesForward()
+    {
+        MerlinHighWaterMarks highWaterMarks = MerlinHighWaterMarks.open(_tempDir.resolve("config" + MerlinHighWaterMarks.HIGH_WATER_MARKS_EXTENSION));
+        DataExchangeSet set = new DataExchangeSet();
+        MeasureWrapper measure = buildMeasure("Shasta Lake-Flow");
+        assertNull(highWaterMarks.getHighWaterMark(SOURCE, set, measure, DESTINATION));
+        Instant lastEvent = Instant.parse("2023-03-01T00:00:00Z");
+        highWaterMarks.recordWritten(SOURCE, set, measure, DESTINATION, lastEvent);
+        highWaterMarks.recordWritten(SOURCE, set, measure, DESTINATION, lastEvent.minusSeconds(3600));
+        assertEquals(lastEvent, highWaterMarks.getHighWaterMark(SOURCE, set, measure, DESTINATION));
+        assertNull(highWaterMarks.getHighWaterMark(SOURCE, set, measure, "other.dss"));
+    }
+
+    @Test
+    void testHighWaterMarksSavedAndOpened()
+    {
+        Path highWaterMarksFile = _tempDir.resolve("config" + MerlinHighWaterMarks.HIGH_WATER_MARKS_EXTENSION);
+        MerlinHighWaterMarks highWaterMarks = MerlinHighWaterMarks.open(highWaterMarksFile);
+        DataExchangeSet set = new DataExchangeSet();
+        MeasureWrapper measure = buildMeasure("Shasta Lake-Flow");
+        Instant lastEvent = Instant.parse("2023-03-01T00:00:00Z");
+        highWaterMarks.recordWritten(SOURCE, set, measure, DESTINATION, lastEvent);
+        highWaterMarks.save();
+        assertEquals(lastEvent, MerlinHighWaterMarks.open(highWaterMarksFile).getHighWaterMark(SOURCE, set, measure, DESTINATION));
+    }
+}
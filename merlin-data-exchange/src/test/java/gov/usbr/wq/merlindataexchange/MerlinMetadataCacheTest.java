@@ -0,0 +1,132 @@
+package gov.usbr.wq.merlindataexchange;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import gov.usbr.wq.dataaccess.http.ApiConnectionInfo;
+import gov.usbr.wq.dataaccess.json.Measure;
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+import gov.usbr.wq.dataaccess.model.TemplateWrapper;
+import gov.usbr.wq.dataaccess.model.TemplateWrapperBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class MerlinMetadataCacheTest
+{
+    private static final ApiConnectionInfo CONNECTION_INFO = new ApiConnectionInfo("https://www.grabdata2.com/");
+    private static final String SERIES_STRING = "Shasta Lake-Flow/Flow/INST-VAL/15/0/54-250.10.310.1.1";
+
+    @TempDir
+    Path _tempDir;
+
+    @BeforeEach
+    void setCacheDirectory()
+    {
+        System.setProperty(MerlinMetadataCache.CACHE_DIRECTORY_PROPERTY_KEY, _tempDir.toString());
+    }
+
+    @AfterEach
+    void clearProperties()
+    {
+        System.clearProperty(MerlinMetadataCache.CACHE_DIRECTORY_PROPERTY_KEY);
+        System.clearProperty(MerlinMetadataCache.CACHE_TTL_MINUTES_PROPERTY_KEY);
+    }
+
+    @Test
+    void testStoredCatalogLoaded()
+    {
+        MerlinMetadataCache.getInstance().store(CONNECTION_INFO, buildCatalog());
+        Optional<MerlinServerCatalog> loaded = MerlinMetadataCache.getInstance().load(CONNECTION_INFO);
+        assertTrue(loaded.isPresent());
+        List<TemplateWrapper> templates = loaded.get().getTemplates();
+        assertEquals(1, templates.size());
+        assertEquals(1, templates.get(0).getDprId());
+        List<MeasureWrapper> measures = loaded.get().getMeasures(templates.get(0));
+        assertEquals(1, measures.size());
+        assertEquals(SERIES_STRING, measures.get(0).getSeriesString());
+        assertEquals("Profile", measures.get(0).getType());
+        assertFalse(MerlinMetadataCache.getInstance().load(new ApiConnectionInfo("https://www.grabdata3.com/")).isPresent());
+    }
+
+    @Test
+    void testExpiredCatalogNotLoaded() throws Exception
+    {
+        System.setProperty(MerlinMetadataCache.CACHE_TTL_MINUTES_PROPERTY_KEY, "60");
+        MerlinMetadataCache.getInstance().store(CONNECTION_INFO, buildCatalog());
+        Path cacheFile = MerlinMetadataCache.getCacheFile(_tempDir, CONNECTION_INFO);
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = (ObjectNode) mapper.readTree(cacheFile.toFile());
+        root.put(MerlinMetadataCache.SAVED_AT, Instant.now().minus(Duration.ofMinutes(59)).toEpochMilli());
+        mapper.writeValue(cacheFile.toFile(), root);
+        assertTrue(MerlinMetadataCache.getInstance().load(CONNECTION_INFO).isPresent());
+        root.put(MerlinMetadataCache.SAVED_AT, Instant.now().minus(Duration.ofMinutes(61)).toEpochMilli());
+        mapper.writeValue(cacheFile.toFile(), root);
+        assertFalse(MerlinMetadataCache.getInstance().load(CONNECTION_INFO).isPresent());
+    }
+
+    @Test
+    void testNothingCachedWithoutDirectory()
+    {
+        System.clearProperty(MerlinMetadataCache.CACHE_DIRECTORY_PROPERTY_KEY);
+        MerlinMetadataCache.getInstance().store(CONNECTION_INFO, buildCatalog());
+        assertFalse(MerlinMetadataCache.getInstance().load(CONNECTION_INFO).isPresent());
+        System.setProperty(MerlinMetadataCache.CACHE_DIRECTORY_PROPERTY_KEY, _tempDir.toString());
+        assertFalse(Files.exists(MerlinMetadataCache.getCacheFile(_tempDir, CONNECTION_INFO)));
+    }
+
+    @Test
+    void testNothingCachedWithZeroTimeToLive()
+    {
+        System.setProperty(MerlinMetadataCache.CACHE_TTL_MINUTES_PROPERTY_KEY, "0");
+        MerlinMetadataCache.getInstance().store(CONNECTION_INFO, buildCatalog());
+        assertFalse(Files.exists(MerlinMetadataCache.getCacheFile(_tempDir, CONNECTION_INFO)));
+    }
+
+    @Test
+    void testUnreadableCatalogNotLoaded() throws Exception
+    {
+        Path cacheFile = MerlinMetadataCache.getCacheFile(_tempDir, CONNECTION_INFO);
+        Files.write(cacheFile, "{\"format\": 3, \"savedAt\": ".getBytes());
+        assertFalse(MerlinMetadataCache.getInstance().load(CONNECTION_INFO).isPresent());
+    }
+
+    @Test
+    void testCatalogMissingConfiguredMetadata()
+    {
+        MerlinMetadataCache.getInstance().store(CONNECTION_INFO, buildCatalog());
+        MerlinServerCatalog loaded = MerlinMetadataCache.getInstance().load(CONNECTION_INFO).get();
+        assertTrue(loaded.hasTemplate(null, 1));
+        //template or quality version added to the server after the catalog was cached
+        assertFalse(loaded.hasTemplate("New Template", 2));
+        assertFalse(loaded.hasQualityVersion("All", 0));
+    }
+
+    private static MerlinServerCatalog buildCatalog()
+    {
+        TemplateWrapper template = new TemplateWrapperBuilder().withDprID(1).build();
+        Measure measure = new Measure();
+        measure.setSeriesString(SERIES_STRING);
+        measure.setType("Profile");
+        List<MeasureWrapper> measures = new ArrayList<>();
+        measures.add(new MeasureWrapper(measure));
+        Map<TemplateWrapper, List<MeasureWrapper>> templateToMeasures = new HashMap<>();
+        templateToMeasures.put(template, measures);
+        return new MerlinServerCatalog(Collections.singletonList(template), Collections.emptyList(), templateToMeasures);
+    }
+}
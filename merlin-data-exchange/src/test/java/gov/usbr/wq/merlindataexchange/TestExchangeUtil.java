@@ -0,0 +1,37 @@
+package gov.usbr.wq.merlindataexchange;
+
+import gov.usbr.wq.dataaccess.json.Measure;
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+import gov.usbr.wq.merlindataexchange.io.DataExchangeExecutors;
+
+import java.util.concurrent.Executors;
+
+public final class TestExchangeUtil
+{
+    private TestExchangeUtil()
+    {
+        throw new AssertionError("Utility class");
+    }
+
+    public static MeasureWrapper buildMeasure(String seriesString)
+    {
+        Measure measure = new Measure();
+        measure.setSeriesString(seriesString);
+        return new MeasureWrapper(measure);
+    }
+
+    public static DataExchangeExecutors createExecutors()
+    {
+        return new DataExchangeExecutors(4, 2, 2, Executors.defaultThreadFactory(), Executors.defaultThreadFactory(), Executors.defaultThreadFactory());
+    }
+
+    /**
+     * Interrupts whatever the test left running on every pool.
+     */
+    public static void shutdownNow(DataExchangeExecutors executors)
+    {
+        executors.getFetchExecutor().shutdownNow();
+        executors.getConvertExecutor().shutdownNow();
+        executors.getWriteExecutor().shutdownNow();
+    }
+}
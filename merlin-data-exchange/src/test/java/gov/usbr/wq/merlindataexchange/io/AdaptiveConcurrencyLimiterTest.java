@@ -0,0 +1,107 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class AdaptiveConcurrencyLimiterTest
+{
+    private static final long STEADY_LATENCY = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void testLimitGrowsWhileSaturatedAndLatencyIsSteady() throws InterruptedException
+    {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 64);
+        for(int round = 0; round < 20; round++)
+        {
+            runSaturatedRound(limiter, STEADY_LATENCY);
+        }
+        assertTrue(limiter.getLimit() > 4, "Limit should grow, was " + limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testLimitNeverExceedsMax() throws InterruptedException
+    {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 5);
+        for(int round = 0; round < 50; round++)
+        {
+            runSaturatedRound(limiter, STEADY_LATENCY);
+        }
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void testOverloadHalvesLimitOncePerRound() throws InterruptedException
+    {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 64);
+        int limit = limiter.getLimit();
+        for(int i = 0; i < limit; i++)
+        {
+            limiter.acquire();
+        }
+        for(int i = 0; i < limit; i++)
+        {
+            limiter.onOverload();
+        }
+        assertEquals(8, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testLatencyGrowthBacksOff() throws InterruptedException
+    {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 64);
+        runSaturatedRound(limiter, STEADY_LATENCY);
+        int limitBeforeSlowdown = limiter.getLimit();
+        runSaturatedRound(limiter, STEADY_LATENCY * 5);
+        assertTrue(limiter.getLimit() < limitBeforeSlowdown, "Limit should back off, was " + limiter.getLimit());
+    }
+
+    @Test
+    void testLargeResponsesAreNotTreatedAsCongestion() throws InterruptedException
+    {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 64);
+        runSaturatedRound(limiter, STEADY_LATENCY);
+        int limitBefore = limiter.getLimit();
+        //ten times slower, but for ten times the events
+        int limit = limiter.getLimit();
+        for(int i = 0; i < limit; i++)
+        {
+            limiter.acquire();
+        }
+        for(int i = 0; i < limit; i++)
+        {
+            limiter.onSuccess(STEADY_LATENCY * 10, 10_000);
+        }
+        assertTrue(limiter.getLimit() >= limitBefore);
+    }
+
+    @Test
+    void testNeverDropsBelowOne() throws InterruptedException
+    {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 64);
+        for(int i = 0; i < 10; i++)
+        {
+            limiter.acquire();
+            limiter.onOverload();
+        }
+        assertEquals(1, limiter.getLimit());
+    }
+
+    private static void runSaturatedRound(AdaptiveConcurrencyLimiter limiter, long latencyNanos) throws InterruptedException
+    {
+        int limit = limiter.getLimit();
+        for(int i = 0; i < limit; i++)
+        {
+            limiter.acquire();
+        }
+        for(int i = 0; i < limit; i++)
+        {
+            limiter.onSuccess(latencyNanos, 100);
+        }
+    }
+}
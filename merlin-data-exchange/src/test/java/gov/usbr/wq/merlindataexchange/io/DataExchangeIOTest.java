@@ -0,0 +1,238 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import gov.usbr.wq.dataaccess.json.Data;
+import gov.usbr.wq.dataaccess.json.Event;
+import gov.usbr.wq.dataaccess.model.DataWrapper;
+import gov.usbr.wq.dataaccess.model.EventWrapper;
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+import gov.usbr.wq.merlindataexchange.DataExchangeCache;
+import gov.usbr.wq.merlindataexchange.MerlinDataExchangeLogBody;
+import gov.usbr.wq.merlindataexchange.MerlinExchangeCompletionTracker;
+import gov.usbr.wq.merlindataexchange.configuration.DataExchangeConfiguration;
+import gov.usbr.wq.merlindataexchange.configuration.DataExchangeSet;
+import gov.usbr.wq.merlindataexchange.configuration.DataStore;
+import gov.usbr.wq.merlindataexchange.parameters.AuthenticationParametersBuilder;
+import gov.usbr.wq.merlindataexchange.parameters.MerlinParameters;
+import gov.usbr.wq.merlindataexchange.parameters.MerlinTimeSeriesParameters;
+import gov.usbr.wq.merlindataexchange.parameters.MerlinTimeSeriesParametersBuilder;
+import hec.io.impl.StoreOptionImpl;
+import hec.ui.ProgressListener;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static gov.usbr.wq.merlindataexchange.TestExchangeUtil.buildMeasure;
+import static gov.usbr.wq.merlindataexchange.TestExchangeUtil.createExecutors;
+import static gov.usbr.wq.merlindataexchange.TestExchangeUtil.shutdownNow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class DataExchangeIOTest
+{
+    private static final Instant START = Instant.parse("2023-01-01T00:00:00Z");
+    private static final Instant END = Instant.parse("2023-01-05T00:00:00Z");
+    private static final String SERIES_STRING = "Shasta Lake-Flow/Flow/INST-VAL/60/0/54-250.10.310.1.1";
+
+    @Test
+    void testStreamedWindowsWriteEachEventOnce() throws Exception
+    {
+        //4 daily windows of hourly events, each window writing the events from its start up to its end
+        StreamingReader reader = new StreamingReader(MerlinSeriesChunks.split(START, END, 60, 24));
+        EventCollectingWriter writer = new EventCollectingWriter();
+        DataExchangeExecutors executors = createExecutors();
+        try
+        {
+            MerlinExchangeCompletionTracker completionTracker = new MerlinExchangeCompletionTracker(0);
+            completionTracker.addNumberOfMeasuresToComplete(1);
+            List<Instant> lastEventTimes = new CopyOnWriteArrayList<>();
+            boolean written = DataExchangeIO.exchangeData(reader, writer, new DataExchangeSet(), buildParameters(), null, null, null, buildMeasure(SERIES_STRING),
+                            completionTracker, null, new AtomicBoolean(false), new MerlinDataExchangeLogBody(), new DataExchangePipeline(executors, 1),
+                            lastEventTimes::add)
+                    .get(10, TimeUnit.SECONDS);
+            assertTrue(written);
+            assertEquals(4, reader._windowsRead.size());
+            assertEquals(0, reader._wholeReads);
+            for(int i = 0; i < 4; i++)
+            {
+                assertEquals(START.plus(i, ChronoUnit.DAYS), reader._windowsRead.get(i)[0]);
+                assertEquals(START.plus(i + 1L, ChronoUnit.DAYS), reader._windowsRead.get(i)[1]);
+                assertEquals(i == 3, reader._lastWindowFlags.get(i));
+            }
+            //hourly events from start through end, boundary events written with the window they start
+            assertEquals(4 * 24 + 1, writer._eventTimes.size());
+            assertEquals(writer._eventTimes.size(), writer._eventTimes.stream().distinct().count());
+            for(int i = 0; i < writer._eventTimes.size(); i++)
+            {
+                assertEquals(START.plus(i, ChronoUnit.HOURS), writer._eventTimes.get(i));
+            }
+            assertEquals(END, lastEventTimes.get(lastEventTimes.size() - 1));
+        }
+        finally
+        {
+            shutdownNow(executors);
+        }
+    }
+
+    @Test
+    void testUnstreamedMeasureReadWhole() throws Exception
+    {
+        StreamingReader reader = new StreamingReader(Collections.emptyList());
+        EventCollectingWriter writer = new EventCollectingWriter();
+        DataExchangeExecutors executors = createExecutors();
+        try
+        {
+            boolean written = DataExchangeIO.exchangeData(reader, writer, new DataExchangeSet(), buildParameters(), null, null, null, buildMeasure(SERIES_STRING),
+                            new MerlinExchangeCompletionTracker(0), null, new AtomicBoolean(false), new MerlinDataExchangeLogBody(),
+                            new DataExchangePipeline(executors, 1), lastEventTime -> {})
+                    .get(10, TimeUnit.SECONDS);
+            assertTrue(written);
+            assertEquals(1, reader._wholeReads);
+            assertTrue(reader._windowsRead.isEmpty());
+            assertEquals(4 * 24 + 1, writer._eventTimes.size());
+        }
+        finally
+        {
+            shutdownNow(executors);
+        }
+    }
+
+    private static MerlinTimeSeriesParameters buildParameters()
+    {
+        return new MerlinTimeSeriesParametersBuilder()
+                .withWatershedDirectory(Paths.get(System.getProperty("user.dir")))
+                .withLogFileDirectory(Paths.get(System.getProperty("user.dir")))
+                .withAuthenticationParameters(new AuthenticationParametersBuilder()
+                        .forUrl("https://www.grabdata2.com")
+                        .setUsername("user")
+                        .andPassword("password".toCharArray())
+                        .build())
+                .withStoreOption(new StoreOptionImpl())
+                .withStart(START)
+                .withEnd(END)
+                .build();
+    }
+
+    /**
+     * @return hourly events from start through end, both inclusive, as Merlin returns them
+     */
+    private static MerlinSeriesData readSource(Instant start, Instant end)
+    {
+        Data data = new Data().seriesString(SERIES_STRING);
+        data.setTimeZone("UTC");
+        for(Instant time = start; !time.isAfter(end); time = time.plus(1, ChronoUnit.HOURS))
+        {
+            data.addEventsItem(new Event().date(time.atOffset(ZoneOffset.UTC)).value(1.0));
+        }
+        return MerlinSeriesData.fromDataWrapper(new DataWrapper(data));
+    }
+
+    private static final class StreamingReader implements DataExchangeReader<MerlinTimeSeriesParameters, MerlinSeriesData>
+    {
+        private final List<Instant[]> _windows;
+        private final List<Instant[]> _windowsRead = new CopyOnWriteArrayList<>();
+        private final List<Boolean> _lastWindowFlags = new CopyOnWriteArrayList<>();
+        private volatile int _wholeReads;
+
+        private StreamingReader(List<Instant[]> windows)
+        {
+            _windows = windows;
+        }
+
+        @Override
+        public CompletableFuture<MerlinSeriesData> readData(DataExchangeSet configuration, MerlinTimeSeriesParameters runtimeParameters, DataStore sourceDataStore,
+                                                            DataStore destDataStore, DataExchangeCache cache, MeasureWrapper seriesPath,
+                                                            MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener,
+                                                            AtomicBoolean isCancelled, MerlinDataExchangeLogBody logger, ExecutorService executorService,
+                                                            AtomicReference<String> readStart)
+        {
+            _wholeReads++;
+            return CompletableFuture.supplyAsync(() -> readSource(runtimeParameters.getStart(), runtimeParameters.getEnd()), executorService);
+        }
+
+        @Override
+        public CompletableFuture<MerlinSeriesData> readStreamedWindow(DataExchangeSet configuration, MerlinTimeSeriesParameters windowParameters,
+                                                                      WindowRead windowRead, DataStore sourceDataStore, DataStore destDataStore,
+                                                                      DataExchangeCache cache, MeasureWrapper seriesPath,
+                                                                      MerlinExchangeCompletionTracker completionTracker, ProgressListener progressListener,
+                                                                      AtomicBoolean isCancelled, MerlinDataExchangeLogBody logger,
+                                                                      DataExchangePipeline pipeline, AtomicReference<String> readStart)
+        {
+            Instant start = windowParameters.getStart();
+            Instant end = windowParameters.getEnd();
+            boolean isLastWindow = windowRead.isLastWindow(end);
+            _windowsRead.add(new Instant[]{start, end});
+            _lastWindowFlags.add(isLastWindow);
+            //as converted and clipped by the time series reader, events at the end are left to the next window
+            return pipeline.read(() -> readSource(start, isLastWindow ? end : end.minusSeconds(1)), data -> data);
+        }
+
+        @Override
+        public List<Instant[]> getStreamedWindows(MerlinTimeSeriesParameters runtimeParameters, MeasureWrapper measure)
+        {
+            return _windows;
+        }
+
+        @Override
+        public String getSourcePath(DataStore sourceDataStore, MerlinParameters parameters)
+        {
+            return null;
+        }
+
+        @Override
+        public List<MeasureWrapper> filterMeasuresToRead(DataExchangeConfiguration dataExchangeConfig, DataExchangeSet dataExchangeSet, List<MeasureWrapper> measures)
+        {
+            return measures;
+        }
+
+        @Override
+        public Set<String> getDefaultSupportedTypes()
+        {
+            return Collections.emptySet();
+        }
+    }
+
+    private static final class EventCollectingWriter implements DataExchangeWriter<MerlinTimeSeriesParameters, MerlinSeriesData>
+    {
+        private final List<Instant> _eventTimes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void writeData(MerlinSeriesData dataObject, MeasureWrapper seriesPath, DataExchangeSet set, MerlinTimeSeriesParameters runtimeParameters,
+                              DataExchangeCache cache, DataStore destinationDataStore, MerlinExchangeCompletionTracker completionTracker,
+                              ProgressListener progressListener, MerlinDataExchangeLogBody logger, AtomicBoolean isCancelled, AtomicReference<String> readStart)
+        {
+            for(EventWrapper event : dataObject.getEvents())
+            {
+                _eventTimes.add(event.getDate().toInstant());
+            }
+        }
+
+        @Override
+        public boolean writeDataAndConfirm(MerlinSeriesData dataObject, MeasureWrapper seriesPath, DataExchangeSet set, MerlinTimeSeriesParameters runtimeParameters,
+                                           DataExchangeCache cache, DataStore destinationDataStore, MerlinExchangeCompletionTracker completionTracker,
+                                           ProgressListener progressListener, MerlinDataExchangeLogBody logger, AtomicBoolean isCancelled,
+                                           AtomicReference<String> readStart)
+        {
+            writeData(dataObject, seriesPath, set, runtimeParameters, cache, destinationDataStore, completionTracker, progressListener, logger, isCancelled,
+                    readStart);
+            return !dataObject.getEvents().isEmpty();
+        }
+
+        @Override
+        public Instant getLastEventTime(MerlinSeriesData dataObject)
+        {
+            return dataObject.getEvents().last().getDate().toInstant();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static gov.usbr.wq.merlindataexchange.TestExchangeUtil.createExecutors;
+import static gov.usbr.wq.merlindataexchange.TestExchangeUtil.shutdownNow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class DataExchangePipelineTest
+{
+    @AfterEach
+    void clearProperties()
+    {
+        System.clearProperty(DataExchangePipeline.FETCH_LIMIT_PROPERTY_KEY);
+        System.clearProperty(DataExchangePipeline.CONVERT_QUEUE_SIZE_PROPERTY_KEY);
+        System.clearProperty(DataExchangePipeline.WRITE_QUEUE_SIZE_PROPERTY_KEY);
+    }
+
+    @Test
+    void testSlowWriterStallsFetches() throws Exception
+    {
+        System.setProperty(DataExchangePipeline.FETCH_LIMIT_PROPERTY_KEY, "2");
+        System.setProperty(DataExchangePipeline.CONVERT_QUEUE_SIZE_PROPERTY_KEY, "1");
+        System.setProperty(DataExchangePipeline.WRITE_QUEUE_SIZE_PROPERTY_KEY, "1");
+        DataExchangeExecutors executors = createExecutors();
+        try
+        {
+            DataExchangePipeline pipeline = new DataExchangePipeline(executors, 10);
+            CountDownLatch writerBlocked = new CountDownLatch(1);
+            AtomicInteger fetched = new AtomicInteger();
+            AtomicInteger written = new AtomicInteger();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for(int i = 0; i < 20; i++)
+            {
+                int value = i;
+                CompletableFuture<Integer> read = pipeline.read(() ->
+                {
+                    fetched.incrementAndGet();
+                    return value;
+                }, data -> data * 2);
+                futures.add(pipeline.write(read, data ->
+                {
+                    awaitQuietly(writerBlocked);
+                    written.incrementAndGet();
+                }));
+            }
+            Thread.sleep(200);
+            //1 item being written, 1 converted waiting for the write slot, 2 fetched waiting for the convert slot
+            assertTrue(fetched.get() <= 4, "Fetched " + fetched.get() + " items while the writer was blocked");
+            assertEquals(0, written.get());
+            writerBlocked.countDown();
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+            assertEquals(20, fetched.get());
+            assertEquals(20, written.get());
+            assertEquals(0, pipeline.getFetchesInProgress());
+            assertEquals(0, pipeline.getConvertQueueDepth());
+            assertEquals(0, pipeline.getWriteQueueDepth());
+        }
+        finally
+        {
+            shutdownNow(executors);
+        }
+    }
+
+    @Test
+    void testFailedFetchReleasesPermit() throws Exception
+    {
+        System.setProperty(DataExchangePipeline.FETCH_LIMIT_PROPERTY_KEY, "1");
+        DataExchangeExecutors executors = createExecutors();
+        try
+        {
+            DataExchangePipeline pipeline = new DataExchangePipeline(executors, 1);
+            CompletableFuture<Integer> failed = pipeline.read(() ->
+            {
+                throw new IllegalStateException("fetch failed");
+            }, data -> 1);
+            CompletableFuture<Void> failedWrite = pipeline.write(failed, data -> {});
+            assertTrue(failedWrite.handle((v, e) -> e != null).get(5, TimeUnit.SECONDS));
+            CompletableFuture<Integer> succeeded = pipeline.read(() -> 1, data -> data + 1);
+            AtomicInteger written = new AtomicInteger();
+            pipeline.write(succeeded, written::set).get(5, TimeUnit.SECONDS);
+            assertEquals(2, written.get());
+            assertEquals(0, pipeline.getFetchesInProgress());
+        }
+        finally
+        {
+            shutdownNow(executors);
+        }
+    }
+
+    @Test
+    void testFailedAsyncReadReleasesPermit() throws Exception
+    {
+        System.setProperty(DataExchangePipeline.FETCH_LIMIT_PROPERTY_KEY, "1");
+        DataExchangeExecutors executors = createExecutors();
+        try
+        {
+            DataExchangePipeline pipeline = new DataExchangePipeline(executors, 1);
+            CompletableFuture<Integer> failed = pipeline.readAsync(executor -> CompletableFuture.supplyAsync(() ->
+            {
+                throw new IllegalStateException("read failed");
+            }, executor));
+            CompletableFuture<Void> failedWrite = pipeline.write(failed, data -> {});
+            assertTrue(failedWrite.handle((v, e) -> e != null).get(5, TimeUnit.SECONDS));
+            CompletableFuture<Integer> succeeded = pipeline.readAsync(executor -> CompletableFuture.supplyAsync(() -> 2, executor));
+            AtomicInteger written = new AtomicInteger();
+            pipeline.write(succeeded, written::set).get(5, TimeUnit.SECONDS);
+            assertEquals(2, written.get());
+            assertEquals(0, pipeline.getFetchesInProgress());
+            assertEquals(0, pipeline.getWriteQueueDepth());
+        }
+        finally
+        {
+            shutdownNow(executors);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class DssFileHandlesTest
+{
+    private static final String PATHNAME = "//KESWICK/FLOW-RELEASE//1HOUR/MERLIN/";
+    private static final Instant START = Instant.parse("2023-01-01T00:00:00Z");
+    private static final Instant END = Instant.parse("2023-02-01T00:00:00Z");
+
+    @TempDir
+    Path _tempDir;
+
+    @Test
+    void testFileOpenUntilLastSetReleases() throws IOException
+    {
+        String dssFilePath = Files.createFile(_tempDir.resolve("test.dss")).toString();
+        DssFileHandles handles = DssFileHandles.getInstance();
+        handles.retain(dssFilePath);
+        handles.retain(dssFilePath);
+        handles.updateDigest(dssFilePath, PATHNAME, START, END, "abc");
+        handles.recordWritten(dssFilePath);
+        assertTrue(handles.isUnchanged(dssFilePath, PATHNAME, START, END, "abc"));
+        assertFalse(handles.isUnchanged(dssFilePath, PATHNAME, START, END, "def"));
+        handles.release(dssFilePath);
+        assertTrue(handles.isUnchanged(dssFilePath, PATHNAME, START, END, "abc"));
+        handles.release(dssFilePath);
+        assertFalse(handles.isUnchanged(dssFilePath, PATHNAME, START, END, "abc"));
+        //digests saved on close are loaded when the file is next retained
+        assertTrue(Files.exists(_tempDir.resolve("test.dss" + DssRecordDigests.DIGEST_FILE_EXTENSION)));
+        handles.retain(dssFilePath);
+        assertTrue(handles.isUnchanged(dssFilePath, PATHNAME, START, END, "abc"));
+        handles.release(dssFilePath);
+    }
+
+    @Test
+    void testRecordRewrittenClearsDigest() throws IOException
+    {
+        String dssFilePath = Files.createFile(_tempDir.resolve("test.dss")).toString();
+        DssFileHandles handles = DssFileHandles.getInstance();
+        handles.retain(dssFilePath);
+        handles.updateDigest(dssFilePath, PATHNAME, START, END, "abc");
+        handles.updateDigest(dssFilePath, PATHNAME, START, END, null);
+        assertFalse(handles.isUnchanged(dssFilePath, PATHNAME, START, END, "abc"));
+        handles.release(dssFilePath);
+        assertFalse(Files.exists(_tempDir.resolve("test.dss" + DssRecordDigests.DIGEST_FILE_EXTENSION)));
+    }
+
+    @Test
+    void testUnretainedFileNotTracked() throws IOException
+    {
+        String dssFilePath = Files.createFile(_tempDir.resolve("test.dss")).toString();
+        DssFileHandles handles = DssFileHandles.getInstance();
+        handles.updateDigest(dssFilePath, PATHNAME, START, END, "abc");
+        handles.recordWritten(dssFilePath);
+        assertFalse(handles.isUnchanged(dssFilePath, PATHNAME, START, END, "abc"));
+        //a release without a matching retain doesn't close a file another set has open
+        handles.release(dssFilePath);
+        handles.retain(dssFilePath);
+        handles.updateDigest(dssFilePath, PATHNAME, START, END, "abc");
+        handles.release(_tempDir.resolve("other.dss").toString());
+        assertTrue(handles.isUnchanged(dssFilePath, PATHNAME, START, END, "abc"));
+        handles.release(dssFilePath);
+        assertFalse(handles.isUnchanged(dssFilePath, PATHNAME, START, END, "abc"));
+    }
+}
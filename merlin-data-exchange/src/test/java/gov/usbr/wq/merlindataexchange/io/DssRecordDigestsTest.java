@@ -0,0 +1,108 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import hec.io.TimeSeriesContainer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class DssRecordDigestsTest
+{
+    private static final String PATHNAME = "//KESWICK/FLOW-RELEASE//1HOUR/MERLIN/";
+    private static final Instant START = Instant.parse("2023-01-01T00:00:00Z");
+    private static final Instant END = Instant.parse("2023-02-01T00:00:00Z");
+
+    @TempDir
+    Path _tempDir;
+
+    @Test
+    void testDigestChangesWithValues()
+    {
+        TimeSeriesContainer timeSeriesContainer = buildContainer(1.0, 2.0);
+        String digest = DssRecordDigests.computeDigest(timeSeriesContainer, "Step 1", 0);
+        assertEquals(digest, DssRecordDigests.computeDigest(buildContainer(1.0, 2.0), "Step 1", 0));
+        assertNotEquals(digest, DssRecordDigests.computeDigest(buildContainer(1.0, 3.0), "Step 1", 0));
+        assertNotEquals(digest, DssRecordDigests.computeDigest(timeSeriesContainer, "Step 2", 0));
+        assertNotEquals(digest, DssRecordDigests.computeDigest(timeSeriesContainer, "Step 1", 1));
+    }
+
+    @Test
+    void testDigestsSavedAndLoaded() throws IOException
+    {
+        Path dssFile = Files.createFile(_tempDir.resolve("test.dss"));
+        DssRecordDigests digests = DssRecordDigests.load(dssFile.toString());
+        digests.updateDigest(PATHNAME, START, END, "abc");
+        digests.save();
+        assertTrue(Files.isRegularFile(DssRecordDigests.getDigestFile(dssFile)));
+        DssRecordDigests loaded = DssRecordDigests.load(dssFile.toString());
+        assertTrue(loaded.isUnchanged(PATHNAME, START, END, "abc"));
+        assertFalse(loaded.isUnchanged(PATHNAME, START, END, "def"));
+    }
+
+    @Test
+    void testDigestsDiscardedWhenDssFileModified() throws IOException
+    {
+        Path dssFile = Files.createFile(_tempDir.resolve("test.dss"));
+        DssRecordDigests digests = DssRecordDigests.load(dssFile.toString());
+        digests.updateDigest(PATHNAME, START, END, "abc");
+        digests.save();
+        Files.setLastModifiedTime(dssFile, FileTime.fromMillis(Files.getLastModifiedTime(dssFile).toMillis() + 60_000));
+        assertFalse(DssRecordDigests.load(dssFile.toString()).isUnchanged(PATHNAME, START, END, "abc"));
+    }
+
+    @Test
+    void testRemovedDigestNotUnchanged() throws IOException
+    {
+        Path dssFile = Files.createFile(_tempDir.resolve("test.dss"));
+        DssRecordDigests digests = DssRecordDigests.load(dssFile.toString());
+        digests.updateDigest(PATHNAME, START, END, "abc");
+        digests.updateDigest(PATHNAME, START, END, null);
+        assertFalse(digests.isUnchanged(PATHNAME, START, END, "abc"));
+        digests.save();
+        assertFalse(Files.exists(DssRecordDigests.getDigestFile(dssFile)));
+    }
+
+    @Test
+    void testDigestsKeptPerWindow() throws IOException
+    {
+        Path dssFile = Files.createFile(_tempDir.resolve("test.dss"));
+        DssRecordDigests digests = DssRecordDigests.load(dssFile.toString());
+        Instant middle = Instant.parse("2023-01-16T00:00:00Z");
+        //streamed windows of the same record each keep their digest
+        digests.updateDigest(PATHNAME, START, middle, "abc");
+        digests.updateDigest(PATHNAME, middle, END, "def");
+        assertTrue(digests.isUnchanged(PATHNAME, START, middle, "abc"));
+        assertTrue(digests.isUnchanged(PATHNAME, middle, END, "def"));
+        assertFalse(digests.isUnchanged(PATHNAME, START, END, "abc"));
+        //a write over both windows replaces their values
+        digests.updateDigest(PATHNAME, START, END, "ghi");
+        assertFalse(digests.isUnchanged(PATHNAME, START, middle, "abc"));
+        assertFalse(digests.isUnchanged(PATHNAME, middle, END, "def"));
+        digests.save();
+        assertTrue(DssRecordDigests.load(dssFile.toString()).isUnchanged(PATHNAME, START, END, "ghi"));
+    }
+
+    private static TimeSeriesContainer buildContainer(double... values)
+    {
+        TimeSeriesContainer retVal = new TimeSeriesContainer();
+        retVal.fullName = PATHNAME;
+        retVal.units = "cfs";
+        retVal.type = "INST-VAL";
+        retVal.values = values;
+        retVal.times = new int[values.length];
+        for(int i = 0; i < values.length; i++)
+        {
+            retVal.times[i] = 60 * i;
+        }
+        return retVal;
+    }
+}
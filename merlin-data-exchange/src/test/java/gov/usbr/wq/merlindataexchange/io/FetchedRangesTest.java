@@ -0,0 +1,116 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class FetchedRangesTest
+{
+    private static final Instant JAN = Instant.parse("2022-01-01T00:00:00Z");
+    private static final Instant MAR = Instant.parse("2022-03-01T00:00:00Z");
+    private static final Instant JUN = Instant.parse("2022-06-01T00:00:00Z");
+    private static final Instant SEP = Instant.parse("2022-09-01T00:00:00Z");
+    private static final Instant DEC = Instant.parse("2022-12-01T00:00:00Z");
+
+    @Test
+    void testNothingFetched()
+    {
+        FetchedRanges ranges = new FetchedRanges();
+        List<Instant[]> missing = ranges.getMissingRanges(JAN, DEC);
+        assertEquals(1, missing.size());
+        assertRange(JAN, DEC, missing.get(0));
+    }
+
+    @Test
+    void testExtendedWindowOnlyFetchesExtension()
+    {
+        FetchedRanges ranges = new FetchedRanges();
+        ranges.add(JAN, JUN);
+        List<Instant[]> missing = ranges.getMissingRanges(JAN, DEC);
+        assertEquals(1, missing.size());
+        assertRange(JUN, DEC, missing.get(0));
+    }
+
+    @Test
+    void testContainedWindowFetchesNothing()
+    {
+        FetchedRanges ranges = new FetchedRanges();
+        ranges.add(JAN, DEC);
+        assertTrue(ranges.getMissingRanges(MAR, SEP).isEmpty());
+    }
+
+    @Test
+    void testGapBetweenRanges()
+    {
+        FetchedRanges ranges = new FetchedRanges();
+        ranges.add(JAN, MAR);
+        ranges.add(JUN, SEP);
+        List<Instant[]> missing = ranges.getMissingRanges(JAN, DEC);
+        assertEquals(2, missing.size());
+        assertRange(MAR, JUN, missing.get(0));
+        assertRange(SEP, DEC, missing.get(1));
+    }
+
+    @Test
+    void testTouchingAndOverlappingRangesMerge()
+    {
+        FetchedRanges ranges = new FetchedRanges();
+        ranges.add(JUN, SEP);
+        ranges.add(JAN, MAR);
+        ranges.add(MAR, JUN);
+        assertEquals(1, ranges.size());
+        ranges.add(MAR, DEC);
+        assertEquals(1, ranges.size());
+        assertTrue(ranges.getMissingRanges(JAN, DEC).isEmpty());
+    }
+
+    @Test
+    void testOverlappingRangesMerge()
+    {
+        FetchedRanges ranges = new FetchedRanges();
+        ranges.add(JAN, JUN);
+        ranges.add(MAR, SEP);
+        assertEquals(1, ranges.size());
+        List<Instant[]> missing = ranges.getMissingRanges(JAN, DEC);
+        assertEquals(1, missing.size());
+        assertRange(SEP, DEC, missing.get(0));
+    }
+
+    @Test
+    void testAdjacentRangesMerge()
+    {
+        FetchedRanges ranges = new FetchedRanges();
+        ranges.add(MAR, JUN);
+        ranges.add(JUN, SEP);
+        assertEquals(1, ranges.size());
+        List<Instant[]> missing = ranges.getMissingRanges(JAN, DEC);
+        assertEquals(2, missing.size());
+        assertRange(JAN, MAR, missing.get(0));
+        assertRange(SEP, DEC, missing.get(1));
+    }
+
+    @Test
+    void testDisjointRangesKeptApart()
+    {
+        FetchedRanges ranges = new FetchedRanges();
+        ranges.add(SEP, DEC);
+        ranges.add(JAN, MAR);
+        assertEquals(2, ranges.size());
+        List<Instant[]> missing = ranges.getMissingRanges(JAN, DEC);
+        assertEquals(1, missing.size());
+        assertRange(MAR, SEP, missing.get(0));
+        //a range spanning the gap joins both
+        ranges.add(MAR, SEP);
+        assertEquals(1, ranges.size());
+    }
+
+    private static void assertRange(Instant expectedStart, Instant expectedEnd, Instant[] range)
+    {
+        assertEquals(expectedStart, range[0]);
+        assertEquals(expectedEnd, range[1]);
+    }
+}
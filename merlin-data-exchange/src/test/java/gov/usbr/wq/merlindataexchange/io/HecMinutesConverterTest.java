@@ -0,0 +1,73 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class HecMinutesConverterTest
+{
+    @Test
+    void testHecTimeBase()
+    {
+        HecMinutesConverter converter = new HecMinutesConverter(ZoneId.of("UTC"));
+        assertEquals(0, converter.toHecMinutes(Instant.parse("1899-12-31T00:00:00Z").getEpochSecond()));
+        assertEquals(1440, converter.toHecMinutes(Instant.parse("1900-01-01T00:00:00Z").getEpochSecond()));
+        assertEquals(1440, converter.toHecMinutes(Instant.parse("1900-01-01T00:00:59Z").getEpochSecond()));
+    }
+
+    @Test
+    void testFixedOffsetZone()
+    {
+        ZoneId zoneId = ZoneId.of("UTC-08:00");
+        HecMinutesConverter converter = new HecMinutesConverter(zoneId);
+        Instant instant = Instant.parse("2019-01-01T08:00:00Z");
+        assertEquals(expectedMinutes(instant, zoneId), converter.toHecMinutes(instant.getEpochSecond()));
+    }
+
+    @Test
+    void testAcrossDaylightSavingTransitions()
+    {
+        ZoneId zoneId = ZoneId.of("America/Los_Angeles");
+        HecMinutesConverter converter = new HecMinutesConverter(zoneId);
+        Instant end = Instant.parse("2021-11-08T00:00:00Z");
+        for(Instant instant = Instant.parse("2021-03-13T00:00:00Z"); instant.isBefore(end); instant = instant.plus(Duration.ofMinutes(5)))
+        {
+            assertEquals(expectedMinutes(instant, zoneId), converter.toHecMinutes(instant.getEpochSecond()), instant::toString);
+        }
+        //out of order times look up the offset again
+        Instant summer = Instant.parse("2021-07-01T12:00:00Z");
+        assertEquals(expectedMinutes(summer, zoneId), converter.toHecMinutes(summer.getEpochSecond()));
+    }
+
+    @Test
+    void testMatchesHecTime()
+    {
+        //the per event HecTime conversion this replaced keeps the local time to the minute, dropping the seconds
+        String[] instants = {"1900-01-01T00:00:59Z", "2019-06-15T12:34:56.789Z", "1899-12-30T23:59:30Z", "1850-07-04T10:15:45Z", "1899-12-31T00:00:01Z",
+                "2021-03-14T09:59:59Z", "2021-03-14T10:00:00Z", "2021-03-14T10:00:30Z", "2021-11-07T08:30:15Z", "2021-11-07T09:00:00Z", "2021-11-07T09:30:15Z",
+                "2021-11-07T09:59:59Z", "2021-11-07T10:00:00Z"};
+        for(String zone : new String[]{"UTC", "UTC-08:00", "America/Los_Angeles"})
+        {
+            ZoneId zoneId = ZoneId.of(zone);
+            HecMinutesConverter converter = new HecMinutesConverter(zoneId);
+            for(String text : instants)
+            {
+                Instant instant = Instant.parse(text);
+                int expected = MerlinDataConverter.fromZonedDateTime(ZonedDateTime.ofInstant(instant, zoneId), zoneId).value();
+                assertEquals(expected, converter.toHecMinutes(instant.getEpochSecond()), () -> text + " " + zone);
+            }
+        }
+    }
+
+    private static int expectedMinutes(Instant instant, ZoneId zoneId)
+    {
+        return (int) ChronoUnit.MINUTES.between(HecMinutesConverter.HEC_TIME_BASE, LocalDateTime.ofInstant(instant, zoneId));
+    }
+}
@@ -0,0 +1,40 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import org.junit.jupiter.api.Test;
+
+import static gov.usbr.wq.merlindataexchange.TestExchangeUtil.buildMeasure;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class MeasureCostEstimatorTest
+{
+    @Test
+    void testIntervalOfHecTimestep()
+    {
+        assertEquals(15, MeasureCostEstimator.getIntervalMinutes(buildMeasure("Shasta Lake-Flow/Flow/INST-VAL/15/0/54-250.10.310.1.1")));
+        assertEquals(1440, MeasureCostEstimator.getIntervalMinutes(buildMeasure("Shasta Lake-Flow/Flow/PER-AVER/1440/0/54-250.10.310.1.1")));
+        //Merlin's monthly timesteps are all stored as the DSS monthly interval
+        assertEquals(43200, MeasureCostEstimator.getIntervalMinutes(buildMeasure("Shasta Lake-Flow/Flow/PER-AVER/44640/0/54-250.10.310.1.1")));
+    }
+
+    @Test
+    void testIntervalOfNonHecTimestepFallsBack()
+    {
+        assertEquals(60, MeasureCostEstimator.getIntervalMinutes(
+                buildMeasure("MR Am.-Folsom Lake-Site C-Water Temp/Temp-Water/INST-VAL/20146/0/54-250.10.310.1.1")));
+    }
+
+    @Test
+    void testIntervalOfProfileTimestepFallsBack()
+    {
+        assertEquals(60, MeasureCostEstimator.getIntervalMinutes(
+                buildMeasure("MR Sac.-Shasta Lake-Lake-Water Depth/Depth/INST-VAL/1, 2/0/123-230.12.310.1.2")));
+    }
+
+    @Test
+    void testIntervalOfUnparseableTimestepFallsBack()
+    {
+        assertEquals(60, MeasureCostEstimator.getIntervalMinutes(buildMeasure("Shasta Lake-Flow/Flow/INST-VAL/IR-DAY/0/54-250.10.310.1.1")));
+        assertEquals(60, MeasureCostEstimator.getIntervalMinutes(buildMeasure("Shasta Lake-Flow")));
+        assertEquals(60, MeasureCostEstimator.getIntervalMinutes(buildMeasure(null)));
+    }
+}
@@ -3,6 +3,7 @@ package gov.usbr.wq.merlindataexchange.io;
 import gov.usbr.wq.dataaccess.json.Data;
 import gov.usbr.wq.dataaccess.json.Event;
 import gov.usbr.wq.dataaccess.model.DataWrapper;
+import gov.usbr.wq.dataaccess.model.EventWrapper;
 import gov.usbr.wq.merlindataexchange.NoEventsException;
 import hec.data.DataSetIllegalArgumentException;
 import hec.data.Units;
@@ -13,11 +14,15 @@ import hec.io.TimeSeriesContainer;
 import hec.lang.Const;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -105,6 +110,93 @@ class MerlinDataConverterTest
 
 	}
 
+	@Test
+	void testStreamedWindowsMatchWholeRead() throws Exception
+	{
+		Instant start = Instant.parse("2023-01-01T00:00:00Z");
+		Instant end = Instant.parse("2023-01-05T00:00:00Z");
+		//irregular events with a gap spanning a whole window, so regular times are interpolated across every kind of boundary
+		List<Event> events = new ArrayList<>();
+		for(Instant time = start.plus(7, ChronoUnit.MINUTES); time.isBefore(end); time = time.plus(37, ChronoUnit.MINUTES))
+		{
+			if(time.isBefore(Instant.parse("2023-01-02T20:00:00Z")) || time.isAfter(Instant.parse("2023-01-04T02:00:00Z")))
+			{
+				events.add(new Event().date(time.atOffset(ZoneOffset.UTC)).value(events.size() * 1.5));
+			}
+		}
+		TimeSeriesContainer whole = MerlinDataConverter.dataToTimeSeries(readSeries(events, start, end, null, null), null, null, false, null, "230.6.125.1.1");
+
+		List<Integer> streamedTimes = new ArrayList<>();
+		List<Double> streamedValues = new ArrayList<>();
+		List<Instant[]> windows = MerlinSeriesChunks.split(start, end, 60, 24);
+		for(int i = 0; i < windows.size(); i++)
+		{
+			Instant windowStart = windows.get(i)[0];
+			Instant windowEnd = windows.get(i)[1];
+			//read the way the time series reader reads a streamed window, with the nearest event on each side when not already at the bounds
+			List<Event> windowEvents = getEvents(events, windowStart, windowEnd, true);
+			Event before = null;
+			Event after = null;
+			if(windowEvents.isEmpty() || windowEvents.get(0).getDate().toInstant().isAfter(windowStart))
+			{
+				List<Event> beforeEvents = getEvents(events, start, windowStart, false);
+				before = beforeEvents.isEmpty() ? null : beforeEvents.get(beforeEvents.size() - 1);
+			}
+			if(windowEvents.isEmpty() || windowEvents.get(windowEvents.size() - 1).getDate().toInstant().isBefore(windowEnd))
+			{
+				List<Event> afterEvents = getEvents(events, windowEnd, end, true);
+				after = afterEvents.isEmpty() ? null : afterEvents.get(0);
+			}
+			TimeSeriesContainer window = MerlinDataConverter.dataToTimeSeries(readSeries(windowEvents, windowStart, windowEnd, before, after), null, null, false,
+					null, "230.6.125.1.1");
+			window = MerlinDataConverter.clipToWindow(window, windowStart, windowEnd, i == windows.size() - 1, ZoneId.of("UTC"), TEST_TIMESERIES_ID);
+			for(int j = 0; j < window.numberValues; j++)
+			{
+				streamedTimes.add(window.times[j]);
+				streamedValues.add(window.values[j]);
+			}
+		}
+		assertArrayEquals(Arrays.copyOf(whole.times, whole.numberValues), streamedTimes.stream().mapToInt(Integer::intValue).toArray());
+		assertArrayEquals(Arrays.copyOf(whole.values, whole.numberValues), streamedValues.stream().mapToDouble(Double::doubleValue).toArray(), 0.0001);
+	}
+
+	private static MerlinSeriesData readSeries(List<Event> events, Instant start, Instant end, Event before, Event after)
+	{
+		return MerlinSeriesData.fromDataWrapper(buildData(events)).withBoundaryEvents(toEventWrapper(before), toEventWrapper(after), start, end);
+	}
+
+	private static EventWrapper toEventWrapper(Event event)
+	{
+		return event == null ? null : buildData(Collections.singletonList(event)).getEvents().first();
+	}
+
+	private static DataWrapper buildData(List<Event> events)
+	{
+		Data data = new Data().seriesString(TEST_TIMESERIES_ID);
+		data.setTimeZone("UTC");
+		data.setUnits("cfs");
+		data.setParameter("FLOW");
+		events.forEach(data::addEventsItem);
+		return new DataWrapper(data);
+	}
+
+	/**
+	 * @return events from start, inclusive, to end
+	 */
+	private static List<Event> getEvents(List<Event> events, Instant start, Instant end, boolean includeEnd)
+	{
+		List<Event> retVal = new ArrayList<>();
+		for(Event event : events)
+		{
+			Instant time = event.getDate().toInstant();
+			if(!time.isBefore(start) && (time.isBefore(end) || (includeEnd && time.equals(end))))
+			{
+				retVal.add(event);
+			}
+		}
+		return retVal;
+	}
+
 	@Test
 	void testTimeZoneConversion()
 	{
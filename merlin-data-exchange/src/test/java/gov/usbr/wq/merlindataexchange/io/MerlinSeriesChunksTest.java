@@ -0,0 +1,165 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import gov.usbr.wq.dataaccess.json.Data;
+import gov.usbr.wq.dataaccess.json.Event;
+import gov.usbr.wq.dataaccess.model.DataWrapper;
+import gov.usbr.wq.dataaccess.model.EventWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class MerlinSeriesChunksTest
+{
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+    private static final Instant END = Instant.parse("2020-01-05T00:00:00Z");
+    private static final String SERIES_STRING = "Shasta Lake-Flow/Flow/INST-VAL/1440/0/54-250.10.310.1.1";
+    @Test
+    void testWindowWithinBudgetIsOneChunk()
+    {
+        Instant start = Instant.parse("2020-01-01T00:00:00Z");
+        Instant end = start.plus(Duration.ofDays(30));
+        List<Instant[]> chunks = MerlinSeriesChunks.split(start, end, 15, 100_000);
+        assertEquals(1, chunks.size());
+        assertEquals(start, chunks.get(0)[0]);
+        assertEquals(end, chunks.get(0)[1]);
+    }
+
+    @Test
+    void testChunksCoverWindowAndShareBoundaries()
+    {
+        Instant start = Instant.parse("1983-01-01T00:00:00Z");
+        Instant end = Instant.parse("2023-01-01T00:00:00Z");
+        List<Instant[]> chunks = MerlinSeriesChunks.split(start, end, 15, 100_000);
+        assertEquals(15, chunks.size());
+        assertEquals(start, chunks.get(0)[0]);
+        assertEquals(end, chunks.get(chunks.size() - 1)[1]);
+        for(int i = 1; i < chunks.size(); i++)
+        {
+            assertEquals(chunks.get(i - 1)[1], chunks.get(i)[0]);
+            assertEquals(Duration.ofMinutes(15L * 100_000), Duration.between(chunks.get(i - 1)[0], chunks.get(i - 1)[1]));
+        }
+    }
+
+    @Test
+    void testChunksFetchedConcurrentlyAndStitched() throws Exception
+    {
+        List<Instant[]> chunks = MerlinSeriesChunks.split(START, END, 1440, 1);
+        assertEquals(4, chunks.size());
+        CountDownLatch concurrentFetches = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            MerlinSeriesData data = MerlinSeriesChunks.getEventsByChunks(chunks, (chunkStart, chunkEnd) ->
+            {
+                concurrentFetches.countDown();
+                awaitOtherFetch(concurrentFetches);
+                return buildChunkData(chunkStart, chunkEnd);
+            }, START, END, new AtomicBoolean(), executor);
+            assertEquals(0, concurrentFetches.getCount());
+            //events on shared chunk boundaries are kept once
+            List<Instant> eventTimes = new ArrayList<>();
+            for(EventWrapper event : data.getEvents())
+            {
+                eventTimes.add(event.getDate().toInstant());
+            }
+            assertEquals(5, eventTimes.size());
+            for(int day = 0; day < eventTimes.size(); day++)
+            {
+                assertEquals(START.plus(Duration.ofDays(day)), eventTimes.get(day));
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testChunkFailureReachesCaller()
+    {
+        List<Instant[]> chunks = MerlinSeriesChunks.split(START, END, 1440, 1);
+        IOException failure = new IOException("Merlin unavailable");
+        AtomicInteger fetches = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            IOException thrown = assertThrows(IOException.class, () -> MerlinSeriesChunks.getEventsByChunks(chunks, (chunkStart, chunkEnd) ->
+            {
+                fetches.incrementAndGet();
+                if(chunkStart.equals(START))
+                {
+                    throw failure;
+                }
+                return buildChunkData(chunkStart, chunkEnd);
+            }, START, END, new AtomicBoolean(), executor));
+            assertSame(failure, thrown);
+            assertTrue(fetches.get() <= chunks.size());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCallerFetchesChunksWhileExecutorBusy() throws Exception
+    {
+        List<Instant[]> chunks = MerlinSeriesChunks.split(START, END, 1440, 1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        try
+        {
+            executor.submit(() ->
+            {
+                release.await();
+                return null;
+            });
+            //helpers are queued behind the busy thread, the caller doesn't wait for them
+            MerlinSeriesData data = MerlinSeriesChunks.getEventsByChunks(chunks, MerlinSeriesChunksTest::buildChunkData, START, END, new AtomicBoolean(), executor);
+            assertEquals(5, data.getEvents().size());
+        }
+        finally
+        {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitOtherFetch(CountDownLatch concurrentFetches) throws InterruptedIOException
+    {
+        try
+        {
+            concurrentFetches.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            throw new InterruptedIOException();
+        }
+    }
+
+    private static MerlinSeriesData buildChunkData(Instant chunkStart, Instant chunkEnd)
+    {
+        Data data = new Data().seriesString(SERIES_STRING);
+        data.setTimeZone("UTC");
+        data.addEventsItem(new Event().date(chunkStart.atOffset(ZoneOffset.UTC)).value(1.0));
+        data.addEventsItem(new Event().date(chunkEnd.atOffset(ZoneOffset.UTC)).value(2.0));
+        return MerlinSeriesData.fromDataWrapper(new DataWrapper(data));
+    }
+}
@@ -0,0 +1,110 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ReadWriteLockManagerTest
+{
+    private static final int WRITERS = 8;
+
+    @TempDir
+    Path _tempDir;
+
+    @Test
+    void testSameFileSharesLock()
+    {
+        ReadWriteLockManager lockManager = ReadWriteLockManager.getInstance();
+        Path dssFile = _tempDir.resolve("test.dss");
+        assertSame(lockManager.getCloseableLock(dssFile), lockManager.getCloseableLock(_tempDir.resolve("sub").resolve("..").resolve("test.dss")));
+        assertNotSame(lockManager.getCloseableLock(dssFile), lockManager.getCloseableLock(_tempDir.resolve("other.dss")));
+    }
+
+    @Test
+    void testConcurrentWritesToSameFileSerialized() throws Exception
+    {
+        Path dssFile = _tempDir.resolve("test.dss");
+        AtomicInteger writing = new AtomicInteger();
+        AtomicInteger maxWriting = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(WRITERS);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try
+        {
+            Future<?>[] writes = new Future<?>[WRITERS];
+            for(int i = 0; i < WRITERS; i++)
+            {
+                writes[i] = executor.submit(() ->
+                {
+                    ready.countDown();
+                    ready.await();
+                    try(CloseableReentrantLock lock = ReadWriteLockManager.getInstance().getCloseableLock(dssFile).lockIt())
+                    {
+                        maxWriting.accumulateAndGet(writing.incrementAndGet(), Math::max);
+                        Thread.sleep(5);
+                        writing.decrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            for(Future<?> write : writes)
+            {
+                write.get(10, TimeUnit.SECONDS);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        assertEquals(1, maxWriting.get());
+    }
+
+    @Test
+    void testWritesToDifferentFilesDontWait() throws Exception
+    {
+        Path dssFile = _tempDir.resolve("test.dss");
+        Path otherDssFile = _tempDir.resolve("other.dss");
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            Future<?> write = executor.submit(() ->
+            {
+                try(CloseableReentrantLock lock = ReadWriteLockManager.getInstance().getCloseableLock(dssFile).lockIt())
+                {
+                    locked.countDown();
+                    release.await();
+                }
+                return null;
+            });
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            //the other file is written while the first is still locked
+            Future<Boolean> otherWrite = executor.submit(() ->
+            {
+                try(CloseableReentrantLock lock = ReadWriteLockManager.getInstance().getCloseableLock(otherDssFile).lockIt())
+                {
+                    return true;
+                }
+            });
+            assertTrue(otherWrite.get(5, TimeUnit.SECONDS));
+            release.countDown();
+            write.get(5, TimeUnit.SECONDS);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import hec.hecmath.HecMath;
+import hec.hecmath.HecMathException;
+import hec.hecmath.TimeSeriesMath;
+import hec.io.TimeSeriesContainer;
+import hec.lang.Const;
+import org.junit.jupiter.api.Test;
+import rma.util.RMAConst;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class RegularIntervalInterpolatorTest
+{
+    //2023-01-01 00:00 in HEC minutes, counted from 1899-12-31 00:00
+    private static final int START_OF_2023_MINUTES = 64_693_440;
+
+    @Test
+    void testRegularTimesWithOffset()
+    {
+        assertArrayEquals(new int[]{60, 120, 180}, RegularIntervalInterpolator.getRegularTimes(55, 190, 60, 0));
+        assertArrayEquals(new int[]{75, 135}, RegularIntervalInterpolator.getRegularTimes(55, 190, 60, 15));
+        assertArrayEquals(new int[]{60}, RegularIntervalInterpolator.getRegularTimes(60, 60, 60, 0));
+        assertEquals(0, RegularIntervalInterpolator.getRegularTimes(61, 119, 60, 0).length);
+    }
+
+    @Test
+    void testLinearInterpolation()
+    {
+        int[] times = {50, 70, 120, 170};
+        double[] values = {1.0, 3.0, 8.0, 13.0};
+        double[] interpolated = RegularIntervalInterpolator.interpolateValues(times, values, new int[]{60, 120, 150});
+        assertArrayEquals(new double[]{2.0, 8.0, 11.0}, interpolated, 1e-9);
+    }
+
+    @Test
+    void testMissingNeighborIsMissing()
+    {
+        int[] times = {50, 70, 130};
+        double[] values = {1.0, Const.UNDEFINED_DOUBLE, 5.0};
+        double[] interpolated = RegularIntervalInterpolator.interpolateValues(times, values, new int[]{60, 120});
+        assertEquals(Const.UNDEFINED_DOUBLE, interpolated[0]);
+        assertEquals(Const.UNDEFINED_DOUBLE, interpolated[1]);
+    }
+
+    @Test
+    void testSupportedIntervalsAndTypes()
+    {
+        assertTrue(RegularIntervalInterpolator.isSupported(15, "INST-VAL"));
+        assertTrue(RegularIntervalInterpolator.isSupported(1440, "inst-cum"));
+        //period data is left to HEC math
+        assertFalse(RegularIntervalInterpolator.isSupported(60, "PER-AVER"));
+        assertFalse(RegularIntervalInterpolator.isSupported(60, "PER-CUM"));
+        assertFalse(RegularIntervalInterpolator.isSupported(MerlinDataConverter.DSS_MONTHLY_TIME_STEP, "INST-VAL"));
+        assertFalse(RegularIntervalInterpolator.isSupported(60, null));
+    }
+
+    @Test
+    void testContainerInterpolated()
+    {
+        TimeSeriesContainer timeSeriesContainer = new TimeSeriesContainer();
+        timeSeriesContainer.type = "INST-VAL";
+        timeSeriesContainer.times = new int[]{50, 70, 130};
+        timeSeriesContainer.values = new double[]{1.0, 3.0, 9.0};
+        assertTrue(RegularIntervalInterpolator.interpolate(timeSeriesContainer, 60, 0));
+        assertArrayEquals(new int[]{60, 120}, timeSeriesContainer.times);
+        assertArrayEquals(new double[]{2.0, 8.0}, timeSeriesContainer.values, 1e-9);
+        assertEquals(2, timeSeriesContainer.numberValues);
+        assertEquals(60, timeSeriesContainer.interval);
+    }
+
+    @Test
+    void testInstantaneousValueMatchesTimeSeriesMath() throws HecMathException
+    {
+        assertMatchesTimeSeriesMath("INST-VAL", "FLOW", "cfs");
+    }
+
+    @Test
+    void testInstantaneousCumulativeMatchesTimeSeriesMath() throws HecMathException
+    {
+        assertMatchesTimeSeriesMath("INST-CUM", "PRECIP", "in");
+    }
+
+    private static void assertMatchesTimeSeriesMath(String type, String parameter, String units) throws HecMathException
+    {
+        TimeSeriesContainer kernelContainer = buildIrregularContainer(type, parameter, units);
+        assertTrue(RegularIntervalInterpolator.isSupported(60, type));
+        assertTrue(RegularIntervalInterpolator.interpolate(kernelContainer, 60, 15));
+        HecMath hecMath = new TimeSeriesMath(buildIrregularContainer(type, parameter, units)).interpolateDataAtRegularInterval("60M", "15M");
+        TimeSeriesContainer mathContainer = (TimeSeriesContainer) hecMath.getData();
+        assertArrayEquals(mathContainer.times, kernelContainer.times);
+        for(int i = 0; i < mathContainer.values.length; i++)
+        {
+            double expected = mathContainer.values[i];
+            double actual = kernelContainer.values[i];
+            if(RMAConst.isValidValue(expected))
+            {
+                assertEquals(expected, actual, 1e-9, "Value at " + mathContainer.times[i]);
+            }
+            else
+            {
+                assertFalse(RMAConst.isValidValue(actual), "Value at " + mathContainer.times[i]);
+            }
+        }
+    }
+
+    /**
+     * @return irregular values over a day, with a missing value, starting at 2023-01-01 00:05
+     */
+    private static TimeSeriesContainer buildIrregularContainer(String type, String parameter, String units)
+    {
+        int[] offsets = {5, 50, 130, 160, 280, 370, 460, 605, 740, 880, 1060, 1210, 1400};
+        int[] times = new int[offsets.length];
+        for(int i = 0; i < offsets.length; i++)
+        {
+            times[i] = START_OF_2023_MINUTES + offsets[i];
+        }
+        double[] values = {1.0, 2.5, 4.0, 4.5, Const.UNDEFINED_DOUBLE, 7.0, 8.5, 9.0, 12.0, 12.5, 15.0, 17.5, 20.0};
+        TimeSeriesContainer retVal = new TimeSeriesContainer();
+        retVal.fullName = "//SHASTA LAKE/" + parameter + "//IR-DAY/MERLIN/";
+        retVal.location = "SHASTA LAKE";
+        retVal.parameter = parameter;
+        retVal.version = "MERLIN";
+        retVal.type = type;
+        retVal.units = units;
+        retVal.interval = 0;
+        retVal.times = times;
+        retVal.values = values;
+        retVal.numberValues = times.length;
+        retVal.startTime = times[0];
+        retVal.endTime = times[times.length - 1];
+        retVal.setTimeZoneID("UTC");
+        return retVal;
+    }
+}
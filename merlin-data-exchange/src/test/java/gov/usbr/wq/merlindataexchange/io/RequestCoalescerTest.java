@@ -0,0 +1,225 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class RequestCoalescerTest
+{
+    private static final String KEY = "Shasta Lake-Flow";
+    private static final int WAITERS = 4;
+
+    @Test
+    void testConcurrentRequestsShareOneCall() throws Exception
+    {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Caller owner = new Caller(coalescer, KEY, () ->
+        {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "events";
+        });
+        owner.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        List<Caller> waiters = startWaiters(coalescer, KEY, () ->
+        {
+            calls.incrementAndGet();
+            return "other events";
+        });
+        release.countDown();
+        owner.join(5000);
+        assertEquals("events", owner._result);
+        for(Caller waiter : waiters)
+        {
+            waiter.join(5000);
+            assertSame(owner._result, waiter._result);
+            assertNull(waiter._failure);
+        }
+        assertEquals(1, calls.get());
+        assertFalse(coalescer.isInFlight(KEY));
+    }
+
+    @Test
+    void testDifferentKeysNotShared() throws Exception
+    {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+        CountDownLatch release = new CountDownLatch(1);
+        Caller owner = new Caller(coalescer, KEY, () ->
+        {
+            await(release);
+            return "events";
+        });
+        owner.start();
+        assertEquals("Keswick events", coalescer.get("Keswick-Flow", () -> "Keswick events", "Keswick-Flow"));
+        release.countDown();
+        owner.join(5000);
+        assertEquals("events", owner._result);
+    }
+
+    @Test
+    void testFailureReachesEveryWaiter() throws Exception
+    {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IOException failure = new IOException("Merlin unavailable");
+        Caller owner = new Caller(coalescer, KEY, () ->
+        {
+            started.countDown();
+            await(release);
+            throw failure;
+        });
+        owner.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        List<Caller> waiters = startWaiters(coalescer, KEY, () -> "events");
+        release.countDown();
+        owner.join(5000);
+        assertSame(failure, owner._failure);
+        for(Caller waiter : waiters)
+        {
+            waiter.join(5000);
+            assertSame(failure, waiter._failure);
+            assertNull(waiter._result);
+        }
+        //a failure isn't kept, the next request goes to Merlin again
+        assertEquals("events", coalescer.get(KEY, () -> "events", KEY));
+    }
+
+    @Test
+    void testCancellationReachesEveryWaiter() throws Exception
+    {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+        CountDownLatch started = new CountDownLatch(1);
+        Caller owner = new Caller(coalescer, KEY, () ->
+        {
+            started.countDown();
+            try
+            {
+                new CountDownLatch(1).await();
+            }
+            catch (InterruptedException e)
+            {
+                throw new InterruptedIOException("Request cancelled");
+            }
+            return "events";
+        });
+        owner.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        List<Caller> waiters = startWaiters(coalescer, KEY, () -> "events");
+        owner.interrupt();
+        owner.join(5000);
+        assertTrue(owner._failure instanceof InterruptedIOException);
+        for(Caller waiter : waiters)
+        {
+            waiter.join(5000);
+            assertSame(owner._failure, waiter._failure);
+        }
+    }
+
+    @Test
+    void testInterruptedWaiterLeavesRequestRunning() throws Exception
+    {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Caller owner = new Caller(coalescer, KEY, () ->
+        {
+            started.countDown();
+            await(release);
+            return "events";
+        });
+        owner.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Caller waiter = startWaiters(coalescer, KEY, () -> "other events").get(0);
+        waiter.interrupt();
+        waiter.join(5000);
+        assertTrue(waiter._failure instanceof InterruptedIOException);
+        assertTrue(coalescer.isInFlight(KEY));
+        release.countDown();
+        owner.join(5000);
+        assertEquals("events", owner._result);
+    }
+
+    /**
+     * @return callers that are blocked waiting on the request in flight for the key
+     */
+    private static List<Caller> startWaiters(RequestCoalescer<String, String> coalescer, String key, RequestCoalescer.Request<String> request)
+            throws InterruptedException
+    {
+        assertTrue(coalescer.isInFlight(key));
+        List<Caller> retVal = new ArrayList<>();
+        for(int i = 0; i < WAITERS; i++)
+        {
+            Caller waiter = new Caller(coalescer, key, request);
+            waiter.start();
+            retVal.add(waiter);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for(Caller waiter : retVal)
+        {
+            while(waiter.getState() != Thread.State.WAITING && System.nanoTime() < deadline)
+            {
+                Thread.sleep(1);
+            }
+            assertEquals(Thread.State.WAITING, waiter.getState());
+        }
+        return retVal;
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedIOException
+    {
+        try
+        {
+            latch.await();
+        }
+        catch (InterruptedException e)
+        {
+            throw new InterruptedIOException();
+        }
+    }
+
+    private static final class Caller extends Thread
+    {
+        private final RequestCoalescer<String, String> _coalescer;
+        private final String _key;
+        private final RequestCoalescer.Request<String> _request;
+        private volatile String _result;
+        private volatile Exception _failure;
+
+        private Caller(RequestCoalescer<String, String> coalescer, String key, RequestCoalescer.Request<String> request)
+        {
+            _coalescer = coalescer;
+            _key = key;
+            _request = request;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                _result = _coalescer.get(_key, _request, _key);
+            }
+            catch (Exception e)
+            {
+                _failure = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package gov.usbr.wq.merlindataexchange.io;
+
+import hec.data.UnitsConversionException;
+import hec.lang.Const;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class UnitConversionCacheTest
+{
+    @Test
+    void testAffineConversionProbedAsLinear() throws UnitsConversionException
+    {
+        UnitConversionCache.UnitConverter converter = UnitConversionCache.getInstance().getConverter("C", "F");
+        assertTrue(converter.isLinear());
+        assertEquals(32.0, converter.convert(0.0), 1e-9);
+        assertEquals(212.0, converter.convert(100.0), 1e-9);
+        assertEquals(-40.0, converter.convert(-40.0), 1e-9);
+        double[] values = {0.0, Const.UNDEFINED_DOUBLE, 37.0, Double.NaN};
+        converter.convert(values);
+        assertArrayEquals(new double[]{32.0, Const.UNDEFINED_DOUBLE, 98.6, Double.NaN}, values, 1e-9);
+        assertSame(converter, UnitConversionCache.getInstance().getConverter("C", "F"));
+    }
+
+    @Test
+    void testSameUnitsLeaveValues() throws UnitsConversionException
+    {
+        UnitConversionCache.UnitConverter converter = UnitConversionCache.getInstance().getConverter("cfs", "CFS");
+        assertTrue(converter.isLinear());
+        double[] values = {1.5, Const.UNDEFINED_DOUBLE};
+        converter.convert(values);
+        assertArrayEquals(new double[]{1.5, Const.UNDEFINED_DOUBLE}, values);
+    }
+
+    @Test
+    void testInvalidUnitPairNotCached()
+    {
+        assertThrows(UnitsConversionException.class, () -> UnitConversionCache.getInstance().getConverter("cfs", "ft"));
+        //a failed pair isn't kept, each request for it fails the same way
+        assertThrows(UnitsConversionException.class, () -> UnitConversionCache.getInstance().getConverter("cfs", "ft"));
+    }
+}
@@ -0,0 +1,38 @@
+package gov.usbr.wq.merlindataexchange.io.wq;
+
+import gov.usbr.wq.merlindataexchange.io.ReadWriteLockManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class CsvDssProfileWriterTest
+{
+    @TempDir
+    Path _tempDir;
+
+    @Test
+    void testYearWritePathResolvesTags()
+    {
+        String csvWritePath = _tempDir.resolve("profiles").toString() + "-" + CsvDssProfileWriter.STATION_TAG + "-" + CsvDssProfileWriter.YEAR_TAG + ".csv";
+        Path writePath = CsvDssProfileWriter.getYearWritePath(csvWritePath, 2023, "Shasta_Lake");
+        assertEquals(_tempDir.resolve("profiles-Shasta_Lake-2023.csv"), writePath);
+    }
+
+    @Test
+    void testEachYearAndStationLockedSeparately()
+    {
+        String csvWritePath = _tempDir.resolve("profiles").toString() + "-" + CsvDssProfileWriter.STATION_TAG + "-" + CsvDssProfileWriter.YEAR_TAG + ".csv";
+        ReadWriteLockManager lockManager = ReadWriteLockManager.getInstance();
+        assertSame(lockManager.getCloseableLock(CsvDssProfileWriter.getYearWritePath(csvWritePath, 2023, "Shasta_Lake")),
+                lockManager.getCloseableLock(CsvDssProfileWriter.getYearWritePath(csvWritePath, 2023, "Shasta_Lake")));
+        assertNotSame(lockManager.getCloseableLock(CsvDssProfileWriter.getYearWritePath(csvWritePath, 2023, "Shasta_Lake")),
+                lockManager.getCloseableLock(CsvDssProfileWriter.getYearWritePath(csvWritePath, 2024, "Shasta_Lake")));
+        assertNotSame(lockManager.getCloseableLock(CsvDssProfileWriter.getYearWritePath(csvWritePath, 2023, "Shasta_Lake")),
+                lockManager.getCloseableLock(CsvDssProfileWriter.getYearWritePath(csvWritePath, 2023, "Trinity_Lake")));
+    }
+}
@@ -0,0 +1,59 @@
+package gov.usbr.wq.merlindataexchange.io.wq;
+
+import gov.usbr.wq.dataaccess.json.Measure;
+import gov.usbr.wq.dataaccess.model.MeasureWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ProfileConstituentIndexTest
+{
+    private static final String DEPTH = "MR Sac.-Shasta Lake-Lake-Water Depth/Depth/INST-VAL/1, 2/0/123-230.12.310.1.2";
+    private static final String TEMP = "MR Sac.-Shasta Lake-Lake-Water Temp/Temp-Water/INST-VAL/1, 2/0/123-230.12.310.1.1";
+    private static final String DO_MULTI_DIGIT = "MR Sac.-Shasta Lake-Lake-Dissolved-Oxygen/DO/INST-VAL/1, 2/0/123-230.12.310.1.12";
+    private static final String OTHER_SITE = "MR Sac.-Keswick-Lake-Water Temp/Temp-Water/INST-VAL/1, 2/0/123-230.12.310.1.1";
+    private static final String OTHER_TYPE_ID = "MR Sac.-Shasta Lake-Lake-Water Temp/Temp-Water/INST-VAL/1, 2/0/123-230.12.311.1.1";
+
+    @Test
+    void testConstituentsMatchDepthGroup()
+    {
+        MeasureWrapper depth = buildMeasure(DEPTH, MerlinDataExchangeProfileReader.PROFILE);
+        List<MeasureWrapper> templateMeasures = Arrays.asList(depth, buildMeasure(TEMP, MerlinDataExchangeProfileReader.PROFILE),
+                buildMeasure(DO_MULTI_DIGIT, MerlinDataExchangeProfileReader.PROFILE), buildMeasure(OTHER_SITE, MerlinDataExchangeProfileReader.PROFILE),
+                buildMeasure(OTHER_TYPE_ID, MerlinDataExchangeProfileReader.PROFILE));
+        ProfileConstituentIndex index = new ProfileConstituentIndex(templateMeasures);
+        List<String> constituents = index.getConstituentMeasures(depth).stream()
+                .map(MeasureWrapper::getSeriesString)
+                .collect(toList());
+        assertEquals(Arrays.asList(DEPTH, TEMP, DO_MULTI_DIGIT), constituents);
+    }
+
+    @Test
+    void testNonProfileMeasuresExcluded()
+    {
+        MeasureWrapper depth = buildMeasure(DEPTH, MerlinDataExchangeProfileReader.PROFILE);
+        List<MeasureWrapper> templateMeasures = Arrays.asList(depth, buildMeasure(TEMP, "time-series"));
+        ProfileConstituentIndex index = new ProfileConstituentIndex(templateMeasures);
+        assertEquals(1, index.getConstituentMeasures(depth).size());
+    }
+
+    @Test
+    void testUngroupableDepthMeasure()
+    {
+        ProfileConstituentIndex index = new ProfileConstituentIndex(Arrays.asList(buildMeasure(TEMP, MerlinDataExchangeProfileReader.PROFILE)));
+        assertTrue(index.getConstituentMeasures(buildMeasure("NoSensor/Depth/INST-VAL/1, 2/0/1", MerlinDataExchangeProfileReader.PROFILE)).isEmpty());
+    }
+
+    private static MeasureWrapper buildMeasure(String seriesString, String type)
+    {
+        Measure measure = new Measure();
+        measure.setSeriesString(seriesString);
+        measure.setType(type);
+        return new MeasureWrapper(measure);
+    }
+}
@@ -2,12 +2,15 @@ package gov.usbr.wq.merlindataexchange.io.wq;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -53,6 +56,30 @@ final class ProfileDataConverterTest
         assertEquals("C", tempConstituentResult2.getUnit());
     }
 
+    @Test
+    void testProfileSampleSplitWithMissingDepth()
+    {
+        List<ProfileConstituent> profileConstituentList = new ArrayList<>();
+        ProfileConstituent depthConstituent = new ProfileConstituent("Depth", Arrays.asList(0.1,5.0,null,15.0,0.1,5.1,10.1,15.1), new ArrayList<>(), "ft");
+        ProfileConstituent tempConstituent = new ProfileConstituent("Temp-Water", Arrays.asList(10.0,11.0,12.0,13.0,10.0,9.0,8.0,7.0), new ArrayList<>(), "C");
+        profileConstituentList.add(depthConstituent);
+        profileConstituentList.add(tempConstituent);
+        //readings seconds apart, so only the change in depth separates the profiles
+        List<ZonedDateTime> readDateTimes = new ArrayList<>();
+        ZonedDateTime firstReading = ZonedDateTime.parse("2009-09-15T10:06:00-08:00", DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        for(int i = 0; i < 8; i++)
+        {
+            readDateTimes.add(firstReading.plusSeconds(i));
+        }
+        SortedSet<ProfileSample> result = ProfileDataConverter.splitDataIntoProfileSamples(profileConstituentList, readDateTimes, null, false, false);
+        assertEquals(2, result.size());
+        //the missing depth is kept with its profile, stored as NaN
+        assertEquals(Arrays.asList(0.1, 5.0, Double.NaN, 15.0), result.first().getConstituents().get(0).getDataValues());
+        assertEquals(Arrays.asList(10.0, 11.0, 12.0, 13.0), result.first().getConstituents().get(1).getDataValues());
+        assertEquals(firstReading.plusSeconds(4), result.last().getDateTime());
+        assertEquals(Arrays.asList(0.1, 5.1, 10.1, 15.1), result.last().getConstituents().get(0).getDataValues());
+    }
+
     @Test
     void testProfileSampleSplitFahrenheit()
     {
@@ -152,4 +179,33 @@ final class ProfileDataConverterTest
         assertTrue(isSignificantChange);
     }
 
+
+    @Test
+    void testProfileSamplesFromColumns()
+    {
+        ZoneId zoneId = ZoneOffset.ofHours(-8);
+        long start = ZonedDateTime.parse("2009-09-15T10:06:00-08:00", DateTimeFormatter.ISO_OFFSET_DATE_TIME).toInstant().toEpochMilli();
+        long[] readingEpochMillis = new long[9];
+        for(int i = 0; i < readingEpochMillis.length; i++)
+        {
+            //three profiles of three readings, a day apart
+            readingEpochMillis[i] = start + TimeUnit.DAYS.toMillis(i / 3) + TimeUnit.SECONDS.toMillis(i % 3);
+        }
+        double[] depths = {0.0, 5.0, 10.0, 0.0, 5.0, 10.0, 0.0, 5.0, 10.0};
+        double[] temps = {20.0, 19.0, 18.0, 21.0, 20.0, 19.0, 22.0, 21.0, 20.0};
+        List<ProfileConstituent> columns = Arrays.asList(new ProfileConstituent("Depth", depths, readingEpochMillis, zoneId, "ft"),
+                new ProfileConstituent("Temp-Water", temps, new long[0], zoneId, "C"));
+        ProfileSampleSet result = ProfileDataConverter.splitDataIntoProfileSamples(columns, readingEpochMillis, zoneId, "Station", true, false,
+                ProfileSegmentationPolicy.fromSystemProperties());
+        assertEquals(2, result.size());
+        assertEquals(12, result.getNumberOfValues());
+        ProfileSample first = result.first();
+        assertEquals(ZonedDateTime.parse("2009-09-16T10:06:00-08:00", DateTimeFormatter.ISO_OFFSET_DATE_TIME), first.getDateTime());
+        ProfileConstituent tempConstituent = first.getConstituents().get(1);
+        assertArrayEquals(new double[]{21.0, 20.0, 19.0}, tempConstituent.toValues());
+        assertEquals(Arrays.asList(21.0, 20.0, 19.0), tempConstituent.getDataValues());
+        assertEquals(ZonedDateTime.parse("2009-09-16T10:06:02-08:00", DateTimeFormatter.ISO_OFFSET_DATE_TIME), tempConstituent.getDateValues().get(2));
+        assertArrayEquals(new double[]{22.0, 21.0, 20.0}, result.last().getConstituents().get(1).toValues());
+    }
+
 }
@@ -0,0 +1,144 @@
+package gov.usbr.wq.merlindataexchange.io.wq;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ProfileGroupFetcherTest
+{
+    @Test
+    void testResultsInMeasureOrder() throws Exception
+    {
+        List<String> constituents = Arrays.asList("Depth", "Temp-Water", "DO", "pH", "Cond");
+        ExecutorService executor = Executors.newFixedThreadPool(constituents.size() - 1);
+        try
+        {
+            //every fetch waits until all of them have started, so this only completes if they run concurrently
+            CountDownLatch allStarted = new CountDownLatch(constituents.size());
+            List<String> results = ProfileGroupFetcher.fetchAll(constituents, constituent ->
+            {
+                allStarted.countDown();
+                try
+                {
+                    assertTrue(allStarted.await(10, TimeUnit.SECONDS));
+                    //later constituents arrive first
+                    Thread.sleep(10L * (constituents.size() - constituents.indexOf(constituent)));
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                return constituent.toUpperCase();
+            }, 30, new AtomicBoolean(false), "Depth", executor);
+            assertEquals(Arrays.asList("DEPTH", "TEMP-WATER", "DO", "PH", "COND"), results);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testGroupTimeoutLeavesRunningFetchUninterrupted() throws Exception
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Thread caller = Thread.currentThread();
+        CountDownLatch helperStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch helperFinished = new CountDownLatch(1);
+        AtomicBoolean helperInterrupted = new AtomicBoolean(false);
+        try
+        {
+            IOException e = assertThrows(IOException.class, () -> ProfileGroupFetcher.fetchAll(Arrays.asList("Depth", "Temp-Water"), constituent ->
+            {
+                try
+                {
+                    if(Thread.currentThread() == caller)
+                    {
+                        //the caller's constituent arrives once the helper's is in flight
+                        assertTrue(helperStarted.await(10, TimeUnit.SECONDS));
+                    }
+                    else
+                    {
+                        helperStarted.countDown();
+                        release.await();
+                        helperInterrupted.set(Thread.currentThread().isInterrupted());
+                        helperFinished.countDown();
+                    }
+                }
+                catch (InterruptedException ex)
+                {
+                    helperInterrupted.set(true);
+                    helperFinished.countDown();
+                }
+                return constituent;
+            }, 1, new AtomicBoolean(false), "Depth", executor));
+            assertTrue(e.getMessage().contains(ProfileGroupFetcher.GROUP_TIMEOUT_SECONDS_PROPERTY_KEY));
+            //the helper's fetch may be shared with other measures, so the timeout doesn't interrupt it
+            release.countDown();
+            assertTrue(helperFinished.await(10, TimeUnit.SECONDS));
+            assertFalse(helperInterrupted.get());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCallerFetchesGroupWhileExecutorBusy() throws Exception
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        try
+        {
+            executor.submit(() ->
+            {
+                release.await();
+                return null;
+            });
+            List<String> constituents = Arrays.asList("Depth", "Temp-Water", "DO");
+            List<String> results = ProfileGroupFetcher.fetchAll(constituents, String::toUpperCase, 30, new AtomicBoolean(false), "Depth", executor);
+            assertEquals(Arrays.asList("DEPTH", "TEMP-WATER", "DO"), results);
+        }
+        finally
+        {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailureOfOneConstituentFailsGroup()
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            IOException e = assertThrows(IOException.class, () -> ProfileGroupFetcher.fetchAll(Arrays.asList("Depth", "Temp-Water"), constituent ->
+            {
+                if("Temp-Water".equals(constituent))
+                {
+                    throw new IOException("Failed to read " + constituent);
+                }
+                return constituent;
+            }, 30, new AtomicBoolean(false), "Depth", executor));
+            assertEquals("Failed to read Temp-Water", e.getMessage());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package gov.usbr.wq.merlindataexchange.io.wq;
+
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import gov.usbr.wq.merlindataexchange.configuration.DataStoreProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ProfileSegmentationPolicyTest
+{
+    @AfterEach
+    void clearProperties()
+    {
+        System.clearProperty(ProfileSegmentationPolicy.SIGNIFICANT_TIME_CHANGE_MINUTES_PROPERTY_KEY);
+        System.clearProperty(ProfileSegmentationPolicy.SIGNIFICANT_CHANGE_DEPTH_PERCENT_PROPERTY_KEY);
+    }
+
+    @Test
+    void testSystemProperties()
+    {
+        ProfileSegmentationPolicy defaultPolicy = ProfileSegmentationPolicy.fromSystemProperties();
+        assertEquals(Duration.ofHours(6), defaultPolicy.getSignificantTimeChange());
+        assertEquals(50.0, defaultPolicy.getSignificantChangeDepthPercent());
+        System.setProperty(ProfileSegmentationPolicy.SIGNIFICANT_TIME_CHANGE_MINUTES_PROPERTY_KEY, "30");
+        System.setProperty(ProfileSegmentationPolicy.SIGNIFICANT_CHANGE_DEPTH_PERCENT_PROPERTY_KEY, "not a number");
+        ProfileSegmentationPolicy policy = ProfileSegmentationPolicy.fromSystemProperties();
+        assertEquals(Duration.ofMinutes(30), policy.getSignificantTimeChange());
+        assertEquals(50.0, policy.getSignificantChangeDepthPercent());
+    }
+
+    @Test
+    void testSignificantChange()
+    {
+        ProfileSegmentationPolicy policy = new ProfileSegmentationPolicy(Duration.ofMinutes(60), 50.0);
+        long start = 0;
+        long oneMinute = TimeUnit.MINUTES.toMillis(1);
+        assertFalse(policy.isSignificantChange(start, start + oneMinute, 10.0, 11.0, 20.0, 0.0));
+        assertTrue(policy.isSignificantChange(start, start + 60 * oneMinute, 10.0, 11.0, 20.0, 0.0));
+        assertTrue(policy.isSignificantChange(start, start + oneMinute, 15.0, 0.0, 20.0, 0.0));
+        //moving to the deepest reading doesn't start a profile
+        assertFalse(policy.isSignificantChange(start, start + oneMinute, 0.0, 20.0, 20.0, 0.0));
+    }
+
+    @Test
+    void testDataStoreOverrides() throws IOException
+    {
+        ProfileSegmentationPolicy policy = new ProfileSegmentationPolicy(Duration.ofHours(6), 50.0);
+        XmlMapper xmlMapper = new XmlMapper();
+        DataStoreProfile noOverrides = xmlMapper.readValue("<datastore-profile id=\"wat\"><datastore-type>csv</datastore-type></datastore-profile>",
+                DataStoreProfile.class);
+        assertSame(policy, policy.withOverrides(noOverrides));
+        DataStoreProfile timeOverride = xmlMapper.readValue("<datastore-profile id=\"wat\" significant-time-change-minutes=\"90\">"
+                + "<datastore-type>csv</datastore-type></datastore-profile>", DataStoreProfile.class);
+        ProfileSegmentationPolicy overridden = policy.withOverrides(timeOverride);
+        assertEquals(Duration.ofMinutes(90), overridden.getSignificantTimeChange());
+        assertEquals(50.0, overridden.getSignificantChangeDepthPercent());
+    }
+}
@@ -106,6 +106,34 @@ final class ParametersTest
         assertThrows(UsernamePasswordNotFoundException.class, () -> params.getUsernamePasswordForUrl("bleh"));
     }
 
+    @Test
+    void testWithStartKeepsOtherParameters() throws UsernamePasswordNotFoundException
+    {
+        Path workingDir = Paths.get(System.getProperty("user.dir"));
+        Instant start = Instant.parse("2019-01-01T08:00:00Z");
+        Instant end = Instant.parse("2022-08-30T08:00:00Z");
+        AuthenticationParameters authParams = new AuthenticationParametersBuilder()
+                .forUrl("https://www.grabdata2.com")
+                .setUsername("user")
+                .andPassword("password".toCharArray())
+                .build();
+        MerlinProfileParameters params = new MerlinProfileParametersBuilder()
+                .withWatershedDirectory(workingDir)
+                .withLogFileDirectory(workingDir.resolve("log"))
+                .withAuthenticationParameters(authParams)
+                .withStart(start)
+                .withEnd(end)
+                .build();
+        Instant incrementalStart = Instant.parse("2022-01-01T08:00:00Z");
+        MerlinParameters incrementalParams = params.withStart(incrementalStart);
+        assertEquals(MerlinProfileParameters.class, incrementalParams.getClass());
+        assertEquals(incrementalStart, incrementalParams.getStart());
+        assertEquals(end, incrementalParams.getEnd());
+        assertEquals(workingDir.resolve("log"), incrementalParams.getLogFileDirectory());
+        assertEquals("user", incrementalParams.getUsernamePasswordForUrl("https://www.grabdata2.com").getUsername());
+        assertEquals(start, params.getStart());
+    }
+
     @Test
     void testGetAuthParameters() throws UsernamePasswordNotFoundException
     {